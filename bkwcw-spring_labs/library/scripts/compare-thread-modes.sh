@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Compare the web tier with platform threads, with virtual threads (spring.threads.virtual.enabled)
+# and as the reactive WebFlux variant (profile `reactive`, on Netty) under the same load: for each mode,
+# start the packaged application, run the load test with CONNECTIONS concurrent connections
+# (default 10000) and stop the application again. MODES selects a subset, e.g. MODES="virtual reactive".
+# Extra arguments go to the load test, e.g.:
+#   CONNECTIONS=12000 scripts/compare-thread-modes.sh duration=120 books=100000
+# Results are written to target/loadtest/<mode>-*.
+cd "$(dirname "$0")/.." || exit 1
+
+CONNECTIONS=${CONNECTIONS:-10000}
+MODES=${MODES:-platform virtual reactive}
+# Both processes need a file descriptor per connection
+ulimit -n $((CONNECTIONS * 2 + 1024)) 2>/dev/null || echo "Could not raise the open file limit; large runs may fail"
+
+mvn -B -q package -DskipTests
+JAR=$(ls target/library-*.jar | grep -v plain | head -n 1)
+
+for MODE in $MODES; do
+  case "$MODE" in
+    platform) ARGS=(--spring.threads.virtual.enabled=false) ;;
+    virtual) ARGS=(--spring.threads.virtual.enabled=true) ;;
+    reactive) ARGS=(--spring.profiles.active=reactive) ;;
+    *) echo "Unknown mode: $MODE"; exit 1 ;;
+  esac
+  echo "Starting the application in ${MODE} mode (${ARGS[*]})..."
+  java -jar "$JAR" "${ARGS[@]}" > "target/${MODE}.log" 2>&1 &
+  APP=$!
+  trap 'kill $APP 2>/dev/null || true' EXIT
+  until curl -sf http://localhost:8081/actuator/health > /dev/null; do
+    kill -0 "$APP" 2>/dev/null || { echo "Application failed to start, see target/${MODE}.log"; exit 1; }
+    sleep 1
+  done
+
+  scripts/run-load-test.sh connections="$CONNECTIONS" label="$MODE" "$@"
+
+  kill "$APP"
+  wait "$APP" 2>/dev/null || true
+done
@@ -0,0 +1,20 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Run the JMH benchmarks in src/jmh/java (Maven profile `jmh`) and keep the results as JSON,
+# named after the commit, so runs from different releases can be compared.
+#
+# Arguments go to JMH, for example:
+#   scripts/run-benchmarks.sh LookupBenchmark -p catalogSize=1000,100000 -t 8
+#   scripts/run-benchmarks.sh MixedWorkloadBenchmark -tg 24,4,4
+# JMH_HEAP sets the heap of the benchmark JVMs; 10M-book catalogs need several GB.
+cd "$(dirname "$0")/.." || exit 1
+
+REV=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+RESULT="target/jmh/${REV}-$(date +%Y%m%d-%H%M%S).json"
+mkdir -p target/jmh
+
+echo "Running benchmarks, results in ${RESULT}..."
+mvn -B -q -P jmh test-compile exec:exec@run-benchmarks \
+  -Djmh.result="${RESULT}" \
+  -Djmh.args="-jvmArgsAppend -Xmx${JMH_HEAP:-8g} $*"
@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Id allocation under contention: run IdGeneratorBenchmark once per thread count in THREADS
+# (default 1 2 4 8 16 32 64), all threads sharing one generator. Flat total ops/s as threads are added
+# means the single atomic counter is the bottleneck. Needs as many cores as the largest thread count
+# for the numbers to mean anything. Extra arguments go to JMH, e.g.:
+#   THREADS="1 16 64" scripts/run-id-contention.sh -i 10
+# Results are written to target/jmh/, one file per thread count.
+cd "$(dirname "$0")/.." || exit 1
+
+THREADS=${THREADS:-1 2 4 8 16 32 64}
+
+for T in $THREADS; do
+  echo "=== ${T} threads ==="
+  scripts/run-benchmarks.sh IdGeneratorBenchmark -t "$T" "$@"
+done
@@ -0,0 +1,11 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Run the HTTP load test in src/loadtest/java (Maven profile `loadtest`) against an application
+# that is already running, e.g. started with `mvn spring-boot:run` in another terminal.
+# Arguments are key=value pairs (see LoadTestConfig), for example:
+#   scripts/run-load-test.sh rate=2000 duration=120 label=virtual-threads
+# Results are written to target/loadtest/<label>-<timestamp>/.
+cd "$(dirname "$0")/.." || exit 1
+
+mvn -B -q -P loadtest test-compile exec:java@run-load-test -Dloadtest.args="$*"
@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Run a replicated library on localhost: a leader on port 8081 and FOLLOWERS followers (default 2) on
+# 8082, 8083, ... Writes go to the leader (followers redirect them there with a 307), reads can go to
+# any node. Follower lag: /actuator/metrics/library.replication.lag.entries and .lag.time on each follower.
+# Extra arguments go to every node, e.g.:
+#   FOLLOWERS=3 scripts/run-replicated.sh --library.shards=4
+# Logs are written to target/replication/<port>.log; Ctrl-C stops all nodes.
+cd "$(dirname "$0")/.." || exit 1
+
+FOLLOWERS=${FOLLOWERS:-2}
+LEADER_PORT=8081
+
+mvn -B -q package -DskipTests
+JAR=$(ls target/library-*.jar | grep -v plain | head -n 1)
+mkdir -p target/replication
+
+PIDS=()
+trap 'kill "${PIDS[@]}" 2>/dev/null || true' EXIT
+
+start() {
+  local port=$1; shift
+  java -jar "$JAR" --server.port="$port" "$@" > "target/replication/${port}.log" 2>&1 &
+  PIDS+=($!)
+  until curl -sf "http://localhost:${port}/actuator/health" > /dev/null; do
+    kill -0 "${PIDS[-1]}" 2>/dev/null || { echo "Node on ${port} failed to start, see target/replication/${port}.log"; exit 1; }
+    sleep 1
+  done
+  echo "Node on ${port} is up"
+}
+
+start "$LEADER_PORT" --library.replication.role=leader "$@"
+for ((i = 1; i <= FOLLOWERS; i++)); do
+  start $((LEADER_PORT + i)) --library.replication.role=follower \
+    --library.replication.leader-url="http://localhost:${LEADER_PORT}" "$@"
+done
+
+echo "Leader: http://localhost:${LEADER_PORT}, followers: ports $((LEADER_PORT + 1))-$((LEADER_PORT + FOLLOWERS))"
+wait
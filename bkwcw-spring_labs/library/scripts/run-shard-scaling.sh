@@ -0,0 +1,20 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Write scaling of the sharded service: run ShardScalingBenchmark with each thread count in THREADS
+# (default 1 2 4 8 16 32), once with a single LibraryService and once with as many shards as threads.
+# Near-linear scaling shows as the sharded ops/s growing with the thread count while the single
+# service flattens. Needs a machine with at least as many cores as the largest thread count.
+# Extra arguments go to JMH, e.g.:
+#   THREADS="1 8 32" scripts/run-shard-scaling.sh -p catalogSize=1000000
+# Results are written to target/jmh/, one file per thread count.
+cd "$(dirname "$0")/.." || exit 1
+
+THREADS=${THREADS:-1 2 4 8 16 32}
+
+for T in $THREADS; do
+  SHARDS=1
+  [ "$T" -gt 1 ] && SHARDS="1,$T"
+  echo "=== ${T} threads, shards=${SHARDS} ==="
+  scripts/run-benchmarks.sh ShardScalingBenchmark -t "$T" -p shards="$SHARDS" "$@"
+done
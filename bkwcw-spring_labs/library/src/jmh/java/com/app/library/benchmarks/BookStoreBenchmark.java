@@ -0,0 +1,83 @@
+package com.app.library.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.app.library.models.Book;
+import com.app.library.services.LibraryService;
+import com.app.library.storage.EntityStore;
+import com.app.library.storage.IdIndex;
+import com.app.library.storage.columnar.OffHeapBookStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmarks: heap (`IdIndex`) versus off-heap columnar (`OffHeapBookStore`) book storage — lookups,
+ * cursor pages and GET-style JSON serialization on the same catalog. Setup prints the heap retained by
+ * the whole service after a full GC and the off-heap bytes of the columns. Run with `-prof gc` to
+ * compare GC counts and pause time under the same request load, e.g.
+ *   scripts/run-benchmarks.sh BookStoreBenchmark -p catalogSize=1000000 -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookStoreBenchmark {
+
+    @Param({"heap", "offheap"})
+    public String storage;
+
+    @Param({"100000", "1000000", "10000000"})
+    public int catalogSize;
+
+    private LibraryService service;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        EntityStore<Book> store = storage.equals("offheap") ? new OffHeapBookStore() : new IdIndex<>();
+        service = Catalog.create(catalogSize, store);
+        System.gc();
+        long retained = memory.getHeapMemoryUsage().getUsed() - before;
+        long offHeap = store instanceof OffHeapBookStore columns ? columns.offHeapBytes() : 0;
+        System.out.printf("%n%s, %d books: %.1f MB retained heap (whole service), %.1f MB off-heap columns%n",
+                storage, catalogSize, retained / 1e6, offHeap / 1e6);
+    }
+
+    @Benchmark
+    public String getBookTitle() {
+        return service.getBookById(1 + ThreadLocalRandom.current().nextLong(catalogSize)).get().getTitle();
+    }
+
+    @Benchmark
+    public List<Book> getBooksPage() {
+        return service.getBooksPage(ThreadLocalRandom.current().nextLong(catalogSize), 50);
+    }
+
+    // What GET /api/books/{id} does on a cache miss
+    @Benchmark
+    public byte[] serializeBook() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(service.getBookById(1 + ThreadLocalRandom.current().nextLong(catalogSize)).get());
+    }
+}
@@ -0,0 +1,115 @@
+package com.app.library.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+
+import com.app.library.metrics.MetricsConfiguration;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.services.LibraryService;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmarks: borrow/return cycles on random books, single and batched, plus the same cycle
+ * behind one global lock as the baseline the striped locking replaced. Run with `-t N`;
+ * every cycle leaves one returned record behind, as in production. `borrowReturnById` is the
+ * id-only path POST /api/borrow and PUT /api/return/{id} take; run with `-prof gc` for bytes/op.
+ * With `bean=proxied` the service is called through the frozen @Timed proxy the application wires
+ * (see MetricsConfiguration); borrow/return are not timed, so it adds no bytes/op to them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BorrowReturnBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int catalogSize;
+
+    @Param({"direct", "proxied"})
+    public String bean;
+
+    private LibraryService service;
+    private int memberCount;
+    private final ReentrantLock globalLock = new ReentrantLock();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        service = Catalog.create(catalogSize);
+        memberCount = Catalog.members(catalogSize);
+        if (bean.equals("proxied")) {
+            TimedAspect aspect = new TimedAspect(new SimpleMeterRegistry());
+            ProxyFactory factory = new ProxyFactory(service);
+            factory.setProxyTargetClass(true);
+            factory.addAdvisor(MetricsConfiguration.timing(() -> aspect));
+            factory.setFrozen(true);
+            service = (LibraryService) factory.getProxy();
+        }
+    }
+
+    @Benchmark
+    public BorrowingRecord borrowReturn() {
+        return cycle();
+    }
+
+    @Benchmark
+    public BorrowingRecord borrowReturnById() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BorrowingRecord record = service.borrow(randomBook(random), randomMember(random));
+        return service.returnLoan(record.getId());
+    }
+
+    // Throughput is in batches of 5 books
+    @Benchmark
+    public List<BorrowingRecord> borrowReturnBatch() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> bookIds = List.of(randomBook(random), randomBook(random), randomBook(random),
+                randomBook(random), randomBook(random));
+        List<BorrowingRecord> borrowed = service.borrowBooks(randomMember(random), bookIds).orElseThrow();
+        return service.returnBooks(borrowed.stream().map(BorrowingRecord::getId).toList()).orElseThrow();
+    }
+
+    @Benchmark
+    public BorrowingRecord borrowReturnGlobalLock() {
+        globalLock.lock();
+        try {
+            return cycle();
+        } finally {
+            globalLock.unlock();
+        }
+    }
+
+    private BorrowingRecord cycle() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BorrowingRecord record = service.borrowBook(Catalog.borrowRequest(randomBook(random), randomMember(random)))
+                .orElseThrow();
+        return service.returnBook(record.getId()).orElseThrow();
+    }
+
+    private long randomBook(ThreadLocalRandom random) {
+        return 1 + random.nextLong(catalogSize);
+    }
+
+    private long randomMember(ThreadLocalRandom random) {
+        return 1 + random.nextLong(memberCount);
+    }
+}
@@ -0,0 +1,87 @@
+package com.app.library.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.app.library.bulk.BulkFormat;
+import com.app.library.bulk.BulkReader;
+import com.app.library.bulk.BulkResult;
+import com.app.library.bulk.Csv;
+import com.app.library.models.Book;
+import com.app.library.services.LibraryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmarks: POST /api/books/bulk without HTTP — parsing, validating and applying `rows` books
+ * into an empty service. Rows per second is `rows` divided by the reported time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BulkImportBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"NDJSON", "CSV"})
+    public BulkFormat format;
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private byte[] body;
+    private LibraryService service;
+
+    @Setup(Level.Trial)
+    public void createBody() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder sb = new StringBuilder();
+        if (format == BulkFormat.CSV) {
+            sb.append("title,author,publicationYear,genre,availableCopies\n");
+        }
+        for (int i = 1; i <= rows; i++) {
+            Book book = Catalog.book(random, i);
+            if (format == BulkFormat.CSV) {
+                Csv.appendField(sb, book.getTitle());
+                sb.append(',');
+                Csv.appendField(sb, book.getAuthor());
+                sb.append(',').append(book.getPublicationYear()).append(',');
+                Csv.appendField(sb, book.getGenre());
+                sb.append(',').append(book.getAvailableCopies()).append('\n');
+            } else {
+                sb.append(mapper.writeValueAsString(book)).append('\n');
+            }
+        }
+        body = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void createService() {
+        service = new LibraryService();
+    }
+
+    @Benchmark
+    public BulkResult importBooks() throws IOException {
+        BulkReader<Book> reader = new BulkReader<>(mapper, Book.class,
+                book -> book.getTitle() == null || book.getTitle().isBlank() ? "title is required" : null);
+        return reader.read(new ByteArrayInputStream(body), format, service::addBooks);
+    }
+}
@@ -0,0 +1,115 @@
+package com.app.library.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.app.library.services.LibraryService;
+import com.app.library.services.ShardedLibraryService;
+import com.app.library.storage.EntityStore;
+import com.app.library.storage.IdIndex;
+
+/**
+ * Benchmarks: Catalog
+ * Responsibility: build reproducible catalogs of a given size for the benchmarks.
+ *
+ * Books get ids 1..books and members 1..members. Authors, genres and title words come from small
+ * fixed vocabularies, so the secondary and full-text indexes see realistic duplicate rates, and the
+ * generator is seeded so every run builds the same catalog.
+ */
+final class Catalog {
+
+    static final int AUTHORS = 5_000;
+    static final int GENRES = 24;
+    static final String[] WORDS = {
+        "night", "river", "garden", "empire", "winter", "stone", "shadow", "ocean", "city", "machine",
+        "secret", "crown", "forest", "letter", "storm", "island", "mirror", "journey", "silence", "fire",
+    };
+
+    // Enough copies that borrow/return cycles from many threads never run a title out of stock
+    static final int COPIES = 1_000;
+
+    private Catalog() {
+    }
+
+    static LibraryService create(int books) {
+        return create(books, new IdIndex<>());
+    }
+
+    // A catalog whose books live in the given storage engine
+    static LibraryService create(int books, EntityStore<Book> bookStore) {
+        LibraryService service = new LibraryService(bookStore);
+        fill(service, books);
+        return service;
+    }
+
+    // A catalog partitioned into `shards` shards; a plain LibraryService for one shard
+    static LibraryService createSharded(int books, int shards) {
+        LibraryService service = shards > 1 ? new ShardedLibraryService(shards) : new LibraryService();
+        fill(service, books);
+        return service;
+    }
+
+    // Adds `books` books and books / 10 members (at least 100) through the batch paths used by bulk import
+    static void fill(LibraryService service, int books) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Book> batch = new ArrayList<>(10_000);
+        for (int i = 1; i <= books; i++) {
+            // explicit ids, so a sharded service numbers the catalog the same way
+            Book book = book(random, i);
+            book.setId((long) i);
+            batch.add(book);
+            if (batch.size() == 10_000) {
+                service.addBooks(batch);
+                batch = new ArrayList<>(10_000);
+            }
+        }
+        if (!batch.isEmpty()) {
+            service.addBooks(batch);
+        }
+
+        int memberCount = members(books);
+        List<Member> memberBatch = new ArrayList<>(10_000);
+        for (int i = 1; i <= memberCount; i++) {
+            Member member = member(i);
+            member.setId((long) i);
+            memberBatch.add(member);
+            if (memberBatch.size() == 10_000) {
+                service.addMembers(memberBatch);
+                memberBatch = new ArrayList<>(10_000);
+            }
+        }
+        if (!memberBatch.isEmpty()) {
+            service.addMembers(memberBatch);
+        }
+    }
+
+    static int members(int books) {
+        return Math.max(100, books / 10);
+    }
+
+    static Book book(SplittableRandom random, long n) {
+        String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + n;
+        return new Book(title, author(random.nextInt(AUTHORS)), 1900 + random.nextInt(125),
+                "Genre " + random.nextInt(GENRES), COPIES);
+    }
+
+    static String author(int n) {
+        return "Author " + n;
+    }
+
+    static Member member(long n) {
+        return new Member("Member " + n, "member" + n + "@example.com", null, LocalDate.of(2024, 1, 1), null);
+    }
+
+    static BorrowingRecord borrowRequest(long bookId, long memberId) {
+        BorrowingRecord record = new BorrowingRecord();
+        record.setBookId(bookId);
+        record.setMemberId(memberId);
+        return record;
+    }
+}
@@ -0,0 +1,108 @@
+package com.app.library.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.app.library.models.Book;
+import com.app.library.search.FullTextIndex;
+
+/**
+ * Benchmarks: the full-text index on its own. Setup indexes `books` catalog books and prints the heap
+ * the index takes after a full GC, per book and per million books (the books themselves are not
+ * counted). Every title starts with two of Catalog's 20 words, so a one-word query matches about a
+ * tenth of the catalog: the worst case for scoring. `searchWhileIndexing` runs queries next to a
+ * thread re-indexing books, to show how much each side holds up the other.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class FullTextIndexBenchmark {
+
+    @Param({"1000000"})
+    public int books;
+
+    private Book[] catalog;
+    private FullTextIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        catalog = new Book[books + 1];
+        for (int i = 1; i <= books; i++) {
+            catalog[i] = Catalog.book(random, i);
+            catalog[i].setId((long) i);
+        }
+        long before = usedHeap();
+        index = new FullTextIndex();
+        for (int i = 1; i <= books; i++) {
+            index.add(catalog[i]);
+        }
+        long bytes = usedHeap() - before;
+        // bytes per book is also MB per million books
+        System.out.printf("%n%d books, %d terms: %.1f MB index = %.1f bytes per book%n", books, index.termCount(),
+                bytes / 1e6, bytes / (double) books);
+    }
+
+    @Benchmark
+    public List<Book> searchOneCommonWord() {
+        return index.search(word(), 20, id -> catalog[(int) id]);
+    }
+
+    @Benchmark
+    public List<Book> searchTwoWords() {
+        return index.search(word() + " " + word(), 20, id -> catalog[(int) id]);
+    }
+
+    @Benchmark
+    public List<Book> searchAuthor() {
+        String author = Catalog.author(ThreadLocalRandom.current().nextInt(Catalog.AUTHORS));
+        return index.search(author, 20, id -> catalog[(int) id]);
+    }
+
+    @Benchmark
+    @Group("searchWhileIndexing")
+    @GroupThreads(1)
+    public List<Book> search() {
+        return searchOneCommonWord();
+    }
+
+    // Re-indexes a random book with its unchanged text, which updates the posting lists of its words
+    @Benchmark
+    @Group("searchWhileIndexing")
+    @GroupThreads(1)
+    public void reindex() {
+        Book book = catalog[1 + ThreadLocalRandom.current().nextInt(books)];
+        index.remove(book);
+        index.add(book);
+    }
+
+    private static String word() {
+        return Catalog.WORDS[ThreadLocalRandom.current().nextInt(Catalog.WORDS.length)];
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,44 @@
+package com.app.library.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.app.library.storage.IdGenerator;
+
+/**
+ * Benchmarks: contention on id allocation. Every thread takes ids from one shared IdGenerator,
+ * one at a time (`next`, as addBook does) or in blocks (`nextBlock`, as bulk imports do; the score
+ * is per block of {@link #BLOCK} ids). scripts/run-id-contention.sh runs it with 1 to 64 threads;
+ * compare the ops/s per thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    static final int BLOCK = 64;
+
+    private final IdGenerator ids = new IdGenerator();
+
+    @Benchmark
+    public long next() {
+        return ids.next();
+    }
+
+    @Benchmark
+    public long nextBlock() {
+        return ids.nextBlock(BLOCK);
+    }
+}
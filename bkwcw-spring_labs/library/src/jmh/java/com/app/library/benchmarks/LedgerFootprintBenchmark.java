@@ -0,0 +1,91 @@
+package com.app.library.benchmarks;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.app.library.models.BorrowingRecord;
+import com.app.library.services.LibraryService;
+
+/**
+ * Benchmarks: memory footprint of the borrowing ledger. Setup records `records` loans (nine in ten
+ * returned) on a 100k-book catalog and prints the heap and direct memory they added after a full GC,
+ * per record; the timed methods page through member and book histories of that ledger.
+ * 100M records need a large heap and direct memory limit, e.g.
+ *   JMH_HEAP=24g scripts/run-benchmarks.sh LedgerFootprintBenchmark -p records=100000000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class LedgerFootprintBenchmark {
+
+    private static final int BOOKS = 100_000;
+
+    @Param({"10000000", "100000000"})
+    public int records;
+
+    private LibraryService service;
+    private int memberCount;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        service = Catalog.create(BOOKS);
+        memberCount = Catalog.members(BOOKS);
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < records; i++) {
+            BorrowingRecord record = service.borrow(1 + random.nextLong(BOOKS), 1 + random.nextLong(memberCount));
+            if (i % 10 != 0) {
+                service.returnLoan(record.getId());
+            }
+        }
+        long heap = usedHeap() - heapBefore;
+        long direct = usedDirect() - directBefore;
+        System.out.printf("%n%d records: %.1f MB heap + %.1f MB direct = %.1f bytes per record%n", records,
+                heap / 1e6, direct / 1e6, (heap + direct) / (double) records);
+    }
+
+    @Benchmark
+    public List<BorrowingRecord> memberHistoryPage() {
+        return service.getMemberRecords(1 + ThreadLocalRandom.current().nextLong(memberCount), null, 50, false);
+    }
+
+    @Benchmark
+    public List<BorrowingRecord> bookHistoryPage() {
+        return service.getBookRecords(1 + ThreadLocalRandom.current().nextLong(BOOKS), null, 50);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                used += pool.getMemoryUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,70 @@
+package com.app.library.benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.app.library.models.Book;
+import com.app.library.search.BookQuery;
+import com.app.library.services.LibraryService;
+
+/**
+ * Benchmarks: read paths by catalog size — id lookup, cursor pages, indexed search and
+ * full-text search. Run with `-t N` to measure them under concurrent readers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int catalogSize;
+
+    private LibraryService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        service = Catalog.create(catalogSize);
+    }
+
+    @Benchmark
+    public Optional<Book> getBookById() {
+        return service.getBookById(1 + ThreadLocalRandom.current().nextLong(catalogSize));
+    }
+
+    @Benchmark
+    public List<Book> getBooksPage() {
+        return service.getBooksPage(ThreadLocalRandom.current().nextLong(catalogSize), 50);
+    }
+
+    @Benchmark
+    public List<Book> searchByAuthor() {
+        String author = Catalog.author(ThreadLocalRandom.current().nextInt(Catalog.AUTHORS));
+        return service.searchBooks(new BookQuery(author, null, null, null, null), 50);
+    }
+
+    @Benchmark
+    public List<Book> fullTextSearch() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String query = Catalog.WORDS[random.nextInt(Catalog.WORDS.length)] + " "
+                + Catalog.WORDS[random.nextInt(Catalog.WORDS.length)];
+        return service.fullTextSearch(query, 20);
+    }
+}
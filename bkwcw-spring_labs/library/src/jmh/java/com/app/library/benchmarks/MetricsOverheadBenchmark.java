@@ -0,0 +1,90 @@
+package com.app.library.benchmarks;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+
+import com.app.library.metrics.MetricsConfiguration;
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.services.LibraryService;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+/**
+ * Benchmarks: cost of the @Timed instrumentation on LibraryService. With `metrics=on` the service
+ * is proxied as MetricsConfiguration does, with TimedAspect over a Prometheus registry publishing the
+ * same histogram and percentiles as application.properties; with `metrics=off` it is called directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private static final int CATALOG_SIZE = 100_000;
+
+    @Param({"off", "on"})
+    public String metrics;
+
+    private LibraryService service;
+    private int memberCount;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        LibraryService target = Catalog.create(CATALOG_SIZE);
+        memberCount = Catalog.members(CATALOG_SIZE);
+        if (metrics.equals("off")) {
+            service = target;
+            return;
+        }
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentilesHistogram(true)
+                        .percentiles(0.5, 0.95, 0.99).build().merge(config);
+            }
+        });
+        TimedAspect aspect = new TimedAspect(registry);
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(MetricsConfiguration.timing(() -> aspect));
+        factory.setFrozen(true);
+        service = (LibraryService) factory.getProxy();
+    }
+
+    @Benchmark
+    public Optional<Book> getBookById() {
+        return service.getBookById(1 + ThreadLocalRandom.current().nextLong(CATALOG_SIZE));
+    }
+
+    @Benchmark
+    public BorrowingRecord borrowReturn() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BorrowingRecord record = service.borrowBook(Catalog.borrowRequest(1 + random.nextLong(CATALOG_SIZE),
+                1 + random.nextLong(memberCount))).orElseThrow();
+        return service.returnBook(record.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,77 @@
+package com.app.library.benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.search.BookQuery;
+import com.app.library.services.LibraryService;
+
+/**
+ * Benchmarks: a mixed workload on one catalog — 6 threads reading books by id, 1 searching and
+ * 1 running borrow/return cycles, reported per operation. Scale the thread counts with
+ * `-tg readers,searchers,borrowers` (e.g. `-tg 24,4,4`).
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MixedWorkloadBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int catalogSize;
+
+    private LibraryService service;
+    private int memberCount;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        service = Catalog.create(catalogSize);
+        memberCount = Catalog.members(catalogSize);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public Optional<Book> read() {
+        return service.getBookById(1 + ThreadLocalRandom.current().nextLong(catalogSize));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public List<Book> search() {
+        String author = Catalog.author(ThreadLocalRandom.current().nextInt(Catalog.AUTHORS));
+        return service.searchBooks(new BookQuery(author, null, null, null, null), 50);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public BorrowingRecord borrowReturn() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BorrowingRecord record = service.borrowBook(Catalog.borrowRequest(1 + random.nextLong(catalogSize),
+                1 + random.nextLong(memberCount))).orElseThrow();
+        return service.returnBook(record.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,79 @@
+package com.app.library.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import com.app.library.models.BorrowingRecord;
+import com.app.library.persistence.FileMutationLog;
+import com.app.library.services.LibraryService;
+
+/**
+ * Benchmarks: borrow/return throughput with the write-ahead log enabled, by group-commit size.
+ * Each cycle appends two entries and waits for them to be synced when `waitForSync` is true;
+ * concurrent threads are what lets a group commit cover more than one caller. The log is written
+ * to a temporary directory (set `-Djava.io.tmpdir` to benchmark a particular disk).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class MutationLogBenchmark {
+
+    private static final int CATALOG_SIZE = 100_000;
+
+    @Param({"1", "16", "256"})
+    public int groupCommitSize;
+
+    @Param({"true", "false"})
+    public boolean waitForSync;
+
+    private Path directory;
+    private FileMutationLog log;
+    private LibraryService service;
+    private int memberCount;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        service = Catalog.create(CATALOG_SIZE);
+        memberCount = Catalog.members(CATALOG_SIZE);
+        directory = Files.createTempDirectory("library-wal");
+        log = new FileMutationLog(directory, 0, groupCommitSize, 2, waitForSync);
+        service.setMutationLog(log);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        log.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public BorrowingRecord borrowReturn() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BorrowingRecord record = service.borrowBook(Catalog.borrowRequest(1 + random.nextLong(CATALOG_SIZE),
+                1 + random.nextLong(memberCount))).orElseThrow();
+        return service.returnBook(record.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,77 @@
+package com.app.library.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import com.app.library.persistence.FileMutationLog;
+import com.app.library.persistence.SnapshotStore;
+import com.app.library.services.LibraryService;
+
+/**
+ * Benchmarks: startup recovery time for a catalog of `catalogSize` books, either from a binary
+ * snapshot or by replaying a write-ahead log that contains every insert. Each invocation rebuilds
+ * a fresh service, so the heap must hold two catalogs at the largest size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RecoveryBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int catalogSize;
+
+    private Path logDirectory;
+    private Path snapshotDirectory;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        logDirectory = Files.createTempDirectory("library-log");
+        snapshotDirectory = Files.createTempDirectory("library-snapshot");
+        LibraryService service = new LibraryService();
+        try (FileMutationLog log = new FileMutationLog(logDirectory, 0, 256, 2, false)) {
+            service.setMutationLog(log);
+            Catalog.fill(service, catalogSize);
+        }
+        SnapshotStore.write(snapshotDirectory, 0, service);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(logDirectory);
+        FileSystemUtils.deleteRecursively(snapshotDirectory);
+    }
+
+    @Benchmark
+    public LibraryService loadSnapshot() throws IOException {
+        LibraryService service = new LibraryService();
+        SnapshotStore.load(snapshotDirectory, service);
+        return service;
+    }
+
+    @Benchmark
+    public LibraryService replayLog() throws IOException {
+        LibraryService service = new LibraryService();
+        FileMutationLog.replay(logDirectory, 0, service::applyMutation);
+        return service;
+    }
+}
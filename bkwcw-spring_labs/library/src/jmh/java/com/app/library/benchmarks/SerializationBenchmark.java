@@ -0,0 +1,81 @@
+package com.app.library.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.app.library.services.LibraryService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Benchmarks: JSON serialization of book lists, with the ObjectMapper configuration Spring MVC uses.
+ * Bodies are written to a discarding stream, so the full catalog is measured without holding the
+ * whole document in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int catalogSize;
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private LibraryService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        service = Catalog.create(catalogSize);
+    }
+
+    // LibraryService.getAllBooks() written as one JSON array
+    @Benchmark
+    public void getAllBooks() throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), service.getAllBooks());
+    }
+
+    // GET /api/books/stream: one document per line, written while iterating the catalog
+    @Benchmark
+    public void streamBooks() throws IOException {
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator gen = writer.createGenerator(OutputStream.nullOutputStream())) {
+            gen.setRootValueSeparator(null);
+            service.forEachBook(book -> {
+                try {
+                    writer.writeValue(gen, book);
+                    gen.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // GET /api/books?after=..&limit=100
+    @Benchmark
+    public byte[] getBooksPage() throws IOException {
+        return mapper.writeValueAsBytes(service.getBooksPage(ThreadLocalRandom.current().nextLong(catalogSize), 100));
+    }
+}
@@ -0,0 +1,66 @@
+package com.app.library.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.services.LibraryService;
+
+/**
+ * Benchmarks: write throughput of a single LibraryService (`shards=1`) against a
+ * ShardedLibraryService as threads are added. Borrows pick the book and the member at random, so
+ * most of them cross shards. scripts/run-shard-scaling.sh runs it with 1 to 32 threads, each with
+ * one shard and with as many shards as threads; compare the ops/s per thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardScalingBenchmark {
+
+    @Param({"1", "4", "16", "32"})
+    public int shards;
+
+    @Param({"100000"})
+    public int catalogSize;
+
+    private LibraryService service;
+    private int memberCount;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        service = Catalog.createSharded(catalogSize, shards);
+        memberCount = Catalog.members(catalogSize);
+    }
+
+    @Benchmark
+    public BorrowingRecord borrowReturn() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BorrowingRecord record = service.borrow(1 + random.nextLong(catalogSize), 1 + random.nextLong(memberCount));
+        return service.returnLoan(record.getId());
+    }
+
+    // New books get generated ids, so this also measures id allocation; the catalog keeps growing
+    @Benchmark
+    public Book addBook() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return service.addBook(new Book("Added " + random.nextInt(), Catalog.author(random.nextInt(Catalog.AUTHORS)),
+                2000, "Genre " + random.nextInt(Catalog.GENRES), 1));
+    }
+}
@@ -0,0 +1,72 @@
+package com.app.library.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.app.library.models.Book;
+import com.app.library.services.LibraryService;
+
+/**
+ * Benchmarks: adding books one at a time and in bulk-import batches. The catalog keeps
+ * growing during the measurement, starting from `catalogSize`; with `-t N` this also
+ * measures contention on id allocation and the index stripes (IdGeneratorBenchmark isolates
+ * the id allocation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int catalogSize;
+
+    private LibraryService service;
+
+    @State(Scope.Thread)
+    public static class Books {
+        final SplittableRandom random = new SplittableRandom();
+        long n;
+
+        Book next() {
+            return Catalog.book(random, n++);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        service = Catalog.create(catalogSize);
+    }
+
+    @Benchmark
+    public Book addBook(Books books) {
+        return service.addBook(books.next());
+    }
+
+    // Throughput is in batches; multiply by 1000 for books per second
+    @Benchmark
+    public List<Book> addBooks(Books books) {
+        List<Book> batch = new ArrayList<>(1000);
+        for (int i = 0; i < 1000; i++) {
+            batch.add(books.next());
+        }
+        return service.addBooks(batch);
+    }
+}
@@ -0,0 +1,239 @@
+package com.app.library.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.app.library.loadtest.LoadTestConfig.Arrival;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Load test: LoadGenerator
+ * Responsibility: offer the request mix to the server and record the latency of every request.
+ *
+ * Open model ({@link #run}): arrival i is due at start + i / rate no matter how many earlier
+ * requests are still outstanding, and its latency is measured from that due time rather than from
+ * when it was actually sent. If the server (or the generator) falls behind, the queueing delay is
+ * therefore part of the recorded latency instead of silently lowering the offered load
+ * (coordinated omission).
+ *
+ * Closed model ({@link #runConnections}): a fixed number of clients, each on its own virtual thread
+ * and connection, send their next arrival as soon as the previous one completed. This holds the
+ * server at a given concurrency (e.g. 10k connections); latency is measured from sending.
+ *
+ * Returns triggered by a borrow are dependent requests and are timed from when they are sent.
+ */
+public class LoadGenerator {
+
+    // Recorded request types
+    public enum Request {
+        BROWSE, LOOKUP, SEARCH, BORROW, RETURN, MEMBER_UPDATE
+    }
+
+    public record Result(Duration elapsed, long arrivals, long maxSchedulingLagNanos,
+            Map<Request, Histogram> latencies, Map<Request, Long> errors) {
+    }
+
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // One entry per unit of weight, so picking a random entry follows the configured mix
+    private final Arrival[] mix;
+
+    // Latencies in microseconds
+    private final Map<Request, Recorder> recorders = new EnumMap<>(Request.class);
+    private final Map<Request, LongAdder> errors = new EnumMap<>(Request.class);
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+
+    public LoadGenerator(LoadTestConfig config, HttpClient client) {
+        this.config = config;
+        this.client = client;
+        List<Arrival> table = new ArrayList<>();
+        config.mix().forEach((arrival, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                table.add(arrival);
+            }
+        });
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no positive weight");
+        }
+        this.mix = table.toArray(new Arrival[0]);
+        for (Request r : Request.values()) {
+            recorders.put(r, new Recorder(3));
+            errors.put(r, new LongAdder());
+        }
+    }
+
+    // Offer `rate` arrivals per second for `duration`, then wait for outstanding requests (up to the request timeout)
+    public Result run(Duration duration) throws InterruptedException {
+        reset();
+        SplittableRandom random = new SplittableRandom();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long arrivals = 0;
+        long maxLag = 0;
+        while (true) {
+            long due = start + arrivals * 1_000_000_000L / config.rate();
+            if (due >= end) {
+                break;
+            }
+            long now = System.nanoTime();
+            if (due > now) {
+                LockSupport.parkNanos(due - now);
+            } else {
+                maxLag = Math.max(maxLag, now - due);
+            }
+            arrive(mix[random.nextInt(mix.length)], due, random);
+            arrivals++;
+        }
+        long deadline = System.nanoTime() + config.timeout().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return result(start, arrivals, maxLag);
+    }
+
+    // Keep `connections` clients busy for `duration`, each sending its next arrival when the previous one completed
+    public Result runConnections(Duration duration, int connections) {
+        reset();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        LongAdder arrivals = new LongAdder();
+        SplittableRandom seeds = new SplittableRandom();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                SplittableRandom random = seeds.split();
+                clients.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        try {
+                            arrive(mix[random.nextInt(mix.length)], System.nanoTime(), random).join();
+                        } catch (CompletionException e) {
+                            // already counted as an error of its request type
+                        }
+                        arrivals.increment();
+                    }
+                });
+            }
+        }
+        return result(start, arrivals.sum(), 0);
+    }
+
+    private void reset() {
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    private Result result(long start, long arrivals, long maxLag) {
+        Map<Request, Histogram> latencies = new EnumMap<>(Request.class);
+        Map<Request, Long> errorCounts = new EnumMap<>(Request.class);
+        for (Request r : Request.values()) {
+            latencies.put(r, recorders.get(r).getIntervalHistogram());
+            errorCounts.put(r, errors.get(r).sum());
+        }
+        return new Result(Duration.ofNanos(System.nanoTime() - start), arrivals, maxLag, latencies, errorCounts);
+    }
+
+    // Completes when every request of the arrival, including follow-up returns, has completed
+    private CompletableFuture<Void> arrive(Arrival arrival, long due, SplittableRandom random) {
+        return switch (arrival) {
+            case BROWSE -> send(Request.BROWSE,
+                    get("/api/books?after=" + random.nextInt(config.books()) + "&limit=50"), due, null);
+            case LOOKUP -> send(Request.LOOKUP, get("/api/books/" + (1 + random.nextInt(config.books()))), due, null);
+            case SEARCH -> send(Request.SEARCH, get("/api/books/search?author="
+                    + URLEncoder.encode(LoadTest.author(random.nextInt(LoadTest.AUTHORS)), StandardCharsets.UTF_8)
+                    + "&limit=50"), due, null);
+            case BORROW -> {
+                long bookId = hotTitle(random);
+                CompletableFuture<?>[] burst = new CompletableFuture<?>[config.burst()];
+                for (int i = 0; i < burst.length; i++) {
+                    String body = "{\"book\":{\"id\":" + bookId + "},\"member\":{\"id\":"
+                            + (1 + random.nextInt(config.members())) + "}}";
+                    burst[i] = send(Request.BORROW, json("POST", "/api/borrow", body), due, this::returnBorrowed);
+                }
+                yield CompletableFuture.allOf(burst);
+            }
+            case MEMBER -> {
+                long id = 1 + random.nextInt(config.members());
+                String body = "{\"name\":\"Member " + id + " (" + updates.incrementAndGet() + ")\",\"email\":\"member"
+                        + id + "@example.com\",\"startDate\":\"2024-01-01\"}";
+                yield send(Request.MEMBER_UPDATE, json("PUT", "/api/members/" + id, body), due, null);
+            }
+        };
+    }
+
+    // Popular titles are skewed too: the lowest ids get most of the bursts
+    private long hotTitle(SplittableRandom random) {
+        double r = random.nextDouble();
+        return 1 + (long) (config.hotTitles() * r * r);
+    }
+
+    private CompletableFuture<Void> returnBorrowed(String borrowResponse) {
+        long recordId;
+        try {
+            recordId = mapper.readTree(borrowResponse).path("id").asLong();
+        } catch (IOException e) {
+            errors.get(Request.RETURN).increment();
+            return DONE;
+        }
+        return send(Request.RETURN, json("PUT", "/api/return/" + recordId, ""), System.nanoTime(), null);
+    }
+
+    // `then` gets the body of a 2xx response and may send follow-up requests; it runs before the
+    // request stops counting as in flight, and the returned future also waits for the follow-ups
+    private CompletableFuture<Void> send(Request type, HttpRequest request, long due,
+            Function<String, CompletableFuture<Void>> then) {
+        inFlight.incrementAndGet();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).handle((response, failure) -> {
+            try {
+                recorders.get(type).recordValue(Math.max(0, (System.nanoTime() - due) / 1000));
+                if (failure != null || response.statusCode() >= 400) {
+                    errors.get(type).increment();
+                } else if (then != null) {
+                    return then.apply(response.body());
+                }
+                return DONE;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }).thenCompose(Function.identity());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(config.timeout()).header("Accept", "application/json")
+                .GET().build();
+    }
+
+    private HttpRequest json(String method, String path, String body) {
+        return HttpRequest.newBuilder(uri(path)).timeout(config.timeout()).header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private URI uri(String path) {
+        return config.baseUrl().resolve(path);
+    }
+}
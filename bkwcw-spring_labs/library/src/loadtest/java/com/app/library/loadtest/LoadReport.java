@@ -0,0 +1,99 @@
+package com.app.library.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+import com.app.library.loadtest.LoadGenerator.Request;
+import com.app.library.loadtest.LoadGenerator.Result;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Load test: LoadReport
+ * Responsibility: summarize a measured run and save it for comparison with other configurations.
+ *
+ * Each run gets a directory target/loadtest/<label>-<timestamp> holding one HdrHistogram
+ * percentile distribution per request type (`<type>.hgrm`, values in milliseconds, plottable
+ * with the HdrHistogram plotter) and a summary.json with throughput, percentiles and the peak
+ * memory and thread count of the application.
+ */
+final class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private LoadReport() {
+    }
+
+    static Path write(LoadTestConfig config, Result result, ServerSampler.Peaks server) throws IOException {
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path directory = Files.createDirectories(Path.of("target", "loadtest", config.label() + "-" + stamp));
+        for (Request r : Request.values()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(r.name().toLowerCase() + ".hgrm")))) {
+                result.latencies().get(r).outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("label", config.label());
+        summary.put("rate", config.connections() > 0 ? null : config.rate());
+        summary.put("connections", config.connections() > 0 ? config.connections() : null);
+        summary.put("durationSeconds", seconds(result));
+        summary.put("arrivals", result.arrivals());
+        summary.put("maxSchedulingLagMs", result.maxSchedulingLagNanos() / 1e6);
+        summary.put("server", server);
+        Map<String, Object> requests = new LinkedHashMap<>();
+        for (Request r : Request.values()) {
+            Histogram h = result.latencies().get(r);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", h.getTotalCount());
+            stats.put("errors", result.errors().get(r));
+            stats.put("throughputPerSecond", h.getTotalCount() / seconds(result));
+            stats.put("p50Ms", percentile(h, 50));
+            stats.put("p90Ms", percentile(h, 90));
+            stats.put("p99Ms", percentile(h, 99));
+            stats.put("p999Ms", percentile(h, 99.9));
+            stats.put("maxMs", h.getMaxValue() / MICROS_PER_MILLI);
+            requests.put(r.name(), stats);
+        }
+        summary.put("requests", requests);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(directory.resolve("summary.json").toFile(), summary);
+        return directory;
+    }
+
+    static void print(LoadTestConfig config, Result result, ServerSampler.Peaks server, PrintStream out) {
+        if (config.connections() > 0) {
+            out.printf("%n%s: %d arrivals in %.1f s from %d connections%n", config.label(), result.arrivals(),
+                    seconds(result), config.connections());
+        } else {
+            out.printf("%n%s: %d arrivals in %.1f s (target %d/s), max scheduling lag %.1f ms%n", config.label(),
+                    result.arrivals(), seconds(result), config.rate(), result.maxSchedulingLagNanos() / 1e6);
+        }
+        out.printf("server peaks: heap %.0f MB, non-heap %.0f MB, %d live threads%n", server.heapUsedMb(),
+                server.nonHeapUsedMb(), server.liveThreads());
+        out.printf("%-14s %9s %7s %9s %9s %9s %9s %9s %9s%n", "request", "count", "errors", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Request r : Request.values()) {
+            Histogram h = result.latencies().get(r);
+            out.printf("%-14s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", r.name().toLowerCase(),
+                    h.getTotalCount(), result.errors().get(r), h.getTotalCount() / seconds(result),
+                    percentile(h, 50), percentile(h, 90), percentile(h, 99), percentile(h, 99.9),
+                    h.getMaxValue() / MICROS_PER_MILLI);
+        }
+    }
+
+    private static double percentile(Histogram h, double p) {
+        return h.getValueAtPercentile(p) / MICROS_PER_MILLI;
+    }
+
+    private static double seconds(Result result) {
+        return result.elapsed().toNanos() / 1e9;
+    }
+}
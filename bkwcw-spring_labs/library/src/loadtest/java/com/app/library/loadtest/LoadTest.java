@@ -0,0 +1,118 @@
+package com.app.library.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Load test: LoadTest
+ * Responsibility: drive an end-to-end HTTP load test against a running application.
+ *
+ * Imports a catalog through the bulk endpoints (optional), offers the configured mix at a fixed
+ * arrival rate (or from a fixed number of connections) for a warmup period and then for the measured
+ * period, and prints and saves the latency histograms. See {@link LoadTestConfig} for the arguments,
+ * scripts/run-load-test.sh and scripts/compare-thread-modes.sh.
+ */
+public class LoadTest {
+
+    static final int AUTHORS = 1_000;
+    private static final String[] WORDS = {
+        "night", "river", "garden", "empire", "winter", "stone", "shadow", "ocean", "city", "machine",
+        "secret", "crown", "forest", "letter", "storm", "island", "mirror", "journey", "silence", "fire",
+    };
+
+    // Hot titles get enough copies that bursts are never refused; other books have a few
+    private static final int HOT_COPIES = 1_000_000;
+    private static final int COPIES = 5;
+    private static final int SEED_CHUNK = 50_000;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.timeout()).build()) {
+            HttpResponse<String> health = client.send(
+                    HttpRequest.newBuilder(config.baseUrl().resolve("/actuator/health")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (health.statusCode() != 200) {
+                throw new IllegalStateException("Application at " + config.baseUrl() + " is not healthy: "
+                        + health.statusCode());
+            }
+            if (config.seed()) {
+                seed(client, config);
+            }
+
+            LoadGenerator generator = new LoadGenerator(config, client);
+            String load = config.connections() > 0 ? config.connections() + " connections"
+                    : config.rate() + " arrivals/s";
+            System.out.printf("Warming up for %d s at %s%n", config.warmup().toSeconds(), load);
+            run(generator, config, config.warmup());
+            System.out.printf("Measuring for %d s at %s%n", config.duration().toSeconds(), load);
+            LoadGenerator.Result result;
+            ServerSampler.Peaks server;
+            try (ServerSampler sampler = new ServerSampler(client, config.baseUrl())) {
+                result = run(generator, config, config.duration());
+                server = sampler.peaks();
+            }
+
+            Path directory = LoadReport.write(config, result, server);
+            LoadReport.print(config, result, server, System.out);
+            System.out.println("Histograms and summary written to " + directory);
+        }
+    }
+
+    private static LoadGenerator.Result run(LoadGenerator generator, LoadTestConfig config, Duration duration)
+            throws InterruptedException {
+        return config.connections() > 0 ? generator.runConnections(duration, config.connections())
+                : generator.run(duration);
+    }
+
+    static String author(int n) {
+        return "Author " + n;
+    }
+
+    // Books get ids 1..books and members 1..members, assuming the application starts empty
+    private static void seed(HttpClient client, LoadTestConfig config) throws IOException, InterruptedException {
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= config.books(); i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            body.append("{\"title\":\"").append(title).append("\",\"author\":\"").append(author(random.nextInt(AUTHORS)))
+                    .append("\",\"publicationYear\":").append(1900 + random.nextInt(125))
+                    .append(",\"genre\":\"Genre ").append(random.nextInt(24))
+                    .append("\",\"availableCopies\":").append(i <= config.hotTitles() ? HOT_COPIES : COPIES)
+                    .append("}\n");
+            if (i % SEED_CHUNK == 0 || i == config.books()) {
+                bulk(client, config, "/api/books/bulk", body);
+            }
+        }
+        for (int i = 1; i <= config.members(); i++) {
+            body.append("{\"name\":\"Member ").append(i).append("\",\"email\":\"member").append(i)
+                    .append("@example.com\",\"startDate\":\"2024-01-01\"}\n");
+            if (i % SEED_CHUNK == 0 || i == config.members()) {
+                bulk(client, config, "/api/members/bulk", body);
+            }
+        }
+        System.out.printf("Imported %d books and %d members%n", config.books(), config.members());
+    }
+
+    private static void bulk(HttpClient client, LoadTestConfig config, String path, StringBuilder body)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(config.baseUrl().resolve(path))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build(),
+                HttpResponse.BodyHandlers.ofString());
+        body.setLength(0);
+        JsonNode result = response.statusCode() == 200 ? new ObjectMapper().readTree(response.body()) : null;
+        if (result == null || result.path("rejected").asLong() != 0) {
+            throw new IllegalStateException("Import to " + path + " failed: " + response.statusCode() + " "
+                    + response.body());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.app.library.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load test: LoadTestConfig
+ * Responsibility: parse the `key=value` arguments of a load test run.
+ *
+ *   baseUrl     application under test (default http://localhost:8081)
+ *   rate        arrivals per second, independent of how fast the server answers (default 500)
+ *   connections if set, run closed-model clients holding this many connections instead of `rate`
+ *   warmup      seconds run before measuring (default 10)
+ *   duration    measured seconds (default 60)
+ *   seed        import the catalog first (default true; the ids assume an empty application)
+ *   books       catalog size; books 1..books are used (default 10000)
+ *   members     members 1..members (default 1000)
+ *   hotTitles   books 1..hotTitles receive the borrow/return bursts (default 20)
+ *   burst       borrows per borrow arrival, all on the same hot title (default 5)
+ *   mix         weights per arrival type (default browse:30,lookup:35,search:10,borrow:15,member:10)
+ *   timeout     seconds before a request counts as failed (default 30)
+ *   label       name of the configuration under test, used in the result directory (default run)
+ */
+public record LoadTestConfig(URI baseUrl, int rate, int connections, Duration warmup, Duration duration, boolean seed,
+        int books, int members, int hotTitles, int burst, Map<Arrival, Integer> mix, Duration timeout, String label) {
+
+    // What an arrival does; BORROW also returns each record it gets
+    public enum Arrival {
+        BROWSE, LOOKUP, SEARCH, BORROW, MEMBER
+    }
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        LoadTestConfig config = new LoadTestConfig(
+                URI.create(values.getOrDefault("baseUrl", "http://localhost:8081")),
+                Integer.parseInt(values.getOrDefault("rate", "500")),
+                Integer.parseInt(values.getOrDefault("connections", "0")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+                Boolean.parseBoolean(values.getOrDefault("seed", "true")),
+                Integer.parseInt(values.getOrDefault("books", "10000")),
+                Integer.parseInt(values.getOrDefault("members", "1000")),
+                Integer.parseInt(values.getOrDefault("hotTitles", "20")),
+                Integer.parseInt(values.getOrDefault("burst", "5")),
+                parseMix(values.getOrDefault("mix", "browse:30,lookup:35,search:10,borrow:15,member:10")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("timeout", "30"))),
+                values.getOrDefault("label", "run"));
+        if (config.rate() <= 0 || config.connections() < 0 || config.books() < config.hotTitles()
+                || config.hotTitles() <= 0 || config.members() <= 0 || config.burst() <= 0) {
+            throw new IllegalArgumentException("rate, members, burst and hotTitles must be positive, connections "
+                    + "must not be negative and hotTitles must not exceed books");
+        }
+        return config;
+    }
+
+    private static Map<Arrival, Integer> parseMix(String mix) {
+        Map<Arrival, Integer> weights = new HashMap<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.split(":");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected type:weight in mix, got: " + part);
+            }
+            weights.put(Arrival.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+        }
+        return weights;
+    }
+}
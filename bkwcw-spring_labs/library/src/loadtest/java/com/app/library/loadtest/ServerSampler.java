@@ -0,0 +1,82 @@
+package com.app.library.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Load test: ServerSampler
+ * Responsibility: track the application's memory and thread count while a run is measured.
+ *
+ * Polls the Actuator metrics endpoint once a second on a virtual thread and keeps the peaks, so
+ * runs in different thread modes can be compared on footprint as well as latency. Samples that
+ * fail (e.g. under overload) are skipped.
+ */
+final class ServerSampler implements AutoCloseable {
+
+    // Peaks over the run; -1 when no sample succeeded
+    record Peaks(double heapUsedMb, double nonHeapUsedMb, long liveThreads) {
+    }
+
+    private static final Duration INTERVAL = Duration.ofSeconds(1);
+
+    private final HttpClient client;
+    private final URI baseUrl;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Thread sampler;
+
+    private volatile double heapUsedMb = -1;
+    private volatile double nonHeapUsedMb = -1;
+    private volatile long liveThreads = -1;
+
+    ServerSampler(HttpClient client, URI baseUrl) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.sampler = Thread.ofVirtual().name("server-sampler").start(this::sampleLoop);
+    }
+
+    Peaks peaks() {
+        return new Peaks(heapUsedMb, nonHeapUsedMb, liveThreads);
+    }
+
+    // Stops sampling; an interrupt while waiting for the sampler is passed on to the caller's thread
+    @Override
+    public void close() {
+        sampler.interrupt();
+        try {
+            sampler.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sampleLoop() {
+        while (true) {
+            try {
+                heapUsedMb = Math.max(heapUsedMb, metric("jvm.memory.used?tag=area:heap") / (1 << 20));
+                nonHeapUsedMb = Math.max(nonHeapUsedMb, metric("jvm.memory.used?tag=area:nonheap") / (1 << 20));
+                liveThreads = Math.max(liveThreads, (long) metric("jvm.threads.live"));
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                // the server is too busy to answer; try again at the next interval
+            }
+            try {
+                Thread.sleep(INTERVAL);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private double metric(String nameAndTags) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/actuator/metrics/" + nameAndTags))
+                .timeout(INTERVAL.multipliedBy(5)).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        return mapper.readTree(response.body()).path("measurements").path(0).path("value").asDouble();
+    }
+}
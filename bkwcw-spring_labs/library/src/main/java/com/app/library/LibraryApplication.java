@@ -4,8 +4,10 @@ package com.app.library;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class LibraryApplication {
 	// Entry point for the Spring Boot application.
 	// SpringApplication.run boots the embedded server and starts the context.
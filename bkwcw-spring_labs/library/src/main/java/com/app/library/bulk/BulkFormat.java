@@ -0,0 +1,36 @@
+package com.app.library.bulk;
+
+import org.springframework.http.MediaType;
+
+// Body formats accepted by the bulk endpoints and produced by the export endpoints
+public enum BulkFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(new MediaType("text", "csv"));
+
+    public static final String CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    BulkFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    // NDJSON unless the content type is CSV
+    public static BulkFormat of(MediaType contentType) {
+        return contentType != null && CSV.mediaType.isCompatibleWith(contentType) ? CSV : NDJSON;
+    }
+
+    // From an export `format` query parameter ("csv" or "ndjson"); null when unknown
+    public static BulkFormat of(String name) {
+        for (BulkFormat f : values()) {
+            if (f.name().equalsIgnoreCase(name)) {
+                return f;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,110 @@
+package com.app.library.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Responsibility: stream a bulk request body (NDJSON, or CSV with a header line) row by row,
+ * validate each row and hand valid rows to a sink in batches of {@link #BATCH_SIZE}, so the
+ * service applies them with one lock acquisition per batch and stripe instead of one per row.
+ * Malformed or invalid rows are skipped and reported with their row number.
+ */
+public class BulkReader<T> {
+
+    public static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ObjectMapper mapper;
+    private final ObjectReader reader;
+    private final Class<T> type;
+    private final Function<? super T, String> validator;
+
+    // `validator` returns an error message for an invalid row, or null
+    public BulkReader(ObjectMapper mapper, Class<T> type, Function<? super T, String> validator) {
+        this.mapper = mapper;
+        this.reader = mapper.readerFor(type);
+        this.type = type;
+        this.validator = validator;
+    }
+
+    public BulkResult read(InputStream body, BulkFormat format, Consumer<List<T>> sink) throws IOException {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16);
+        List<String> header = null;
+        if (format == BulkFormat.CSV) {
+            String first = lines.readLine();
+            if (first == null) {
+                return new BulkResult(0, 0, List.of());
+            }
+            header = Csv.parseLine(first).stream().map(String::trim).toList();
+        }
+
+        long row = 0;
+        long accepted = 0;
+        long rejected = 0;
+        List<BulkResult.RowError> errors = new ArrayList<>();
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            String error;
+            T item = null;
+            try {
+                item = header != null ? fromCsv(header, line) : reader.readValue(line);
+                error = item == null ? "empty row" : validator.apply(item);
+            } catch (JsonProcessingException e) {
+                error = "malformed row: " + e.getOriginalMessage();
+            } catch (IllegalArgumentException e) {
+                error = "malformed row: " + e.getMessage();
+            }
+            if (error != null) {
+                rejected++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new BulkResult.RowError(row, error));
+                }
+                continue;
+            }
+            batch.add(item);
+            if (batch.size() == BATCH_SIZE) {
+                sink.accept(batch);
+                accepted += batch.size();
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            sink.accept(batch);
+            accepted += batch.size();
+        }
+        return new BulkResult(accepted, rejected, errors);
+    }
+
+    // Empty CSV fields are left unset; Jackson converts the remaining text to the field types
+    private T fromCsv(List<String> header, String line) throws JsonProcessingException {
+        List<String> values = Csv.parseLine(line);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("expected " + header.size() + " fields, found " + values.size());
+        }
+        ObjectNode node = mapper.createObjectNode();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            if (!value.isEmpty()) {
+                node.put(header.get(i), value);
+            }
+        }
+        return mapper.treeToValue(node, type);
+    }
+}
@@ -0,0 +1,14 @@
+package com.app.library.bulk;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many rows were applied and rejected, and why the first
+ * rejected rows failed (`errors` is capped; `rejected` is always the full count).
+ */
+public record BulkResult(long accepted, long rejected, List<RowError> errors) {
+
+    // `row` is 1-based and counts data rows only (a CSV header is not a row)
+    public record RowError(long row, String message) {
+    }
+}
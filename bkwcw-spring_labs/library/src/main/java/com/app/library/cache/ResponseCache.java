@@ -0,0 +1,166 @@
+package com.app.library.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Responsibility: cache of pre-serialized JSON responses for single-entity GETs, keyed by
+ * entity type and id and tagged with the entity's version (see LibraryService#getBookVersion).
+ * An entry is only served while its version is current, so changes never need explicit
+ * invalidation; stale entries simply age out.
+ *
+ * The cache is bounded by the total size of the cached bodies. It is split into segments, each an
+ * access-ordered (LRU) map with its own lock and an equal share of the byte budget, so concurrent
+ * readers of different entities rarely contend.
+ */
+@Component
+public class ResponseCache {
+
+    public enum Kind { BOOK, MEMBER }
+
+    private record Key(Kind kind, long id) {
+    }
+
+    private record Entry(long version, byte[] body) {
+    }
+
+    public record Stats(long hits, long misses, double hitRatio, long notModified, long evictions,
+            long entries, long bytes, long maxBytes) {
+    }
+
+    // Versions restart with the process, so ETags carry an id of this run to stay unambiguous
+    private final String bootId = Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+    private final Segment[] segments;
+    private final long maxBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCache(@Value("${library.response-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${library.response-cache.segments:16}") int segments) {
+        this.maxBytes = maxBytes;
+        this.segments = new Segment[Math.max(1, segments)];
+        for (int i = 0; i < this.segments.length; i++) {
+            this.segments[i] = new Segment(maxBytes / this.segments.length);
+        }
+    }
+
+    // Strong ETag for an entity version
+    public String etag(long version) {
+        return "\"" + bootId + "-" + version + "\"";
+    }
+
+    // Whether an If-None-Match header matches the ETag (a list of tags, weak tags, or *); a match is counted as a 304
+    public boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                notModified.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The cached body for this version of the entity, or the result of `serializer` (then cached).
+     * Returns null if `serializer` does, e.g. when the entity was deleted meanwhile.
+     */
+    public byte[] get(Kind kind, long id, long version, Supplier<byte[]> serializer) {
+        Key key = new Key(kind, id);
+        Segment segment = segmentFor(key);
+        Entry entry = segment.get(key);
+        if (entry != null && entry.version() == version) {
+            hits.increment();
+            return entry.body();
+        }
+        misses.increment();
+        byte[] body = serializer.get();
+        if (body != null) {
+            segment.put(key, new Entry(version, body));
+        }
+        return body;
+    }
+
+    public Stats stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        long entries = 0;
+        long bytes = 0;
+        for (Segment s : segments) {
+            s.lock.lock();
+            try {
+                entries += s.map.size();
+                bytes += s.bytes;
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        return new Stats(h, m, h + m == 0 ? 0 : (double) h / (h + m), notModified.sum(), evictions.sum(),
+                entries, bytes, maxBytes);
+    }
+
+    private Segment segmentFor(Key key) {
+        int h = Long.hashCode(key.id() * 0x9E3779B97F4A7C15L) ^ key.kind().ordinal();
+        return segments[Math.floorMod(h, segments.length)];
+    }
+
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Key, Entry> map = new LinkedHashMap<>(64, 0.75f, true);
+        private final long maxBytes;
+        private long bytes;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        Entry get(Key key) {
+            lock.lock();
+            try {
+                return map.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(Key key, Entry entry) {
+            if (entry.body().length > maxBytes) {
+                return;
+            }
+            lock.lock();
+            try {
+                Entry previous = map.put(key, entry);
+                if (previous != null) {
+                    bytes -= previous.body().length;
+                }
+                bytes += entry.body().length;
+                // evict least recently used entries until the segment fits its budget again
+                Iterator<Map.Entry<Key, Entry>> eldest = map.entrySet().iterator();
+                while (bytes > maxBytes && eldest.hasNext()) {
+                    bytes -= eldest.next().getValue().body().length;
+                    eldest.remove();
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.app.library.controllers;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.app.library.cache.ResponseCache;
+import com.app.library.persistence.LibraryPersistence;
+import com.app.library.persistence.SnapshotStore;
+
+/**
+ * Responsibility: operational endpoints that are not part of the library API itself.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    // Only present when library.persistence.enabled=true
+    @Autowired(required = false)
+    private LibraryPersistence persistence;
+
+    // Take a snapshot now (e.g. before a planned restart). 404 when persistence is disabled.
+    @PostMapping("/snapshot")
+    public ResponseEntity<SnapshotStore.Header> snapshot() throws IOException {
+        if (persistence == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        SnapshotStore.Header header = persistence.snapshot();
+        logger.info("Snapshot requested through the admin API at log position {}", header.seq());
+        return new ResponseEntity<>(header, HttpStatus.OK);
+    }
+
+    // Hit ratio, 304s, evictions and byte size of the single-entity response cache
+    @GetMapping("/cache")
+    public ResponseEntity<ResponseCache.Stats> cacheStats() {
+        return new ResponseEntity<>(responseCache.stats(), HttpStatus.OK);
+    }
+}
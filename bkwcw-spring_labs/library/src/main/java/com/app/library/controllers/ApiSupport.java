@@ -0,0 +1,99 @@
+package com.app.library.controllers;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.app.library.bulk.Csv;
+import com.app.library.cache.ResponseCache;
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Responsibility: rules shared by the servlet ({@link LibraryController}) and reactive
+ * ({@link ReactiveLibraryController}) variants of the API, so both answer the same way.
+ */
+final class ApiSupport {
+
+    // List endpoints return one page at a time: `limit` defaults to 100 and is capped at 1000
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    static final String RECORD_CSV_HEADER = "id,bookId,memberId,borrowDate,dueDate,returnDate";
+
+    private ApiSupport() {
+    }
+
+    static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // ==================== Bulk validation ====================
+
+    static String validateBook(Book book) {
+        if (book.getTitle() == null || book.getTitle().isBlank()) {
+            return "title is required";
+        }
+        if (book.getAvailableCopies() < 0) {
+            return "availableCopies must not be negative";
+        }
+        return null;
+    }
+
+    static String validateMember(Member member) {
+        if (member.getName() == null || member.getName().isBlank()) {
+            return "name is required";
+        }
+        return null;
+    }
+
+    // One export row, without the line break
+    static void appendRecordCsv(BorrowingRecord r, StringBuilder row) {
+        Csv.appendField(row, r.getId());
+        row.append(',');
+        Csv.appendField(row, r.getBookId());
+        row.append(',');
+        Csv.appendField(row, r.getMemberId());
+        row.append(',');
+        Csv.appendField(row, r.getBorrowDate());
+        row.append(',');
+        Csv.appendField(row, r.getDueDate());
+        row.append(',');
+        Csv.appendField(row, r.getReturnDate());
+    }
+
+    // ==================== Response cache ====================
+
+    /**
+     * Single-entity GET through the response cache; null when the entity does not exist. The version
+     * is read before the entity, so a concurrent change can only make the cached body newer than its
+     * tag, never older.
+     */
+    static ResponseEntity<byte[]> cachedEntity(ResponseCache cache, ObjectMapper mapper, ResponseCache.Kind kind,
+            long id, long version, String ifNoneMatch, Supplier<Optional<?>> lookup) {
+        if (version == 0) {
+            return null;
+        }
+        String etag = cache.etag(version);
+        if (cache.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        byte[] body = cache.get(kind, id, version, () -> lookup.get().map(entity -> {
+            try {
+                return mapper.writeValueAsBytes(entity);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }).orElse(null));
+        if (body == null) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
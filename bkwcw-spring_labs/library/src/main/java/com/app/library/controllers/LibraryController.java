@@ -1,13 +1,29 @@
 package com.app.library.controllers;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,16 +31,39 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.app.library.bulk.BulkFormat;
+import com.app.library.bulk.BulkReader;
+import com.app.library.bulk.BulkResult;
+import com.app.library.cache.ResponseCache;
+import com.app.library.logging.AccessLogFilter;
+import com.app.library.metrics.LibraryMetrics;
+import com.app.library.metrics.LibraryMetrics.Rejection;
 import com.app.library.models.Book;
+import com.app.library.models.BorrowBatchRequest;
 import com.app.library.models.BorrowingRecord;
 import com.app.library.models.Member;
+import com.app.library.models.ReturnBatchRequest;
+import com.app.library.search.BookQuery;
 import com.app.library.services.LibraryService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import static com.app.library.controllers.ApiSupport.DEFAULT_PAGE_SIZE;
+import static com.app.library.controllers.ApiSupport.RECORD_CSV_HEADER;
+import static com.app.library.controllers.ApiSupport.clampLimit;
 
 @RestController
 @RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class LibraryController {
     // Logger for request/response tracing and debugging
     private static final Logger logger = LoggerFactory.getLogger(LibraryController.class);
@@ -33,23 +72,89 @@ public class LibraryController {
     @Autowired
     private LibraryService libraryService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private LibraryMetrics metrics;
+
     // ==================== Book Endpoints ====================
 
-    // Return all books currently stored in the in-memory repository
+    // Return one page of books ordered by id, starting after the `after` cursor.
+    // A `Link: rel="next"` header carries the cursor of the following page when there may be one.
     @GetMapping("/books")
-    public ResponseEntity<Collection<Book>> getAllBooks() {
-        Collection<Book> books = libraryService.getAllBooks();
-        logger.info("Returning list of books: {}", books);
+    public ResponseEntity<Collection<Book>> getAllBooks(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = clampLimit(limit);
+        List<Book> books = libraryService.getBooksPage(after, pageSize);
+        logger.debug("Returning books count={}", books.size());
+        AccessLogFilter.setResultCount(books.size());
+        return page(books, pageSize, Book::getId);
+    }
+
+    // Stream the whole catalog as NDJSON (one book per line) without building it in memory
+    @GetMapping(value = "/books/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBooks() {
+        return ndjson(libraryService::forEachBook);
+    }
+
+    // Search books by field: author/genre match exactly (ignoring case), titlePrefix matches the
+    // start of the title and yearFrom/yearTo bound publicationYear. At least one criterion is required.
+    @GetMapping("/books/search")
+    public ResponseEntity<Collection<Book>> searchBooks(@RequestParam(required = false) String author,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) String titlePrefix,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        BookQuery query = new BookQuery(author, genre, titlePrefix, yearFrom, yearTo);
+        if (query.isEmpty()) {
+            return reject("search_books", Rejection.BAD_REQUEST);
+        }
+        List<Book> books = libraryService.searchBooks(query, clampLimit(limit));
+        logger.debug("Search books query={} count={}", query, books.size());
+        AccessLogFilter.setResultCount(books.size());
+        return new ResponseEntity<>(books, HttpStatus.OK);
+    }
+
+    // Full-text search over titles and authors, ranked by relevance (BM25)
+    @GetMapping("/books/fulltext")
+    public ResponseEntity<Collection<Book>> fullTextSearch(@RequestParam String q,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (q.isBlank()) {
+            return reject("fulltext_search", Rejection.BAD_REQUEST);
+        }
+        List<Book> books = libraryService.fullTextSearch(q, clampLimit(limit));
+        logger.debug("Full-text search q={} count={}", q, books.size());
+        AccessLogFilter.setResultCount(books.size());
         return new ResponseEntity<>(books, HttpStatus.OK);
     }
 
     // Return a single book by its ID. If not found, respond 404.
+    // The body is served from the response cache and carries an ETag; a matching If-None-Match gets 304.
     @GetMapping("/books/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
-        Optional<Book> bookOpt = libraryService.getBookById(id);
-        logger.info("Lookup book id={}", id);
-        return bookOpt.map(b -> new ResponseEntity<>(b, HttpStatus.OK))
-                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    public ResponseEntity<byte[]> getBookById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Lookup book id={}", id);
+        return cachedEntity(ResponseCache.Kind.BOOK, id, libraryService.getBookVersion(id), ifNoneMatch,
+                () -> libraryService.getBookById(id));
+    }
+
+    // Borrowing history of a book, paged by record id
+    @GetMapping("/books/{id}/records")
+    public ResponseEntity<Collection<BorrowingRecord>> getBookRecords(@PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (!libraryService.getBookById(id).isPresent()) {
+            return reject("book_records", Rejection.NOT_FOUND);
+        }
+        int pageSize = clampLimit(limit);
+        List<BorrowingRecord> records = libraryService.getBookRecords(id, after, pageSize);
+        AccessLogFilter.setResultCount(records.size());
+        return page(records, pageSize, BorrowingRecord::getId);
     }
 
     // Create a new book resource. The created book is returned with 201.
@@ -60,6 +165,19 @@ public class LibraryController {
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
+    // Import many books in one request: NDJSON (one book per line) or CSV with a header line naming
+    // the fields (e.g. title,author,publicationYear,genre,availableCopies). Rows are applied in batches;
+    // invalid rows are skipped and reported with their row number.
+    @PostMapping(value = "/books/bulk", consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.CSV_VALUE })
+    public ResponseEntity<BulkResult> bulkAddBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        BulkReader<Book> reader = new BulkReader<>(objectMapper, Book.class, ApiSupport::validateBook);
+        BulkResult result = reader.read(body, BulkFormat.of(MediaType.parseMediaType(contentType)),
+                libraryService::addBooks);
+        logger.info("Bulk import added {} books, rejected {}", result.accepted(), result.rejected());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     // Update an existing book. If the book does not exist, return 404.
     @PutMapping("/books/{id}")
     public ResponseEntity<Book> updateBook(@PathVariable Long id, @RequestBody Book updatedBook) {
@@ -69,7 +187,7 @@ public class LibraryController {
             logger.info("Updated book id={}", id);
             return new ResponseEntity<>(updated.get(), HttpStatus.OK);
         } else {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            return reject("update_book", Rejection.NOT_FOUND);
         }
     }
 
@@ -78,7 +196,7 @@ public class LibraryController {
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
         boolean removed = libraryService.deleteBook(id);
         if (!removed) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            return reject("delete_book", Rejection.NOT_FOUND);
         }
         logger.info("Deleted book id={}", id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -86,21 +204,45 @@ public class LibraryController {
 
     // ==================== Member Endpoints ====================
 
-    // Return all members
+    // Return one page of members ordered by id
     @GetMapping("/members")
-    public ResponseEntity<Collection<Member>> getAllMembers() {
-        Collection<Member> members = libraryService.getAllMembers();
-        logger.info("Returning members count={}", members.size());
-        return new ResponseEntity<>(members, HttpStatus.OK);
+    public ResponseEntity<Collection<Member>> getAllMembers(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = clampLimit(limit);
+        List<Member> members = libraryService.getMembersPage(after, pageSize);
+        logger.debug("Returning members count={}", members.size());
+        AccessLogFilter.setResultCount(members.size());
+        return page(members, pageSize, Member::getId);
+    }
+
+    // Stream all members as NDJSON
+    @GetMapping(value = "/members/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMembers() {
+        return ndjson(libraryService::forEachMember);
     }
 
     // Return a member by ID or 404 if not found
     @GetMapping("/members/{id}")
-    public ResponseEntity<Member> getMemberById(@PathVariable Long id) {
-        Optional<Member> memberOpt = libraryService.getMemberById(id);
-        logger.info("Lookup member id={}", id);
-        return memberOpt.map(m -> new ResponseEntity<>(m, HttpStatus.OK))
-                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    public ResponseEntity<byte[]> getMemberById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Lookup member id={}", id);
+        return cachedEntity(ResponseCache.Kind.MEMBER, id, libraryService.getMemberVersion(id), ifNoneMatch,
+                () -> libraryService.getMemberById(id));
+    }
+
+    // A member's borrowing history (or only open loans with open=true), paged by record id
+    @GetMapping("/members/{id}/records")
+    public ResponseEntity<Collection<BorrowingRecord>> getMemberRecords(@PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "false") boolean open) {
+        if (!libraryService.getMemberById(id).isPresent()) {
+            return reject("member_records", Rejection.NOT_FOUND);
+        }
+        int pageSize = clampLimit(limit);
+        List<BorrowingRecord> records = libraryService.getMemberRecords(id, after, pageSize, open);
+        AccessLogFilter.setResultCount(records.size());
+        return page(records, pageSize, BorrowingRecord::getId);
     }
 
     // Add a new member
@@ -111,6 +253,17 @@ public class LibraryController {
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
+    // Import many members in one request; same formats and error reporting as /books/bulk
+    @PostMapping(value = "/members/bulk", consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.CSV_VALUE })
+    public ResponseEntity<BulkResult> bulkAddMembers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        BulkReader<Member> reader = new BulkReader<>(objectMapper, Member.class, ApiSupport::validateMember);
+        BulkResult result = reader.read(body, BulkFormat.of(MediaType.parseMediaType(contentType)),
+                libraryService::addMembers);
+        logger.info("Bulk import added {} members, rejected {}", result.accepted(), result.rejected());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     // Update an existing member
     @PutMapping("/members/{id}")
     public ResponseEntity<Member> updateMember(@PathVariable Long id, @RequestBody Member updatedMember) {
@@ -120,7 +273,7 @@ public class LibraryController {
             logger.info("Updated member id={}", id);
             return new ResponseEntity<>(updated.get(), HttpStatus.OK);
         } else {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            return reject("update_member", Rejection.NOT_FOUND);
         }
     }
 
@@ -129,7 +282,7 @@ public class LibraryController {
     public ResponseEntity<Void> deleteMember(@PathVariable Long id) {
         boolean removed = libraryService.deleteMember(id);
         if (!removed) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            return reject("delete_member", Rejection.NOT_FOUND);
         }
         logger.info("Deleted member id={}", id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -137,49 +290,199 @@ public class LibraryController {
 
     // ==================== BorrowingRecord Endpoints ====================
 
-    // Return all borrowing records
+    // Return one page of borrowing records ordered by id
     @GetMapping("/borrowing-records")
-    public ResponseEntity<Collection<BorrowingRecord>> getAllBorrowingRecords() {
-        Collection<BorrowingRecord> records = libraryService.getAllBorrowingRecords();
-        logger.info("Returning borrowing records count={}", records.size());
+    public ResponseEntity<Collection<BorrowingRecord>> getAllBorrowingRecords(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = clampLimit(limit);
+        List<BorrowingRecord> records = libraryService.getBorrowingRecordsPage(after, pageSize);
+        logger.debug("Returning borrowing records count={}", records.size());
+        AccessLogFilter.setResultCount(records.size());
+        return page(records, pageSize, BorrowingRecord::getId);
+    }
+
+    // Loans past their due date and not yet returned, earliest due date first
+    @GetMapping("/borrowing-records/overdue")
+    public ResponseEntity<Collection<BorrowingRecord>> getOverdueRecords(
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        List<BorrowingRecord> records = libraryService.getOverdueRecords(LocalDate.now(), clampLimit(limit));
+        AccessLogFilter.setResultCount(records.size());
         return new ResponseEntity<>(records, HttpStatus.OK);
     }
 
+    // Stream the whole ledger as NDJSON; heap usage stays flat regardless of its size
+    @GetMapping(value = "/borrowing-records/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBorrowingRecords() {
+        return ndjson(libraryService::forEachBorrowingRecord);
+    }
+
+    // Export the whole ledger as `format=ndjson` (default) or `format=csv`, streamed row by row
+    @GetMapping("/borrowing-records/export")
+    public ResponseEntity<StreamingResponseBody> exportBorrowingRecords(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        BulkFormat f = BulkFormat.of(format);
+        if (f == null) {
+            return reject("export", Rejection.BAD_REQUEST);
+        }
+        if (f == BulkFormat.NDJSON) {
+            return ndjson(libraryService::forEachBorrowingRecord);
+        }
+        return csv(RECORD_CSV_HEADER, libraryService::forEachBorrowingRecord, ApiSupport::appendRecordCsv);
+    }
+
     // Create a borrowing record (borrow a book). This sets borrow/due dates and persists the record.
+    // Accepts {"bookId":1,"memberId":2} or nested book/member objects with ids.
     @PostMapping("/borrow")
     public ResponseEntity<?> borrowBook(@RequestBody BorrowingRecord record) {
-        if (record == null || record.getBook() == null || record.getMember() == null) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        if (record == null || record.bookId() == BorrowingRecord.NO_ID || record.memberId() == BorrowingRecord.NO_ID) {
+            return reject("borrow", Rejection.BAD_REQUEST);
         }
 
-        Long bookId = record.getBook().getId();
-        Long memberId = record.getMember().getId();
-        if (bookId == null || memberId == null) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        long bookId = record.bookId();
+        long memberId = record.memberId();
+        BorrowingRecord created = libraryService.borrow(bookId, memberId);
+        if (created == null) {
+            // Only a refused borrow looks the book and member up again, to tell 404 from "no copies"
+            if (!libraryService.getBookById(bookId).isPresent() || !libraryService.getMemberById(memberId).isPresent()) {
+                return reject("borrow", Rejection.NOT_FOUND);
+            }
+            return reject("borrow", Rejection.NO_COPIES);
         }
+        logger.info("Borrowed book id={} by member={}", bookId, memberId);
+        return new ResponseEntity<>(created, HttpStatus.CREATED);
+    }
 
-        // If book or member not found -> 404
-        if (!libraryService.getBookById(bookId).isPresent() || !libraryService.getMemberById(memberId).isPresent()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    // Borrow several books for one member in one call, all or nothing: 404 if the member or any
+    // book does not exist, 400 if any book lacks a copy (in which case nothing is borrowed)
+    @PostMapping("/borrow/batch")
+    public ResponseEntity<?> borrowBooks(@RequestBody BorrowBatchRequest request) {
+        if (request == null || request.memberId() == null || request.bookIds() == null
+                || request.bookIds().isEmpty() || request.bookIds().stream().anyMatch(Objects::isNull)) {
+            return reject("borrow_batch", Rejection.BAD_REQUEST);
         }
-
-        Optional<BorrowingRecord> created = libraryService.borrowBook(record);
+        Optional<List<BorrowingRecord>> created = libraryService.borrowBooks(request.memberId(), request.bookIds());
         if (!created.isPresent()) {
-            // e.g., no available copies or other business rule violation
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            // Only a refused batch looks the member and books up again, to tell 404 from "no copies"
+            return reject("borrow_batch", batchRejection(request));
         }
-        logger.info("Borrowed book id={} by member={}", bookId, memberId);
+        logger.info("Borrowed {} books by member={}", created.get().size(), request.memberId());
         return new ResponseEntity<>(created.get(), HttpStatus.CREATED);
     }
 
+    // Return several borrowing records in one call, all or nothing: 404 (and nothing returned) if any record is unknown
+    @PutMapping("/return/batch")
+    public ResponseEntity<?> returnBooks(@RequestBody ReturnBatchRequest request) {
+        if (request == null || request.recordIds() == null || request.recordIds().isEmpty()
+                || request.recordIds().stream().anyMatch(Objects::isNull)) {
+            return reject("return_batch", Rejection.BAD_REQUEST);
+        }
+        Optional<List<BorrowingRecord>> returned = libraryService.returnBooks(request.recordIds());
+        if (!returned.isPresent()) {
+            return reject("return_batch", Rejection.NOT_FOUND);
+        }
+        logger.info("Returned {} borrowing records", returned.get().size());
+        return new ResponseEntity<>(returned.get(), HttpStatus.OK);
+    }
+
     // Mark a borrowing record as returned. The service updates available copies accordingly.
     @PutMapping("/return/{recordId}")
-    public ResponseEntity<?> returnBook(@PathVariable Long recordId) {
-        Optional<BorrowingRecord> rec = libraryService.returnBook(recordId);
-        if (!rec.isPresent()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    public ResponseEntity<?> returnBook(@PathVariable long recordId) {
+        BorrowingRecord rec = libraryService.returnLoan(recordId);
+        if (rec == null) {
+            return reject("return", Rejection.NOT_FOUND);
         }
         logger.info("Returned borrowing record id={}", recordId);
-        return new ResponseEntity<>(rec.get(), HttpStatus.OK);
+        return new ResponseEntity<>(rec, HttpStatus.OK);
+    }
+
+    // Why a batch was refused: 404 if the member or any book is unknown, otherwise a book lacked a copy
+    private Rejection batchRejection(BorrowBatchRequest request) {
+        if (!libraryService.getMemberById(request.memberId()).isPresent()
+                || !request.bookIds().stream().allMatch(id -> libraryService.getBookById(id).isPresent())) {
+            return Rejection.NOT_FOUND;
+        }
+        return Rejection.NO_COPIES;
+    }
+
+    // ==================== Metrics helper ====================
+
+    // Count a refused request by operation and reason and build its response: 404 for NOT_FOUND, 400 otherwise
+    private <T> ResponseEntity<T> reject(String operation, Rejection reason) {
+        metrics.rejected(operation, reason);
+        return new ResponseEntity<>(reason == Rejection.NOT_FOUND ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST);
+    }
+
+    // ==================== Response cache helper ====================
+
+    private ResponseEntity<byte[]> cachedEntity(ResponseCache.Kind kind, long id, long version, String ifNoneMatch,
+            Supplier<Optional<?>> lookup) {
+        ResponseEntity<byte[]> response = ApiSupport.cachedEntity(responseCache, objectMapper, kind, id, version,
+                ifNoneMatch, lookup);
+        return response != null ? response : reject("get_" + kind.name().toLowerCase(), Rejection.NOT_FOUND);
+    }
+
+    // ==================== Paging / streaming helpers ====================
+
+    // Wrap a page in a response; a full page means more may follow, so advertise the next cursor
+    private static <T> ResponseEntity<Collection<T>> page(List<T> items, int pageSize, Function<T, Long> idOf) {
+        HttpHeaders headers = new HttpHeaders();
+        if (!items.isEmpty() && items.size() == pageSize) {
+            Long last = idOf.apply(items.get(items.size() - 1));
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", last)
+                    .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return new ResponseEntity<>(items, headers, HttpStatus.OK);
+    }
+
+    // Serialize each entity with Jackson's streaming generator straight to the socket, one per line.
+    // Flushing is left to the container buffer instead of once per entity.
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<Object>> source) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = writer.createGenerator(out)) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                gen.setRootValueSeparator(null);
+                source.accept(value -> {
+                    try {
+                        writer.writeValue(gen, value);
+                        gen.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Stream rows as CSV: the header line, then one line per entity formatted by `format`
+    private <T> ResponseEntity<StreamingResponseBody> csv(String header, Consumer<Consumer<T>> source,
+            BiConsumer<T, StringBuilder> format) {
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            StringBuilder row = new StringBuilder(128);
+            writer.write(header);
+            writer.write('\n');
+            try {
+                source.accept(value -> {
+                    row.setLength(0);
+                    format.accept(value, row);
+                    row.append('\n');
+                    try {
+                        writer.append(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(BulkFormat.CSV.getMediaType()).body(body);
     }
 }
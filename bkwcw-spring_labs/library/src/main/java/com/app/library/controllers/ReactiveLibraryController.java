@@ -0,0 +1,438 @@
+package com.app.library.controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.app.library.bulk.BulkFormat;
+import com.app.library.bulk.BulkReader;
+import com.app.library.bulk.BulkResult;
+import com.app.library.cache.ResponseCache;
+import com.app.library.metrics.LibraryMetrics;
+import com.app.library.metrics.LibraryMetrics.Rejection;
+import com.app.library.models.Book;
+import com.app.library.models.BorrowBatchRequest;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.app.library.models.ReturnBatchRequest;
+import com.app.library.search.BookQuery;
+import com.app.library.services.LibraryService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import static com.app.library.controllers.ApiSupport.DEFAULT_PAGE_SIZE;
+import static com.app.library.controllers.ApiSupport.MAX_PAGE_SIZE;
+import static com.app.library.controllers.ApiSupport.RECORD_CSV_HEADER;
+import static com.app.library.controllers.ApiSupport.clampLimit;
+
+/**
+ * Responsibility: the /api surface of {@link LibraryController} on WebFlux, active when the
+ * application runs as a reactive web application (profile `reactive`, served by Netty).
+ *
+ * Reads are answered on the event loop: they are in-memory index lookups that never block.
+ * Changes go through {@link #blocking}, since with persistence enabled they wait for the log sync.
+ * The stream and export endpoints walk the catalog one page at a time and read the next page only
+ * when the client has consumed the previous one, so a slow client holds neither a thread nor more
+ * than one page of memory.
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveLibraryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveLibraryController.class);
+
+    // Bulk request bodies are read with this many buffers requested ahead
+    private static final int BULK_PREFETCH = 16;
+
+    @Autowired
+    private LibraryService libraryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private LibraryMetrics metrics;
+
+    // ==================== Book Endpoints ====================
+
+    @GetMapping("/books")
+    public Mono<ResponseEntity<List<Book>>> getAllBooks(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit, ServerHttpRequest request) {
+        int pageSize = clampLimit(limit);
+        return Mono.fromSupplier(() -> page(libraryService.getBooksPage(after, pageSize), pageSize, Book::getId, request));
+    }
+
+    @GetMapping(value = "/books/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Book> streamBooks() {
+        return pages(libraryService::getBooksPage, Book::getId).flatMapIterable(Function.identity());
+    }
+
+    @GetMapping("/books/search")
+    public Mono<ResponseEntity<List<Book>>> searchBooks(@RequestParam(required = false) String author,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) String titlePrefix,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        BookQuery query = new BookQuery(author, genre, titlePrefix, yearFrom, yearTo);
+        if (query.isEmpty()) {
+            return reject("search_books", Rejection.BAD_REQUEST);
+        }
+        return Mono.fromSupplier(() -> ResponseEntity.ok(libraryService.searchBooks(query, clampLimit(limit))));
+    }
+
+    @GetMapping("/books/fulltext")
+    public Mono<ResponseEntity<List<Book>>> fullTextSearch(@RequestParam String q,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (q.isBlank()) {
+            return reject("fulltext_search", Rejection.BAD_REQUEST);
+        }
+        return Mono.fromSupplier(() -> ResponseEntity.ok(libraryService.fullTextSearch(q, clampLimit(limit))));
+    }
+
+    @GetMapping("/books/{id}")
+    public Mono<ResponseEntity<byte[]>> getBookById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return cachedEntity(ResponseCache.Kind.BOOK, id, ifNoneMatch, libraryService::getBookVersion,
+                () -> libraryService.getBookById(id));
+    }
+
+    @GetMapping("/books/{id}/records")
+    public Mono<ResponseEntity<List<BorrowingRecord>>> getBookRecords(@PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit, ServerHttpRequest request) {
+        if (!libraryService.getBookById(id).isPresent()) {
+            return reject("book_records", Rejection.NOT_FOUND);
+        }
+        int pageSize = clampLimit(limit);
+        return Mono.fromSupplier(() -> page(libraryService.getBookRecords(id, after, pageSize), pageSize,
+                BorrowingRecord::getId, request));
+    }
+
+    @PostMapping("/books")
+    public Mono<ResponseEntity<Book>> addBook(@RequestBody Book book) {
+        return blocking(() -> {
+            Book created = libraryService.addBook(book);
+            logger.info("Added book id={}", created.getId());
+            return new ResponseEntity<>(created, HttpStatus.CREATED);
+        });
+    }
+
+    @PostMapping(value = "/books/bulk", consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.CSV_VALUE })
+    public Mono<ResponseEntity<BulkResult>> bulkAddBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestBody Flux<DataBuffer> body) {
+        BulkReader<Book> reader = new BulkReader<>(objectMapper, Book.class, ApiSupport::validateBook);
+        return bulk(reader, contentType, body, libraryService::addBooks, "books");
+    }
+
+    @PutMapping("/books/{id}")
+    public Mono<ResponseEntity<Book>> updateBook(@PathVariable Long id, @RequestBody Book updatedBook) {
+        updatedBook.setId(id);
+        return blocking(() -> libraryService.updateBook(updatedBook)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> rejected("update_book", Rejection.NOT_FOUND)));
+    }
+
+    @DeleteMapping("/books/{id}")
+    public Mono<ResponseEntity<Void>> deleteBook(@PathVariable Long id) {
+        return blocking(() -> libraryService.deleteBook(id) ? ResponseEntity.noContent().<Void>build()
+                : rejected("delete_book", Rejection.NOT_FOUND));
+    }
+
+    // ==================== Member Endpoints ====================
+
+    @GetMapping("/members")
+    public Mono<ResponseEntity<List<Member>>> getAllMembers(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit, ServerHttpRequest request) {
+        int pageSize = clampLimit(limit);
+        return Mono.fromSupplier(() -> page(libraryService.getMembersPage(after, pageSize), pageSize, Member::getId,
+                request));
+    }
+
+    @GetMapping(value = "/members/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Member> streamMembers() {
+        return pages(libraryService::getMembersPage, Member::getId).flatMapIterable(Function.identity());
+    }
+
+    @GetMapping("/members/{id}")
+    public Mono<ResponseEntity<byte[]>> getMemberById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return cachedEntity(ResponseCache.Kind.MEMBER, id, ifNoneMatch, libraryService::getMemberVersion,
+                () -> libraryService.getMemberById(id));
+    }
+
+    @GetMapping("/members/{id}/records")
+    public Mono<ResponseEntity<List<BorrowingRecord>>> getMemberRecords(@PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "false") boolean open, ServerHttpRequest request) {
+        if (!libraryService.getMemberById(id).isPresent()) {
+            return reject("member_records", Rejection.NOT_FOUND);
+        }
+        int pageSize = clampLimit(limit);
+        return Mono.fromSupplier(() -> page(libraryService.getMemberRecords(id, after, pageSize, open), pageSize,
+                BorrowingRecord::getId, request));
+    }
+
+    @PostMapping("/members")
+    public Mono<ResponseEntity<Member>> addMember(@RequestBody Member member) {
+        return blocking(() -> {
+            Member created = libraryService.addMember(member);
+            logger.info("Added member id={}", created.getId());
+            return new ResponseEntity<>(created, HttpStatus.CREATED);
+        });
+    }
+
+    @PostMapping(value = "/members/bulk", consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.CSV_VALUE })
+    public Mono<ResponseEntity<BulkResult>> bulkAddMembers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestBody Flux<DataBuffer> body) {
+        BulkReader<Member> reader = new BulkReader<>(objectMapper, Member.class, ApiSupport::validateMember);
+        return bulk(reader, contentType, body, libraryService::addMembers, "members");
+    }
+
+    @PutMapping("/members/{id}")
+    public Mono<ResponseEntity<Member>> updateMember(@PathVariable Long id, @RequestBody Member updatedMember) {
+        updatedMember.setId(id);
+        return blocking(() -> libraryService.updateMember(updatedMember)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> rejected("update_member", Rejection.NOT_FOUND)));
+    }
+
+    @DeleteMapping("/members/{id}")
+    public Mono<ResponseEntity<Void>> deleteMember(@PathVariable Long id) {
+        return blocking(() -> libraryService.deleteMember(id) ? ResponseEntity.noContent().<Void>build()
+                : rejected("delete_member", Rejection.NOT_FOUND));
+    }
+
+    // ==================== BorrowingRecord Endpoints ====================
+
+    @GetMapping("/borrowing-records")
+    public Mono<ResponseEntity<List<BorrowingRecord>>> getAllBorrowingRecords(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit, ServerHttpRequest request) {
+        int pageSize = clampLimit(limit);
+        return Mono.fromSupplier(() -> page(libraryService.getBorrowingRecordsPage(after, pageSize), pageSize,
+                BorrowingRecord::getId, request));
+    }
+
+    @GetMapping("/borrowing-records/overdue")
+    public Mono<ResponseEntity<List<BorrowingRecord>>> getOverdueRecords(
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        return Mono.fromSupplier(() -> ResponseEntity.ok(
+                libraryService.getOverdueRecords(LocalDate.now(), clampLimit(limit))));
+    }
+
+    @GetMapping(value = "/borrowing-records/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BorrowingRecord> streamBorrowingRecords() {
+        return pages(libraryService::getBorrowingRecordsPage, BorrowingRecord::getId)
+                .flatMapIterable(Function.identity());
+    }
+
+    // Each page is written as one chunk of NDJSON or CSV lines
+    @GetMapping("/borrowing-records/export")
+    public Mono<ResponseEntity<Flux<String>>> exportBorrowingRecords(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        BulkFormat f = BulkFormat.of(format);
+        if (f == null) {
+            return reject("export", Rejection.BAD_REQUEST);
+        }
+        Flux<List<BorrowingRecord>> pages = pages(libraryService::getBorrowingRecordsPage, BorrowingRecord::getId);
+        Flux<String> body;
+        if (f == BulkFormat.NDJSON) {
+            body = pages.map(page -> {
+                StringBuilder chunk = new StringBuilder(page.size() * 128);
+                for (BorrowingRecord r : page) {
+                    try {
+                        chunk.append(objectMapper.writeValueAsString(r)).append('\n');
+                    } catch (JsonProcessingException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return chunk.toString();
+            });
+        } else {
+            body = Flux.concat(Mono.just(RECORD_CSV_HEADER + "\n"), pages.map(page -> {
+                StringBuilder chunk = new StringBuilder(page.size() * 64);
+                for (BorrowingRecord r : page) {
+                    ApiSupport.appendRecordCsv(r, chunk);
+                    chunk.append('\n');
+                }
+                return chunk.toString();
+            }));
+        }
+        return Mono.just(ResponseEntity.ok().contentType(f.getMediaType()).body(body));
+    }
+
+    // ==================== Borrow / Return ====================
+
+    @PostMapping("/borrow")
+    public Mono<ResponseEntity<BorrowingRecord>> borrowBook(@RequestBody BorrowingRecord record) {
+        if (record.bookId() == BorrowingRecord.NO_ID || record.memberId() == BorrowingRecord.NO_ID) {
+            return reject("borrow", Rejection.BAD_REQUEST);
+        }
+        long bookId = record.bookId();
+        long memberId = record.memberId();
+        return blocking(() -> {
+            BorrowingRecord created = libraryService.borrow(bookId, memberId);
+            if (created == null) {
+                return !libraryService.getBookById(bookId).isPresent() || !libraryService.getMemberById(memberId).isPresent()
+                        ? rejected("borrow", Rejection.NOT_FOUND) : rejected("borrow", Rejection.NO_COPIES);
+            }
+            logger.info("Borrowed book id={} by member={}", bookId, memberId);
+            return new ResponseEntity<>(created, HttpStatus.CREATED);
+        });
+    }
+
+    @PostMapping("/borrow/batch")
+    public Mono<ResponseEntity<List<BorrowingRecord>>> borrowBooks(@RequestBody BorrowBatchRequest request) {
+        if (request.memberId() == null || request.bookIds() == null || request.bookIds().isEmpty()
+                || request.bookIds().stream().anyMatch(Objects::isNull)) {
+            return reject("borrow_batch", Rejection.BAD_REQUEST);
+        }
+        return blocking(() -> libraryService.borrowBooks(request.memberId(), request.bookIds())
+                .map(created -> {
+                    logger.info("Borrowed {} books by member={}", created.size(), request.memberId());
+                    return new ResponseEntity<>(created, HttpStatus.CREATED);
+                })
+                // only a refused batch looks the member and books up again, to tell 404 from "no copies"
+                .orElseGet(() -> !libraryService.getMemberById(request.memberId()).isPresent()
+                        || !request.bookIds().stream().allMatch(id -> libraryService.getBookById(id).isPresent())
+                        ? rejected("borrow_batch", Rejection.NOT_FOUND)
+                        : rejected("borrow_batch", Rejection.NO_COPIES)));
+    }
+
+    @PutMapping("/return/batch")
+    public Mono<ResponseEntity<List<BorrowingRecord>>> returnBooks(@RequestBody ReturnBatchRequest request) {
+        if (request.recordIds() == null || request.recordIds().isEmpty()
+                || request.recordIds().stream().anyMatch(Objects::isNull)) {
+            return reject("return_batch", Rejection.BAD_REQUEST);
+        }
+        return blocking(() -> libraryService.returnBooks(request.recordIds())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> rejected("return_batch", Rejection.NOT_FOUND)));
+    }
+
+    @PutMapping("/return/{recordId}")
+    public Mono<ResponseEntity<BorrowingRecord>> returnBook(@PathVariable long recordId) {
+        return blocking(() -> {
+            BorrowingRecord rec = libraryService.returnLoan(recordId);
+            return rec != null ? ResponseEntity.ok(rec) : rejected("return", Rejection.NOT_FOUND);
+        });
+    }
+
+    // ==================== Helpers ====================
+
+    // Run a service call that may block (waiting for the mutation log) off the event loop
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Parse a bulk body on a worker thread, reading the request buffers as the parser consumes them
+    private <T> Mono<ResponseEntity<BulkResult>> bulk(BulkReader<T> reader, String contentType,
+            Flux<DataBuffer> body, Consumer<List<T>> sink, String what) {
+        BulkFormat format = BulkFormat.of(MediaType.parseMediaType(contentType));
+        return blocking(() -> {
+            try (InputStream in = DataBufferUtils.subscriberInputStream(body, BULK_PREFETCH)) {
+                BulkResult result = reader.read(in, format, sink);
+                logger.info("Bulk import added {} {}, rejected {}", result.accepted(), what, result.rejected());
+                return ResponseEntity.ok(result);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Walk a cursor-paged source lazily: a page of MAX_PAGE_SIZE is read only when the subscriber
+     * requests more, and the walk ends at the first short page.
+     */
+    private static <T> Flux<List<T>> pages(BiFunction<Long, Integer, List<T>> source, Function<T, Long> idOf) {
+        return Flux.<List<T>, Long>generate(() -> 0L, (after, sink) -> {
+            if (after < 0) {
+                sink.complete();
+                return after;
+            }
+            List<T> page = source.apply(after, MAX_PAGE_SIZE);
+            if (!page.isEmpty()) {
+                sink.next(page);
+            }
+            if (page.size() < MAX_PAGE_SIZE) {
+                sink.complete();
+                return -1L;
+            }
+            return idOf.apply(page.get(page.size() - 1));
+        });
+    }
+
+    private Mono<ResponseEntity<byte[]>> cachedEntity(ResponseCache.Kind kind, long id, String ifNoneMatch,
+            LongUnaryOperator versionOf, Supplier<Optional<?>> lookup) {
+        return Mono.fromSupplier(() -> {
+            ResponseEntity<byte[]> response = ApiSupport.cachedEntity(responseCache, objectMapper, kind, id,
+                    versionOf.applyAsLong(id), ifNoneMatch, lookup);
+            return response != null ? response : rejected("get_" + kind.name().toLowerCase(), Rejection.NOT_FOUND);
+        });
+    }
+
+    // Page response with the same `Link: rel="next"` header as the servlet variant
+    private static <T> ResponseEntity<List<T>> page(List<T> items, int pageSize, Function<T, Long> idOf,
+            ServerHttpRequest request) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!items.isEmpty() && items.size() == pageSize) {
+            String next = UriComponentsBuilder.fromUri(request.getURI())
+                    .replaceQueryParam("after", idOf.apply(items.get(items.size() - 1)))
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(items);
+    }
+
+    private <T> Mono<ResponseEntity<T>> reject(String operation, Rejection reason) {
+        return Mono.fromSupplier(() -> rejected(operation, reason));
+    }
+
+    // Count a refused request and build its response: 404 for NOT_FOUND, 400 otherwise
+    private <T> ResponseEntity<T> rejected(String operation, Rejection reason) {
+        metrics.rejected(operation, reason);
+        return new ResponseEntity<>(reason == Rejection.NOT_FOUND ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,24 @@
+package com.app.library.controllers;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Responsibility: keep blocking handlers off the Netty event loop in the reactive variant.
+ *
+ * Controllers that return plain values (StatsController, AdminController) are invoked on a virtual
+ * thread instead, since a snapshot or a statistics scan would otherwise stall every connection
+ * served by that loop. Handlers returning Mono/Flux are unaffected.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfiguration implements WebFluxConfigurer {
+
+    @Override
+    public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+        configurer.setExecutor(new VirtualThreadTaskExecutor("webflux-blocking-"));
+    }
+}
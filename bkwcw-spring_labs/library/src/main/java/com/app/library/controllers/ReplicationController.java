@@ -0,0 +1,107 @@
+package com.app.library.controllers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.app.library.persistence.SnapshotStore;
+import com.app.library.replication.ReplicationLeader;
+import com.app.library.replication.ReplicationLog;
+
+/**
+ * Responsibility: the leader's side of log shipping. Followers bootstrap from GET /snapshot and
+ * then long-poll GET /log for the entries after the last one they applied. Both responses carry
+ * the leader's epoch and last sequence number in the ReplicationLog.EPOCH_HEADER and SEQ_HEADER.
+ */
+@RestController
+@RequestMapping("/api/replication")
+@ConditionalOnProperty(name = "library.replication.role", havingValue = "leader")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReplicationController {
+
+    private static final int MAX_BATCH = 10_000;
+    private static final long MAX_WAIT_MS = 30_000;
+
+    @Autowired
+    private ReplicationLeader leader;
+
+    /**
+     * Entries after `after`, one `<seq>\t<timestamp>\t<json>` line each, at most `limit` of them.
+     * Waits up to `waitMs` when there are none yet and then answers with an empty body.
+     * 410 when the follower has to bootstrap again: `epoch` is not this leader's, or `after` fell
+     * out of the buffer.
+     */
+    @GetMapping(value = "/log", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<byte[]> log(@RequestParam long after, @RequestParam long epoch,
+            @RequestParam(defaultValue = "1000") int limit, @RequestParam(defaultValue = "0") long waitMs)
+            throws IOException {
+        ReplicationLog log = leader.getLog();
+        if (limit < 1 || waitMs < 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (epoch != log.getEpoch()) {
+            return new ResponseEntity<>(HttpStatus.GONE);
+        }
+        Optional<List<ReplicationLog.Entry>> entries;
+        try {
+            entries = log.read(after, Math.min(limit, MAX_BATCH), Math.min(waitMs, MAX_WAIT_MS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (entries.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.GONE);
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (ReplicationLog.Entry entry : entries.get()) {
+            entry.writeTo(body);
+        }
+        return ResponseEntity.ok()
+                .header(ReplicationLog.EPOCH_HEADER, Long.toString(log.getEpoch()))
+                .header(ReplicationLog.SEQ_HEADER, Long.toString(log.getLastSeq()))
+                .body(body.toByteArray());
+    }
+
+    // A fresh snapshot in SnapshotStore's format; the follower continues the log from its header's seq
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> snapshot() throws IOException {
+        Path directory = Files.createTempDirectory("library-replication");
+        Path file = directory.resolve(SnapshotStore.FILE_NAME);
+        SnapshotStore.Header header;
+        try {
+            header = leader.snapshot(directory);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+            throw e;
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+                Files.deleteIfExists(directory);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(ReplicationLog.EPOCH_HEADER, Long.toString(leader.getLog().getEpoch()))
+                .header(ReplicationLog.SEQ_HEADER, Long.toString(header.seq()))
+                .contentLength(Files.size(file))
+                .body(body);
+    }
+}
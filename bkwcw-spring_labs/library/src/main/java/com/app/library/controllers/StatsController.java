@@ -0,0 +1,32 @@
+package com.app.library.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.app.library.services.LibraryService;
+import com.app.library.stats.LibraryStats;
+
+/**
+ * Responsibility: catalog statistics for dashboards. Served from counters the service keeps
+ * up to date on every change, so the cost does not grow with the catalog.
+ */
+@RestController
+@RequestMapping("/api")
+public class StatsController {
+
+    private static final int MAX_TOP = 100;
+
+    @Autowired
+    private LibraryService libraryService;
+
+    // Counts per genre, copies, loans and the `top` most borrowed books (default 10, at most 100)
+    @GetMapping("/stats")
+    public ResponseEntity<LibraryStats> getStats(@RequestParam(defaultValue = "10") int top) {
+        return new ResponseEntity<>(libraryService.getStatistics(Math.max(0, Math.min(top, MAX_TOP))), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,8 @@
+package com.app.library.logging;
+
+/**
+ * One handled request as it appears in the access log.
+ * `resultCount` is -1 when the endpoint does not report how many entities it returned.
+ */
+public record AccessLogEntry(String method, String path, int status, long latencyNanos, int resultCount) {
+}
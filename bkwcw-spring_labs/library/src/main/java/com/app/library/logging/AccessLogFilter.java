@@ -0,0 +1,78 @@
+package com.app.library.logging;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Responsibility: time every request and hand one structured entry per request
+ * (method, path, status, latency, result count) to the {@link AccessLogWriter}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final String RESULT_COUNT_ATTRIBUTE = AccessLogFilter.class.getName() + ".resultCount";
+
+    @Autowired
+    private AccessLogWriter accessLogWriter;
+
+    // Lets a controller report how many entities it returned for the current request
+    public static void setResultCount(int count) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(RESULT_COUNT_ATTRIBUTE, count, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // streamed responses finish on another thread: log once the body is complete
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, start);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, long start) {
+        Object count = request.getAttribute(RESULT_COUNT_ATTRIBUTE);
+        accessLogWriter.record(new AccessLogEntry(request.getMethod(), request.getRequestURI(),
+                response.getStatus(), System.nanoTime() - start, count instanceof Integer n ? n : -1));
+    }
+}
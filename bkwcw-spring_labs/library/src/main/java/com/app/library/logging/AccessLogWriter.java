@@ -0,0 +1,125 @@
+package com.app.library.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Responsibility: asynchronous access log. Request threads only enqueue an entry into a
+ * bounded buffer (never blocking; entries are dropped and counted when it is full) and a
+ * single background thread formats and writes them in batches.
+ * Requests to the configured high-volume paths are sampled; error responses are always kept.
+ */
+@Component
+public class AccessLogWriter {
+
+    // Written through its own logger name so it can be routed to a separate appender
+    private static final Logger accessLogger = LoggerFactory.getLogger("com.app.library.access");
+    private static final int BATCH_SIZE = 256;
+
+    private final ArrayBlockingQueue<AccessLogEntry> buffer;
+    private final double sampleRate;
+    private final List<String> sampledPaths;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AccessLogWriter(@Value("${library.access-log.buffer-size:8192}") int bufferSize,
+            @Value("${library.access-log.sample-rate:1.0}") double sampleRate,
+            @Value("${library.access-log.sampled-paths:}") List<String> sampledPaths) {
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.sampleRate = sampleRate;
+        this.sampledPaths = sampledPaths;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = Thread.ofPlatform().daemon().name("access-log-writer").start(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    // Called on the request thread; returns true if the entry was queued for writing
+    public boolean record(AccessLogEntry entry) {
+        if (entry.status() < 400 && isSampled(entry.path())
+                && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.increment();
+            return false;
+        }
+        if (!buffer.offer(entry)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+
+    private boolean isSampled(String path) {
+        for (String prefix : sampledPaths) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drainLoop() {
+        List<AccessLogEntry> batch = new ArrayList<>(BATCH_SIZE);
+        StringBuilder line = new StringBuilder(128);
+        while (running || !buffer.isEmpty()) {
+            try {
+                AccessLogEntry first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // woken up by stop(): write out whatever is still buffered, then exit
+                running = false;
+            }
+            buffer.drainTo(batch, BATCH_SIZE - batch.size());
+            for (AccessLogEntry entry : batch) {
+                accessLogger.info(format(entry, line));
+            }
+            batch.clear();
+        }
+    }
+
+    private static String format(AccessLogEntry e, StringBuilder line) {
+        line.setLength(0);
+        line.append("method=").append(e.method())
+                .append(" path=").append(e.path())
+                .append(" status=").append(e.status())
+                .append(" latencyUs=").append(e.latencyNanos() / 1_000);
+        if (e.resultCount() >= 0) {
+            line.append(" results=").append(e.resultCount());
+        }
+        return line.toString();
+    }
+}
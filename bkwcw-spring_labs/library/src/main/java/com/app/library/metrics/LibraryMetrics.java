@@ -0,0 +1,67 @@
+package com.app.library.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.app.library.services.LibraryService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Responsibility: library-specific meters.
+ * - `library.rejections{operation, reason}`: requests refused, counted by the controllers
+ * - `library.books`, `library.members`, `library.borrowing.records`, `library.loans.active`: sizes, as gauges
+ * - `library.book.lock.contended` / `library.book.lock.wait`: borrow/return acquisitions of a book stripe
+ *   that had to wait, and how long
+ * - `library.storage.books.wasted`: off-heap bytes the `offheap` book store holds for replaced titles and
+ *   deleted books (see OffHeapBookStore for the bound); 0 with heap storage
+ * - `library.replication.*`: log position and follower lag, registered by ReplicationLeader / ReplicationFollower
+ * Gauges and function meters read counters the service maintains anyway, so they cost nothing until scraped.
+ */
+@Component
+public class LibraryMetrics {
+
+    public enum Rejection { NOT_FOUND, NO_COPIES, BAD_REQUEST }
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public LibraryMetrics(MeterRegistry registry, LibraryService libraryService) {
+        this.registry = registry;
+        Gauge.builder("library.books", libraryService, LibraryService::getBookCount)
+                .description("Books in the catalog").register(registry);
+        Gauge.builder("library.members", libraryService, LibraryService::getMemberCount)
+                .description("Registered members").register(registry);
+        Gauge.builder("library.borrowing.records", libraryService, LibraryService::getBorrowingRecordCount)
+                .description("Borrowing records, returned or not").register(registry);
+        Gauge.builder("library.loans.active", libraryService, LibraryService::getActiveLoanCount)
+                .description("Loans not yet returned").register(registry);
+        FunctionCounter.builder("library.book.lock.contended", libraryService,
+                LibraryService::getBookLockContendedCount)
+                .description("Borrow/return lock acquisitions that found the book's stripe taken")
+                .register(registry);
+        FunctionTimer.builder("library.book.lock.wait", libraryService,
+                LibraryService::getBookLockContendedCount, LibraryService::getBookLockWaitNanos,
+                TimeUnit.NANOSECONDS)
+                .description("Time borrow/return waited for a taken book stripe")
+                .register(registry);
+        Gauge.builder("library.storage.books.wasted", libraryService, LibraryService::getBookStoreWastedBytes)
+                .description("Off-heap bytes held for replaced titles and deleted books")
+                .baseUnit("bytes").register(registry);
+    }
+
+    // Count a refused request; `operation` is a short name such as "borrow" or "update_book"
+    public void rejected(String operation, Rejection reason) {
+        rejections.computeIfAbsent(operation + ':' + reason, k -> Counter.builder("library.rejections")
+                .tag("operation", operation)
+                .tag("reason", reason.name().toLowerCase())
+                .register(registry))
+                .increment();
+    }
+}
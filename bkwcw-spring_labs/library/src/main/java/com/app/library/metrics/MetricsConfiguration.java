@@ -0,0 +1,67 @@
+package com.app.library.metrics;
+
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.aspectj.MethodInvocationProceedingJoinPoint;
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.util.function.SingletonSupplier;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Enables `@Timed` on LibraryService methods. Their timers are published as `library.service`
+ * tagged with class and method; histogram and percentiles are configured in application.properties.
+ * Controller endpoints are timed by Spring MVC itself as `http.server.requests`.
+ * The aspect looks up its timer and starts a sample on every call (about 700 bytes and a few hundred
+ * ns, see MetricsOverheadBenchmark), so id lookups and single borrow/return are not annotated: they
+ * are covered by `http.server.requests` and the pre-registered `library.book.lock.*` meters.
+ *
+ * TimedAspect is applied through a plain advisor rather than registered as an @Aspect bean, and the
+ * proxies are frozen. An @Aspect puts Spring's ExposeInvocationInterceptor in front of every method
+ * of the bean, which allocates an invocation per call; without it, unannotated methods dispatch
+ * straight to the service (see BorrowReturnBenchmark with `bean=proxied`).
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor timedAdvisor(ObjectProvider<MeterRegistry> registry) {
+        // Resolved on first call, so the registry is not created while post-processors are set up
+        return timing(SingletonSupplier.of(() -> new TimedAspect(registry.getObject())));
+    }
+
+    // Static, so it runs before the auto-proxy creator is instantiated
+    @Bean
+    public static BeanFactoryPostProcessor freezeAutoProxies() {
+        return beanFactory -> {
+            if (beanFactory.containsBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME)) {
+                beanFactory.getBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME)
+                        .getPropertyValues().add("frozen", Boolean.TRUE);
+            }
+        };
+    }
+
+    /**
+     * Advisor running `aspect` around methods annotated with @Timed; also used by the benchmarks to
+     * proxy a service the way the application does.
+     */
+    public static Advisor timing(Supplier<TimedAspect> aspect) {
+        MethodInterceptor interceptor = invocation -> aspect.get()
+                .timedMethod(new MethodInvocationProceedingJoinPoint((ProxyMethodInvocation) invocation));
+        return new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(Timed.class), interceptor);
+    }
+}
@@ -0,0 +1,10 @@
+package com.app.library.models;
+
+import java.util.List;
+
+/**
+ * Request body of POST /api/borrow/batch: one member borrowing several books at once,
+ * e.g. {"memberId": 2, "bookIds": [1, 5, 9]}. A book may be listed more than once.
+ */
+public record BorrowBatchRequest(Long memberId, List<Long> bookIds) {
+}
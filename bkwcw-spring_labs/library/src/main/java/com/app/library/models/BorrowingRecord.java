@@ -5,6 +5,8 @@ package com.app.library.models;
 import java.time.LocalDate;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
 
 /**
  * Model: BorrowingRecord
@@ -13,9 +15,16 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  */
 public class BorrowingRecord {
 
+    // Value of bookId/memberId while the reference is not set
+    public static final long NO_ID = Long.MIN_VALUE;
+
     private Long id;
 
-    // The actual Book and Member objects involved in this record
+    // Ids of the book and member, bound straight from `bookId`/`memberId` without building objects
+    private long bookId = NO_ID;
+    private long memberId = NO_ID;
+
+    // The actual Book and Member objects involved in this record (linked by the service)
     private Book book;
     private Member member;
 
@@ -26,8 +35,8 @@ public class BorrowingRecord {
     public BorrowingRecord() {}
 
     public BorrowingRecord(Book book, Member member, LocalDate borrowDate, LocalDate dueDate) {
-        this.book = book;
-        this.member = member;
+        setBook(book);
+        setMember(member);
         this.borrowDate = borrowDate;
         this.dueDate = dueDate;
     }
@@ -46,6 +55,7 @@ public class BorrowingRecord {
 
     public void setBook(Book book) {
         this.book = book;
+        this.bookId = book != null && book.getId() != null ? book.getId() : NO_ID;
     }
 
     public Member getMember() {
@@ -54,6 +64,7 @@ public class BorrowingRecord {
 
     public void setMember(Member member) {
         this.member = member;
+        this.memberId = member != null && member.getId() != null ? member.getId() : NO_ID;
     }
 
     public LocalDate getBorrowDate() {
@@ -80,41 +91,50 @@ public class BorrowingRecord {
         this.dueDate = dueDate;
     }
 
-    // JSON-friendly accessors so clients can send {"bookId":1, "memberId":2}
+    // JSON-friendly accessors so clients can send {"bookId":1, "memberId":2}; a null id leaves the reference unset
     @JsonProperty("bookId")
-    public void setBookId(Long bookId) {
-        if (bookId != null) {
-            Book b = new Book();
-            b.setId(bookId);
-            this.book = b;
+    @JsonSetter(nulls = Nulls.SKIP)
+    public void setBookId(long bookId) {
+        this.bookId = bookId;
+        if (book != null && (book.getId() == null || book.getId() != bookId)) {
+            book = null;
         }
     }
 
     @JsonProperty("memberId")
-    public void setMemberId(Long memberId) {
-        if (memberId != null) {
-            Member m = new Member();
-            m.setId(memberId);
-            this.member = m;
+    @JsonSetter(nulls = Nulls.SKIP)
+    public void setMemberId(long memberId) {
+        this.memberId = memberId;
+        if (member != null && (member.getId() == null || member.getId() != memberId)) {
+            member = null;
         }
     }
 
     @JsonProperty("bookId")
     public Long getBookId() {
-        return (book != null) ? book.getId() : null;
+        return bookId != NO_ID ? bookId : null;
     }
 
     @JsonProperty("memberId")
     public Long getMemberId() {
-        return (member != null) ? member.getId() : null;
+        return memberId != NO_ID ? memberId : null;
+    }
+
+    // Primitive ids for the service, NO_ID when not set (not JSON properties)
+    public long bookId() {
+        return bookId;
+    }
+
+    public long memberId() {
+        return memberId;
     }
 
     @Override
     public String toString() {
         return "BorrowingRecord{" +
                 "id=" + id +
-                ", book=" + (book != null ? book.getId() : null) +
-                ", member=" + (member != null ? member.getId() : null) +
+                ", book=" + getBookId() +
+                ", member=" + getMemberId() +
                 ", borrowDate=" + borrowDate +
                 ", returnDate=" + returnDate +
                 ", dueDate=" + dueDate +
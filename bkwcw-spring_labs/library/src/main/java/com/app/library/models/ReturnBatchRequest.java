@@ -0,0 +1,10 @@
+package com.app.library.models;
+
+import java.util.List;
+
+/**
+ * Request body of PUT /api/return/batch: the borrowing records being returned together,
+ * e.g. {"recordIds": [12, 13, 20]}.
+ */
+public record ReturnBatchRequest(List<Long> recordIds) {
+}
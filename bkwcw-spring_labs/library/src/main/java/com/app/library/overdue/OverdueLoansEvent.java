@@ -0,0 +1,13 @@
+package com.app.library.overdue;
+
+import java.util.List;
+
+import com.app.library.models.BorrowingRecord;
+
+/**
+ * Application event published by the {@link OverdueSweeper}: one batch of loans that became
+ * overdue since the previous sweep. Delivery is at-least-once: after a crash a loan can be
+ * reported again, so listeners should be idempotent per record id.
+ */
+public record OverdueLoansEvent(List<BorrowingRecord> records) {
+}
@@ -0,0 +1,88 @@
+package com.app.library.overdue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.app.library.models.BorrowingRecord;
+import com.app.library.services.LibraryService;
+
+/**
+ * Responsibility: periodically find loans that became overdue since the last sweep and publish
+ * them as {@link OverdueLoansEvent}s in batches. Each sweep only walks the due-date buckets
+ * between the previous sweep day and today, so returned loans are never touched.
+ * The day swept up to is kept by the LibraryService, logged and snapshotted with the rest of the
+ * state, so a restart continues where the last recorded sweep ended. It is recorded after the
+ * sweep's events are published: a crash in between reports that sweep's loans again on the next
+ * start, so delivery is at-least-once and listeners have to tolerate a loan they already saw.
+ */
+@Component
+public class OverdueSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueSweeper.class);
+
+    private final LibraryService libraryService;
+    private final ApplicationEventPublisher publisher;
+    private final int batchSize;
+
+    // Serializes sweeps (scheduled and manual). A lock rather than `synchronized`, since listeners
+    // run inside the sweep and a virtual thread blocking in a monitor would pin its carrier.
+    private final ReentrantLock sweepLock = new ReentrantLock();
+
+    public OverdueSweeper(LibraryService libraryService, ApplicationEventPublisher publisher,
+            @Value("${library.overdue.batch-size:500}") int batchSize) {
+        this.libraryService = libraryService;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${library.overdue.sweep-interval-ms:60000}")
+    public void sweep() {
+        sweep(LocalDate.now());
+    }
+
+    // Report loans due before `today` that previous sweeps have not covered; returns how many
+    public int sweep(LocalDate today) {
+        sweepLock.lock();
+        try {
+            LocalDate sweptUntil = libraryService.getOverdueReportedUntil();
+            LocalDate from = sweptUntil != null ? sweptUntil : LocalDate.MIN;
+            if (!from.isBefore(today)) {
+                return 0;
+            }
+            List<BorrowingRecord> batch = new ArrayList<>(batchSize);
+            int[] total = new int[1];
+            libraryService.forEachOpenLoanDueBetween(from, today, record -> {
+                batch.add(record);
+                if (batch.size() == batchSize) {
+                    total[0] += publish(batch);
+                }
+            });
+            total[0] += publish(batch);
+            libraryService.setOverdueReportedUntil(today);
+            if (total[0] > 0) {
+                logger.info("Overdue sweep found {} newly overdue loans", total[0]);
+            }
+            return total[0];
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private int publish(List<BorrowingRecord> batch) {
+        int n = batch.size();
+        if (n > 0) {
+            publisher.publishEvent(new OverdueLoansEvent(List.copyOf(batch)));
+            batch.clear();
+        }
+        return n;
+    }
+}
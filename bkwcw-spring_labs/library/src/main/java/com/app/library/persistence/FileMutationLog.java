@@ -0,0 +1,362 @@
+package com.app.library.persistence;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistence: FileMutationLog
+ * Responsibility: append-only write-ahead log in a directory of segment files
+ * (`wal-<first seq>.log`, one `<seq>\t<json>` line per entry).
+ *
+ * Appending only encodes the entry and queues it. A single writer thread takes everything queued,
+ * writes it with one buffered write and makes it durable with one fsync (group commit): it syncs
+ * as soon as `groupCommitSize` entries are waiting, or after `groupCommitInterval` otherwise.
+ * When `waitForSync` is set, {@link #awaitDurable(long)} blocks until the caller's entry is synced.
+ *
+ * {@link #rollover()} starts a new segment so that, once a snapshot covers everything before
+ * it, the older segments can be deleted with {@link #deleteSegmentsThrough(long)}.
+ */
+public class FileMutationLog implements MutationLog, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileMutationLog.class);
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    // Appenders block when this many entries are waiting for the writer
+    private static final int MAX_PENDING = 65_536;
+
+    private final Path directory;
+    private final int groupCommitSize;
+    private final long groupCommitIntervalNanos;
+    private final boolean waitForSync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Condition progress = lock.newCondition();
+    private final ReentrantLock rolloverLock = new ReentrantLock();
+
+    // Guarded by `lock`
+    private ArrayList<byte[]> pending = new ArrayList<>();
+    private long lastAppended;
+    private long lastDurable;
+    private long rollAfter = -1;
+    private boolean closed;
+    private IOException failure;
+
+    // Owned by the writer thread
+    private FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+    private final Thread writer;
+
+    // Continue the log after `lastSeq`, the last sequence number found by replay()
+    public FileMutationLog(Path directory, long lastSeq, int groupCommitSize, long groupCommitIntervalMillis,
+            boolean waitForSync) throws IOException {
+        this.directory = directory;
+        this.groupCommitSize = Math.max(1, groupCommitSize);
+        this.groupCommitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(groupCommitIntervalMillis);
+        this.waitForSync = waitForSync;
+        this.lastAppended = lastSeq;
+        this.lastDurable = lastSeq;
+        Files.createDirectories(directory);
+        this.channel = openSegment(lastSeq + 1);
+        this.writer = Thread.ofPlatform().daemon().name("mutation-log-writer").start(this::writeLoop);
+    }
+
+    @Override
+    public long append(Mutation mutation) {
+        byte[] json = MutationCodec.encode(mutation);
+        lock.lock();
+        try {
+            while (pending.size() >= MAX_PENDING && !closed && failure == null) {
+                progress.awaitUninterruptibly();
+            }
+            checkUsable();
+            pending.add(json);
+            if (pending.size() == 1 || pending.size() == groupCommitSize) {
+                workAvailable.signal();
+            }
+            return ++lastAppended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitDurable(long seq) {
+        if (!waitForSync) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (lastDurable < seq && failure == null) {
+                progress.awaitUninterruptibly();
+            }
+            if (lastDurable < seq) {
+                throw new UncheckedIOException("Mutation log write failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLastDurableSeq() {
+        lock.lock();
+        try {
+            return lastDurable;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the current segment after the last entry appended so far and start a new one.
+     * Returns that entry's sequence number: every change up to it is already applied in memory,
+     * so a snapshot taken from now on covers it.
+     */
+    public long rollover() {
+        rolloverLock.lock();
+        lock.lock();
+        try {
+            checkUsable();
+            long cut = lastAppended;
+            rollAfter = cut;
+            workAvailable.signal();
+            while (rollAfter >= 0 && failure == null) {
+                progress.awaitUninterruptibly();
+            }
+            checkUsable();
+            return cut;
+        } finally {
+            lock.unlock();
+            rolloverLock.unlock();
+        }
+    }
+
+    // Delete the segments that only hold entries up to `seq` (i.e. those started before the last rollover)
+    public void deleteSegmentsThrough(long seq) throws IOException {
+        for (Path segment : segments(directory)) {
+            if (startSeq(segment) <= seq) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    // Write out everything appended so far, then stop the writer
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Apply, in order, every entry with a sequence number greater than `afterSeq` found in the
+     * segments of `directory`. A torn entry (crash during a write) ends its segment.
+     * Returns the highest sequence number seen, or `afterSeq` if there is none.
+     */
+    public static long replay(Path directory, long afterSeq, Consumer<Mutation> apply) throws IOException {
+        long last = afterSeq;
+        if (!Files.isDirectory(directory)) {
+            return last;
+        }
+        for (Path segment : segments(directory)) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    long seq;
+                    Mutation mutation;
+                    try {
+                        int tab = line.indexOf('\t');
+                        seq = Long.parseLong(line, 0, tab, 10);
+                        mutation = MutationCodec.decode(line.substring(tab + 1));
+                    } catch (IOException | RuntimeException e) {
+                        logger.warn("Ignoring torn entry at the end of {}", segment.getFileName());
+                        break;
+                    }
+                    if (seq > last) {
+                        apply.accept(mutation);
+                        last = seq;
+                    }
+                }
+            }
+        }
+        return last;
+    }
+
+    private void checkUsable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Mutation log write failed", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Mutation log is closed");
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            List<byte[]> batch;
+            long firstSeq;
+            long roll;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && rollAfter < 0 && !closed) {
+                    workAvailable.awaitUninterruptibly();
+                }
+                // group commit window: give other appenders a chance to join this fsync
+                long remaining = groupCommitIntervalNanos;
+                while (pending.size() < groupCommitSize && remaining > 0 && rollAfter < 0 && !closed) {
+                    try {
+                        remaining = workAvailable.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        remaining = 0;
+                    }
+                }
+                if (pending.isEmpty() && rollAfter < 0 && closed) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                firstSeq = lastDurable + 1;
+                roll = rollAfter;
+                progress.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                write(batch, firstSeq, roll);
+            } catch (IOException e) {
+                logger.error("Mutation log write failed", e);
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    lastDurable = firstSeq + batch.size() - 1;
+                    if (roll >= 0) {
+                        rollAfter = -1;
+                    }
+                }
+                progress.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Write entries firstSeq.. in order, switching segment right after entry `roll` (if >= 0), then fsync
+    private void write(List<byte[]> batch, long firstSeq, long roll) throws IOException {
+        long seq = firstSeq;
+        for (byte[] json : batch) {
+            if (seq == roll + 1) {
+                rollSegment(seq);
+            }
+            put(Long.toString(seq).getBytes(StandardCharsets.US_ASCII));
+            put((byte) '\t');
+            put(json);
+            put((byte) '\n');
+            seq++;
+        }
+        if (roll >= 0 && seq == roll + 1) {
+            rollSegment(seq);
+        }
+        flushBuffer();
+        channel.force(false);
+    }
+
+    private void rollSegment(long nextSeq) throws IOException {
+        flushBuffer();
+        channel.force(false);
+        channel.close();
+        channel = openSegment(nextSeq);
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.remaining()) {
+            flushBuffer();
+            if (bytes.length > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(bytes));
+                return;
+            }
+        }
+        buffer.put(bytes);
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flushBuffer();
+        }
+        buffer.put(b);
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+
+    // A segment with this start can only hold a torn entry from a previous crash, so it is truncated
+    private FileChannel openSegment(long startSeq) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, startSeq, SEGMENT_SUFFIX));
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted(Comparator.comparingLong(FileMutationLog::startSeq)).toList();
+        }
+    }
+
+    private static long startSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
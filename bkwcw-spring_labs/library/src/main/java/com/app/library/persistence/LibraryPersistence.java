@@ -0,0 +1,102 @@
+package com.app.library.persistence;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.app.library.services.LibraryService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Responsibility: make the library state survive restarts when `library.persistence.enabled=true`.
+ * On startup the latest snapshot is loaded and the log entries after it are replayed, then the
+ * service starts logging every mutation. A snapshot is taken periodically (and on shutdown) so
+ * the log segments it covers can be deleted and recovery stays short.
+ */
+@Component
+@ConditionalOnProperty(name = "library.persistence.enabled", havingValue = "true")
+public class LibraryPersistence {
+
+    private static final Logger logger = LoggerFactory.getLogger(LibraryPersistence.class);
+
+    private final LibraryService libraryService;
+    private final Path directory;
+    private final int groupCommitSize;
+    private final long groupCommitIntervalMs;
+    private final boolean waitForSync;
+
+    // One snapshot at a time. Not `synchronized`: the snapshot writes files, and a virtual thread
+    // (admin request, scheduler in virtual-thread mode) must not hold a monitor while it blocks
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    private FileMutationLog log;
+
+    public LibraryPersistence(LibraryService libraryService,
+            @Value("${library.persistence.directory:data}") String directory,
+            @Value("${library.persistence.group-commit-size:256}") int groupCommitSize,
+            @Value("${library.persistence.group-commit-interval-ms:2}") long groupCommitIntervalMs,
+            @Value("${library.persistence.wait-for-sync:true}") boolean waitForSync) {
+        this.libraryService = libraryService;
+        this.directory = Path.of(directory);
+        this.groupCommitSize = groupCommitSize;
+        this.groupCommitIntervalMs = groupCommitIntervalMs;
+        this.waitForSync = waitForSync;
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        long start = System.nanoTime();
+        SnapshotStore.Header header = SnapshotStore.load(directory, libraryService);
+        long snapshotSeq = header != null ? header.seq() : 0;
+        long lastSeq = FileMutationLog.replay(directory, snapshotSeq, libraryService::applyMutation);
+        log = new FileMutationLog(directory, lastSeq, groupCommitSize, groupCommitIntervalMs, waitForSync);
+        libraryService.setMutationLog(log);
+        logger.info("Recovered library state from {} (snapshot at {}, {} log entries replayed) in {} ms",
+                directory, snapshotSeq, lastSeq - snapshotSeq, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(initialDelayString = "${library.persistence.snapshot-interval-ms:300000}",
+            fixedDelayString = "${library.persistence.snapshot-interval-ms:300000}")
+    public void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            logger.error("Snapshot failed; keeping the existing log segments", e);
+        }
+    }
+
+    // Write a snapshot and delete the log segments it makes redundant; also used by POST /api/admin/snapshot
+    public SnapshotStore.Header snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            long start = System.nanoTime();
+            long seq = log.rollover();
+            SnapshotStore.Header header = SnapshotStore.write(directory, seq, libraryService);
+            log.deleteSegmentsThrough(seq);
+            logger.info("Snapshot at log position {} ({} books, {} members, {} records) written in {} ms", seq,
+                    header.books(), header.members(), header.records(), (System.nanoTime() - start) / 1_000_000);
+            return header;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        try {
+            snapshot();
+        } finally {
+            libraryService.setMutationLog(MutationLog.NONE);
+            log.close();
+        }
+    }
+}
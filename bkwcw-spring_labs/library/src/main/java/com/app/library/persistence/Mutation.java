@@ -0,0 +1,69 @@
+package com.app.library.persistence;
+
+import java.time.LocalDate;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One logged change to the library state. Entries carry the resulting state (the whole book,
+ * the copies left after a borrow, ...) rather than the request, so replaying an entry twice or
+ * on top of a newer snapshot gives the same result.
+ * Only the fields relevant to the {@link Type} are set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Mutation(Type type, Book book, Member member, Long id, Long bookId, Long memberId,
+        LocalDate borrowDate, LocalDate dueDate, LocalDate returnDate, Integer copies) {
+
+    public enum Type {
+        BOOK_PUT,
+        BOOK_DELETE,
+        MEMBER_PUT,
+        MEMBER_DELETE,
+        // a new loan; `copies` is the book's availableCopies after the borrow
+        BORROW,
+        // a loan closed; `copies` is the book's availableCopies after the return
+        RETURN,
+        // a full record as stored in snapshots, applied without touching inventory
+        RECORD_PUT,
+        // loans due before `dueDate` have been reported as overdue
+        OVERDUE_SWEPT
+    }
+
+    public static Mutation bookPut(Book book) {
+        return new Mutation(Type.BOOK_PUT, book, null, null, null, null, null, null, null, null);
+    }
+
+    public static Mutation bookDelete(long id) {
+        return new Mutation(Type.BOOK_DELETE, null, null, id, null, null, null, null, null, null);
+    }
+
+    public static Mutation memberPut(Member member) {
+        return new Mutation(Type.MEMBER_PUT, null, member, null, null, null, null, null, null, null);
+    }
+
+    public static Mutation memberDelete(long id) {
+        return new Mutation(Type.MEMBER_DELETE, null, null, id, null, null, null, null, null, null);
+    }
+
+    public static Mutation borrow(BorrowingRecord r, int copiesAfter) {
+        return new Mutation(Type.BORROW, null, null, r.getId(), r.getBookId(), r.getMemberId(),
+                r.getBorrowDate(), r.getDueDate(), null, copiesAfter);
+    }
+
+    public static Mutation returned(BorrowingRecord r, Integer copiesAfter) {
+        return new Mutation(Type.RETURN, null, null, r.getId(), r.getBookId(), null,
+                null, null, r.getReturnDate(), copiesAfter);
+    }
+
+    public static Mutation recordPut(BorrowingRecord r) {
+        return new Mutation(Type.RECORD_PUT, null, null, r.getId(), r.getBookId(), r.getMemberId(),
+                r.getBorrowDate(), r.getDueDate(), r.getReturnDate(), null);
+    }
+
+    public static Mutation overdueSwept(LocalDate until) {
+        return new Mutation(Type.OVERDUE_SWEPT, null, null, null, null, null, null, until, null, null);
+    }
+}
@@ -0,0 +1,41 @@
+package com.app.library.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * JSON encoding of {@link Mutation}s for log segments, snapshots and replication.
+ * A stored line is `<seq>\t<json>\n`.
+ */
+public final class MutationCodec {
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private MutationCodec() {
+    }
+
+    public static byte[] encode(Mutation mutation) {
+        try {
+            return MAPPER.writeValueAsBytes(mutation);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Mutation decode(String json) throws IOException {
+        return MAPPER.readValue(json, Mutation.class);
+    }
+
+    static ObjectMapper mapper() {
+        return MAPPER;
+    }
+}
@@ -0,0 +1,27 @@
+package com.app.library.persistence;
+
+/**
+ * Responsibility: ordered, append-only record of every state change made by the service.
+ * The service appends while it still holds the lock of the entity it changed (so entries for the
+ * same entity are in the order they were applied) and waits for durability after releasing it.
+ */
+public interface MutationLog {
+
+    // Used when persistence is disabled: nothing is recorded
+    MutationLog NONE = new MutationLog() {
+        @Override
+        public long append(Mutation mutation) {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long seq) {
+        }
+    };
+
+    // Record a mutation and return its sequence number; must be cheap, the caller holds a lock
+    long append(Mutation mutation);
+
+    // Block until the entry with this sequence number (and all before it) is durable
+    void awaitDurable(long seq);
+}
@@ -0,0 +1,319 @@
+package com.app.library.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.app.library.services.LibraryService;
+
+/**
+ * Persistence: SnapshotStore
+ * Responsibility: write and load a compact binary image of the whole library state.
+ *
+ * Layout (big-endian): a fixed {@link #HEADER_SIZE}-byte header, then one section of fixed-width
+ * entries per entity type, then a string pool. Strings are stored once in the pool and referenced
+ * by index, so repeated authors, genres, ... cost 4 bytes per entity.
+ *
+ *   book   (28 bytes): id, title, author, publicationYear, genre, availableCopies
+ *   member (28 bytes): id, name, email, phoneNumber, startDate, endDate
+ *   record (36 bytes): id, bookId, memberId, borrowDate, dueDate, returnDate
+ *
+ * ids are longs ({@link BorrowingRecord#NO_ID} for null), strings are pool indexes (-1 for null), dates
+ * are epoch days ({@link #NO_DATE} for null).
+ * The header ends with the overdue sweep watermark as epoch day + 1, so the zeroed spare header
+ * bytes of older snapshots read as "no sweep yet".
+ * The file is loaded through memory-mapped sections; books are rebuilt in file (id) order, members and
+ * records in parallel, and a string is decoded the first time an entity references it. Snapshots are
+ * written to a temporary file, synced and atomically renamed, so a crash leaves either the old or the
+ * new snapshot.
+ */
+public final class SnapshotStore {
+
+    public static final String FILE_NAME = "snapshot.bin";
+
+    private static final long MAGIC = 0x4C49425241525931L; // "LIBRARY1"
+    private static final int HEADER_SIZE = 128;
+    private static final int BOOK_SIZE = 28;
+    private static final int MEMBER_SIZE = 28;
+    private static final int RECORD_SIZE = 36;
+    private static final int NO_STRING = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    // `seq`: every log entry up to it is reflected in the snapshot
+    public record Header(long seq, long nextBookId, long nextMemberId, long nextRecordId,
+            long books, long members, long records) {
+    }
+
+    private SnapshotStore() {
+    }
+
+    /**
+     * Write the current state as covering log entries up to `seq`. The state is read while the
+     * service keeps running; entries after `seq` that are already visible get replayed on top,
+     * which is harmless since applying a mutation is idempotent.
+     */
+    public static Header write(Path directory, long seq, LibraryService service) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(FILE_NAME);
+        Path tmp = directory.resolve(FILE_NAME + ".tmp");
+        StringPool pool = new StringPool();
+        long[] counts = new long[3];
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            try {
+                service.forEachBook(b -> {
+                    writeBook(out, b, pool);
+                    counts[0]++;
+                });
+                service.forEachMember(m -> {
+                    writeMember(out, m, pool);
+                    counts[1]++;
+                });
+                service.forEachBorrowingRecord(r -> {
+                    writeRecord(out, r);
+                    counts[2]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            pool.writeTo(out);
+            out.flush();
+
+            Header header = new Header(seq, service.getNextBookId(), service.getNextMemberId(),
+                    service.getNextRecordId(), counts[0], counts[1], counts[2]);
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+            head.putLong(MAGIC).putLong(header.seq())
+                    .putLong(header.nextBookId()).putLong(header.nextMemberId()).putLong(header.nextRecordId())
+                    .putLong(header.books()).putLong(header.members()).putLong(header.records())
+                    .putInt(pool.size());
+            LocalDate reportedUntil = service.getOverdueReportedUntil();
+            head.putInt(reportedUntil != null ? Math.toIntExact(reportedUntil.toEpochDay() + 1) : 0);
+            head.clear();
+            channel.write(head, 0);
+            channel.force(true);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return header;
+        }
+    }
+
+    // Load the snapshot into an empty service; returns its header, or null when there is none
+    public static Header load(Path directory, LibraryService service) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (head.getLong() != MAGIC) {
+                throw new IOException("Not a library snapshot: " + file);
+            }
+            Header header = new Header(head.getLong(), head.getLong(), head.getLong(), head.getLong(),
+                    head.getLong(), head.getLong(), head.getLong());
+            int strings = head.getInt();
+            int reportedUntil = head.getInt();
+
+            long booksAt = HEADER_SIZE;
+            long membersAt = booksAt + header.books() * BOOK_SIZE;
+            long recordsAt = membersAt + header.members() * MEMBER_SIZE;
+            long poolAt = recordsAt + header.records() * RECORD_SIZE;
+            StringTable table = new StringTable(channel, poolAt, strings);
+
+            // books and members first, so records link to the stored entities. Books are written in id
+            // order and loaded serially in that order, so an off-heap store appends its rows in id order
+            // and keeps paging by binary search over them.
+            MappedByteBuffer books = map(channel, booksAt, header.books(), BOOK_SIZE);
+            MappedByteBuffer members = map(channel, membersAt, header.members(), MEMBER_SIZE);
+            for (int i = 0; i < header.books(); i++) {
+                service.applyMutation(Mutation.bookPut(readBook(books, i * BOOK_SIZE, table)));
+            }
+            IntStream.range(0, (int) header.members()).parallel()
+                    .forEach(i -> service.applyMutation(Mutation.memberPut(readMember(members, i * MEMBER_SIZE, table))));
+            MappedByteBuffer records = map(channel, recordsAt, header.records(), RECORD_SIZE);
+            IntStream.range(0, (int) header.records()).parallel()
+                    .forEach(i -> service.applyMutation(readRecord(records, i * RECORD_SIZE)));
+
+            service.reserveIdsBelow(header.nextBookId(), header.nextMemberId(), header.nextRecordId());
+            if (reportedUntil != 0) {
+                service.applyMutation(Mutation.overdueSwept(LocalDate.ofEpochDay(reportedUntil - 1L)));
+            }
+            return header;
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long at, long count, int width) throws IOException {
+        long length = count * width;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot section too large to map: " + count + " entries");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, at, length);
+    }
+
+    // ==================== Entries ====================
+
+    private static void writeBook(DataOutputStream out, Book b, StringPool pool) {
+        try {
+            out.writeLong(b.getId());
+            out.writeInt(pool.ref(b.getTitle()));
+            out.writeInt(pool.ref(b.getAuthor()));
+            out.writeInt(b.getPublicationYear());
+            out.writeInt(pool.ref(b.getGenre()));
+            out.writeInt(b.getAvailableCopies());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Book readBook(ByteBuffer in, int at, StringTable table) {
+        Book b = new Book(table.get(in.getInt(at + 8)), table.get(in.getInt(at + 12)), in.getInt(at + 16),
+                table.get(in.getInt(at + 20)), in.getInt(at + 24));
+        b.setId(in.getLong(at));
+        return b;
+    }
+
+    private static void writeMember(DataOutputStream out, Member m, StringPool pool) {
+        try {
+            out.writeLong(m.getId());
+            out.writeInt(pool.ref(m.getName()));
+            out.writeInt(pool.ref(m.getEmail()));
+            out.writeInt(pool.ref(m.getPhoneNumber()));
+            out.writeInt(day(m.getStartDate()));
+            out.writeInt(day(m.getEndDate()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Member readMember(ByteBuffer in, int at, StringTable table) {
+        Member m = new Member();
+        m.setId(in.getLong(at));
+        m.setName(table.get(in.getInt(at + 8)));
+        m.setEmail(table.get(in.getInt(at + 12)));
+        m.setPhoneNumber(table.get(in.getInt(at + 16)));
+        m.setStartDate(date(in.getInt(at + 20)));
+        m.setEndDate(date(in.getInt(at + 24)));
+        return m;
+    }
+
+    private static void writeRecord(DataOutputStream out, BorrowingRecord r) {
+        try {
+            out.writeLong(r.getId());
+            out.writeLong(r.getBookId() != null ? r.getBookId() : BorrowingRecord.NO_ID);
+            out.writeLong(r.getMemberId() != null ? r.getMemberId() : BorrowingRecord.NO_ID);
+            out.writeInt(day(r.getBorrowDate()));
+            out.writeInt(day(r.getDueDate()));
+            out.writeInt(day(r.getReturnDate()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Mutation readRecord(ByteBuffer in, int at) {
+        return new Mutation(Mutation.Type.RECORD_PUT, null, null, in.getLong(at), id(in.getLong(at + 8)),
+                id(in.getLong(at + 16)), date(in.getInt(at + 24)), date(in.getInt(at + 28)), date(in.getInt(at + 32)),
+                null);
+    }
+
+    private static Long id(long id) {
+        return id != BorrowingRecord.NO_ID ? id : null;
+    }
+
+    private static int day(LocalDate date) {
+        return date != null ? Math.toIntExact(date.toEpochDay()) : NO_DATE;
+    }
+
+    private static LocalDate date(int day) {
+        return day != NO_DATE ? LocalDate.ofEpochDay(day) : null;
+    }
+
+    // ==================== String pool ====================
+
+    // Collects distinct strings while entities are written; written after them as offsets + UTF-8 bytes
+    private static final class StringPool {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+
+        int ref(String s) {
+            if (s == null) {
+                return NO_STRING;
+            }
+            return refs.computeIfAbsent(s, k -> {
+                values.add(k.getBytes(StandardCharsets.UTF_8));
+                return values.size() - 1;
+            });
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        // `size + 1` long offsets relative to the end of the offset table, then the bytes
+        void writeTo(DataOutputStream out) throws IOException {
+            long offset = 0;
+            out.writeLong(offset);
+            for (byte[] v : values) {
+                offset += v.length;
+                out.writeLong(offset);
+            }
+            for (byte[] v : values) {
+                out.write(v);
+            }
+        }
+    }
+
+    // Mapped view of the pool; each string is decoded on first use and then shared by every entity
+    private static final class StringTable {
+        private final MappedByteBuffer offsets;
+        private final MappedByteBuffer bytes;
+        private final String[] decoded;
+
+        StringTable(FileChannel channel, long at, int count) throws IOException {
+            long tableLength = (count + 1L) * Long.BYTES;
+            this.offsets = channel.map(FileChannel.MapMode.READ_ONLY, at, tableLength);
+            long bytesLength = offsets.getLong(count * Long.BYTES);
+            if (bytesLength > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot string pool too large to map");
+            }
+            this.bytes = channel.map(FileChannel.MapMode.READ_ONLY, at + tableLength, bytesLength);
+            this.decoded = new String[count];
+        }
+
+        // Races only decode the same string twice; Strings are safely published
+        String get(int ref) {
+            if (ref == NO_STRING) {
+                return null;
+            }
+            String s = decoded[ref];
+            if (s == null) {
+                int from = (int) offsets.getLong(ref * Long.BYTES);
+                int to = (int) offsets.getLong((ref + 1) * Long.BYTES);
+                byte[] utf8 = new byte[to - from];
+                bytes.get(from, utf8);
+                s = new String(utf8, StandardCharsets.UTF_8);
+                decoded[ref] = s;
+            }
+            return s;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.app.library.replication;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Responsibility: keep a follower read-only. Requests that would change state (anything but
+ * GET, HEAD and OPTIONS under /api/) are redirected to the leader with a 307, which clients
+ * repeat there with the same method and body; reads are served locally.
+ */
+@Component
+@ConditionalOnProperty(name = "library.replication.role", havingValue = "follower")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class FollowerWriteFilter extends OncePerRequestFilter {
+
+    private final String leaderUrl;
+
+    public FollowerWriteFilter(@Value("${library.replication.leader-url}") String leaderUrl) {
+        this.leaderUrl = leaderUrl.endsWith("/") ? leaderUrl.substring(0, leaderUrl.length() - 1) : leaderUrl;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        if (!request.getRequestURI().startsWith("/api/") || method.equals("GET") || method.equals("HEAD")
+                || method.equals("OPTIONS")) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String query = request.getQueryString();
+        response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+        response.setHeader(HttpHeaders.LOCATION,
+                leaderUrl + request.getRequestURI() + (query == null ? "" : "?" + query));
+    }
+}
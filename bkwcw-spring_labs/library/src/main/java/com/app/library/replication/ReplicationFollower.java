@@ -0,0 +1,242 @@
+package com.app.library.replication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.app.library.persistence.SnapshotStore;
+import com.app.library.services.LibraryService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Responsibility: keep this node a read-only copy of the leader when `library.replication.role=follower`.
+ * A background thread loads a snapshot from the leader, then long-polls its log and applies each
+ * batch of entries in order. Applying is idempotent, so entries the snapshot already reflects are
+ * harmless. The follower keeps no log of its own: when it cannot continue (the leader restarted or it
+ * fell out of the leader's buffer) it turns stale and has to be restarted to bootstrap again.
+ * Meters:
+ * - `library.replication.seq`: last sequence number applied
+ * - `library.replication.lag.entries`: entries the leader has appended that are not applied yet
+ * - `library.replication.lag.time`: age of the last applied entry while behind, 0 when caught up
+ *   (leader timestamps against this node's clock, so it is only exact on synchronized clocks)
+ * The health indicator is down until the snapshot is loaded and once stale, to keep the node out of
+ * the load balancer.
+ */
+@Component
+@ConditionalOnProperty(name = "library.replication.role", havingValue = "follower")
+public class ReplicationFollower implements HealthIndicator {
+
+    public enum State { BOOTSTRAPPING, FOLLOWING, STALE, STOPPED }
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationFollower.class);
+
+    private static final long RETRY_MS = 1000;
+
+    private final LibraryService libraryService;
+    private final URI leader;
+    private final int batchSize;
+    private final long pollWaitMs;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5)).build();
+
+    private volatile State state = State.BOOTSTRAPPING;
+    private volatile long epoch;
+    private volatile long appliedSeq;
+    private volatile long appliedTimestamp;
+    private volatile long leaderSeq;
+    private Thread thread;
+
+    @Autowired
+    public ReplicationFollower(LibraryService libraryService, MeterRegistry registry,
+            @Value("${library.replication.leader-url}") String leaderUrl,
+            @Value("${library.replication.batch-size:1000}") int batchSize,
+            @Value("${library.replication.poll-wait-ms:1000}") long pollWaitMs,
+            @Value("${library.persistence.enabled:false}") boolean persistence) {
+        if (persistence) {
+            throw new IllegalStateException("A replication follower takes its state from the leader; "
+                    + "set library.persistence.enabled=false");
+        }
+        this.libraryService = libraryService;
+        this.leader = URI.create(leaderUrl.endsWith("/") ? leaderUrl : leaderUrl + "/");
+        this.batchSize = batchSize;
+        this.pollWaitMs = pollWaitMs;
+        Gauge.builder("library.replication.seq", this, ReplicationFollower::getAppliedSeq)
+                .description("Last mutation log sequence number applied by this follower").register(registry);
+        Gauge.builder("library.replication.lag.entries", this, ReplicationFollower::getLagEntries)
+                .description("Leader log entries not yet applied by this follower").register(registry);
+        Gauge.builder("library.replication.lag.time", this, ReplicationFollower::getLagSeconds)
+                .description("Age of the last applied leader entry while the follower is behind")
+                .baseUnit("seconds").register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        thread = Thread.ofPlatform().daemon().name("replication-follower").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        state = State.STOPPED;
+        thread.interrupt();
+        thread.join(RETRY_MS);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getAppliedSeq() {
+        return appliedSeq;
+    }
+
+    public long getLagEntries() {
+        return Math.max(0, leaderSeq - appliedSeq);
+    }
+
+    public double getLagSeconds() {
+        if (leaderSeq <= appliedSeq || appliedTimestamp == 0) {
+            return 0;
+        }
+        return Math.max(0, System.currentTimeMillis() - appliedTimestamp) / 1000.0;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = state == State.FOLLOWING ? Health.up() : Health.down();
+        return health.withDetail("state", state)
+                .withDetail("leader", leader.toString())
+                .withDetail("appliedSeq", appliedSeq)
+                .withDetail("lagEntries", getLagEntries())
+                .build();
+    }
+
+    private void run() {
+        while (state == State.BOOTSTRAPPING || state == State.FOLLOWING) {
+            try {
+                if (state == State.BOOTSTRAPPING) {
+                    bootstrap();
+                } else {
+                    poll();
+                }
+            } catch (IOException e) {
+                if (state == State.STOPPED) {
+                    return;
+                }
+                logger.warn("Replication from {} failed, retrying in {} ms: {}", leader, RETRY_MS, e.toString());
+                try {
+                    Thread.sleep(RETRY_MS);
+                } catch (InterruptedException stopped) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // a snapshot or entry that could not be applied leaves the state half-updated
+                logger.error("Replication from {} stopped; restart this follower to bootstrap again", leader, e);
+                state = State.STALE;
+            }
+        }
+    }
+
+    private void bootstrap() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Path directory = Files.createTempDirectory("library-replica");
+        Path file = directory.resolve(SnapshotStore.FILE_NAME);
+        try {
+            HttpRequest request = HttpRequest.newBuilder(leader.resolve("api/replication/snapshot")).GET().build();
+            HttpResponse<Path> response = client.send(request, HttpResponse.BodyHandlers.ofFile(file));
+            if (response.statusCode() != 200) {
+                throw new IOException("Snapshot request answered " + response.statusCode());
+            }
+            long leaderEpoch = header(response, ReplicationLog.EPOCH_HEADER);
+            // a snapshot that fails to load halfway leaves the service non-empty: no retry from here
+            SnapshotStore.Header header;
+            try {
+                header = SnapshotStore.load(directory, libraryService);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not load the leader's snapshot", e);
+            }
+            epoch = leaderEpoch;
+            appliedSeq = header.seq();
+            leaderSeq = Math.max(leaderSeq, header.seq());
+            state = State.FOLLOWING;
+            logger.info("Bootstrapped from {} at log position {} ({} books, {} members, {} records) in {} ms",
+                    leader, header.seq(), header.books(), header.members(), header.records(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    // Fetch and apply the next batch; returns after `pollWaitMs` when the leader has nothing new
+    private void poll() throws IOException, InterruptedException {
+        URI uri = leader.resolve("api/replication/log?after=" + appliedSeq + "&epoch=" + epoch
+                + "&limit=" + batchSize + "&waitMs=" + pollWaitMs);
+        HttpResponse<Stream<String>> response = client.send(HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(pollWaitMs + 30_000)).GET().build(), HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() == 410) {
+                logger.error("Leader {} can no longer continue from log position {} (restarted, or this follower "
+                        + "fell out of its buffer); restart this follower to bootstrap again", leader, appliedSeq);
+                state = State.STALE;
+                return;
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException("Log request answered " + response.statusCode());
+            }
+            List<ReplicationLog.Entry> batch = new ArrayList<>(batchSize);
+            for (Iterator<String> it = lines.iterator(); it.hasNext(); ) {
+                String line = it.next();
+                if (!line.isEmpty()) {
+                    batch.add(ReplicationLog.Entry.parse(line));
+                }
+            }
+            leaderSeq = header(response, ReplicationLog.SEQ_HEADER);
+            apply(batch);
+        }
+    }
+
+    private void apply(List<ReplicationLog.Entry> batch) throws IOException {
+        long expected = appliedSeq + 1;
+        for (ReplicationLog.Entry entry : batch) {
+            if (entry.seq() != expected++) {
+                throw new IllegalStateException("Expected log entry " + (expected - 1) + " but got " + entry.seq());
+            }
+            libraryService.applyMutation(entry.mutation());
+        }
+        if (!batch.isEmpty()) {
+            ReplicationLog.Entry last = batch.get(batch.size() - 1);
+            appliedTimestamp = last.timestamp();
+            appliedSeq = last.seq();
+        }
+    }
+
+    private static long header(HttpResponse<?> response, String name) throws IOException {
+        return Long.parseLong(response.headers().firstValue(name)
+                .orElseThrow(() -> new IOException("Leader response without " + name)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.app.library.replication;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.app.library.persistence.FileMutationLog;
+import com.app.library.persistence.LibraryPersistence;
+import com.app.library.persistence.MutationLog;
+import com.app.library.persistence.SnapshotStore;
+import com.app.library.services.LibraryService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Responsibility: the write side of replication when `library.replication.role=leader`. Once the
+ * state is recovered, every mutation the service logs also goes to a {@link ReplicationLog} that
+ * ReplicationController serves to followers, with snapshots for followers that start from nothing.
+ * Meter: `library.replication.seq`, the last sequence number appended.
+ */
+@Component
+@ConditionalOnProperty(name = "library.replication.role", havingValue = "leader")
+public class ReplicationLeader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationLeader.class);
+
+    private final LibraryService libraryService;
+    private final ObjectProvider<LibraryPersistence> persistence;
+    private final MeterRegistry registry;
+    private final int bufferSize;
+
+    private ReplicationLog log;
+
+    public ReplicationLeader(LibraryService libraryService, ObjectProvider<LibraryPersistence> persistence,
+            MeterRegistry registry, @Value("${library.replication.buffer-size:1048576}") int bufferSize) {
+        this.libraryService = libraryService;
+        this.persistence = persistence;
+        this.registry = registry;
+        this.bufferSize = bufferSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        // recovery (if persistence is enabled) has to finish before we take over the service's log
+        persistence.getIfAvailable();
+        MutationLog durable = libraryService.getMutationLog();
+        long lastSeq = durable instanceof FileMutationLog file ? file.getLastDurableSeq() : 0;
+        log = new ReplicationLog(durable, lastSeq, bufferSize);
+        libraryService.setMutationLog(log);
+        Gauge.builder("library.replication.seq", log, ReplicationLog::getLastSeq)
+                .description("Last mutation log sequence number appended by the leader").register(registry);
+        logger.info("Replication leader started at log position {} (epoch {}, {} entries buffered)", lastSeq,
+                log.getEpoch(), bufferSize);
+    }
+
+    public ReplicationLog getLog() {
+        return log;
+    }
+
+    /**
+     * Write a snapshot for a follower to `directory`. Its sequence number is read first: everything
+     * up to it is already applied, and later entries the snapshot happens to include are replayed
+     * harmlessly by the follower.
+     */
+    public SnapshotStore.Header snapshot(Path directory) throws IOException {
+        long seq = log.getLastSeq();
+        SnapshotStore.Header header = SnapshotStore.write(directory, seq, libraryService);
+        logger.info("Snapshot at log position {} ({} bytes) written for a follower", seq,
+                Files.size(directory.resolve(SnapshotStore.FILE_NAME)));
+        return header;
+    }
+}
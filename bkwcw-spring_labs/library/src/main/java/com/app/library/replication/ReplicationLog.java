@@ -0,0 +1,176 @@
+package com.app.library.replication;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.app.library.persistence.Mutation;
+import com.app.library.persistence.MutationCodec;
+import com.app.library.persistence.MutationLog;
+
+/**
+ * Responsibility: the leader's mutation log as followers see it. Wraps the service's own log
+ * (the write-ahead log, or NONE) and keeps the most recent entries, already encoded, in a ring
+ * that followers read from by sequence number.
+ *
+ * Sequence numbers are the write-ahead log's when persistence is enabled, otherwise this log hands
+ * them out. Appends take no lock: each entry goes to slot seq % capacity, so a reader stops at the
+ * first slot not written yet and notices an overwritten one by its newer sequence number.
+ * The epoch is random per leader start; a follower that saw another epoch has to bootstrap again.
+ */
+public class ReplicationLog implements MutationLog {
+
+    public static final String EPOCH_HEADER = "X-Replication-Epoch";
+    public static final String SEQ_HEADER = "X-Replication-Seq";
+
+    // `timestamp`: leader wall-clock millis at append, used for the followers' lag
+    public record Entry(long seq, long timestamp, byte[] json) {
+
+        // One `<seq>\t<timestamp>\t<json>\n` line, the format of GET /api/replication/log
+        public void writeTo(OutputStream out) throws IOException {
+            out.write((seq + "\t" + timestamp + "\t").getBytes(StandardCharsets.US_ASCII));
+            out.write(json);
+            out.write('\n');
+        }
+
+        public static Entry parse(String line) {
+            int first = line.indexOf('\t');
+            int second = line.indexOf('\t', first + 1);
+            if (first < 0 || second < 0) {
+                throw new IllegalArgumentException("Not a replication log line: " + line);
+            }
+            return new Entry(Long.parseLong(line, 0, first, 10), Long.parseLong(line, first + 1, second, 10),
+                    line.substring(second + 1).getBytes(StandardCharsets.UTF_8));
+        }
+
+        public Mutation mutation() throws IOException {
+            return MutationCodec.decode(new String(json, StandardCharsets.UTF_8));
+        }
+    }
+
+    private final MutationLog durable;
+    private final boolean ownsSequence;
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    // Entries up to this one were appended before the ring existed and can only be had from a snapshot
+    private final long firstSeq;
+    private final AtomicLong lastSeq;
+    private final AtomicReferenceArray<Entry> ring;
+    private final int mask;
+
+    // Long-polling readers park here; appends only take the lock when someone is waiting
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition appended = waitLock.newCondition();
+    private volatile int waiting;
+
+    // `lastSeq`: the last sequence number `durable` handed out so far (0 for NONE)
+    public ReplicationLog(MutationLog durable, long lastSeq, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.durable = durable;
+        this.ownsSequence = durable == MutationLog.NONE;
+        this.firstSeq = lastSeq;
+        this.lastSeq = new AtomicLong(lastSeq);
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    @Override
+    public long append(Mutation mutation) {
+        byte[] json = MutationCodec.encode(mutation);
+        long seq;
+        if (ownsSequence) {
+            seq = lastSeq.incrementAndGet();
+        } else {
+            seq = durable.append(mutation);
+            lastSeq.accumulateAndGet(seq, Math::max);
+        }
+        Entry entry = new Entry(seq, System.currentTimeMillis(), json);
+        int slot = (int) seq & mask;
+        // a writer delayed by a whole lap must not put its entry back over a newer one
+        Entry current = ring.get(slot);
+        while ((current == null || current.seq() < seq) && !ring.compareAndSet(slot, current, entry)) {
+            current = ring.get(slot);
+        }
+        if (waiting > 0) {
+            waitLock.lock();
+            try {
+                appended.signalAll();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+        return seq;
+    }
+
+    @Override
+    public void awaitDurable(long seq) {
+        durable.awaitDurable(seq);
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    // Every entry up to this one has been applied by the leader
+    public long getLastSeq() {
+        return lastSeq.get();
+    }
+
+    /**
+     * Up to `limit` entries following `after`, in order, waiting up to `waitMillis` for the first one.
+     * Empty when there is nothing new; Optional.empty() when `after` is no longer (or was never) in
+     * the ring, so the reader cannot continue from it.
+     */
+    public Optional<List<Entry>> read(long after, int limit, long waitMillis) throws InterruptedException {
+        if (after < firstSeq || after > lastSeq.get()) {
+            return Optional.empty();
+        }
+        List<Entry> batch = new ArrayList<>();
+        if (!collect(after, limit, batch)) {
+            return Optional.empty();
+        }
+        if (batch.isEmpty() && waitMillis > 0) {
+            waitLock.lock();
+            try {
+                waiting++;
+                long remaining = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+                // re-check after announcing ourselves: an append that missed `waiting` is visible now
+                while (batch.isEmpty() && remaining > 0) {
+                    if (!collect(after, limit, batch)) {
+                        return Optional.empty();
+                    }
+                    if (batch.isEmpty()) {
+                        remaining = appended.awaitNanos(remaining);
+                    }
+                }
+            } finally {
+                waiting--;
+                waitLock.unlock();
+            }
+        }
+        return Optional.of(batch);
+    }
+
+    // Adds the contiguous entries after `after`; false if the next one was overwritten
+    private boolean collect(long after, int limit, List<Entry> batch) {
+        for (long seq = after + 1; batch.size() < limit; seq++) {
+            Entry entry = ring.get((int) seq & mask);
+            if (entry == null || entry.seq() < seq) {
+                return true;
+            }
+            if (entry.seq() > seq) {
+                return false;
+            }
+            batch.add(entry);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package com.app.library.search;
+
+/**
+ * Search criteria for books; null fields are not constrained.
+ * Author and genre match exactly (ignoring case), titlePrefix matches the start of the title
+ * (ignoring case) and the year range is inclusive on both ends.
+ */
+public record BookQuery(String author, String genre, String titlePrefix, Integer yearFrom, Integer yearTo) {
+
+    public boolean isEmpty() {
+        return author == null && genre == null && titlePrefix == null && yearFrom == null && yearTo == null;
+    }
+}
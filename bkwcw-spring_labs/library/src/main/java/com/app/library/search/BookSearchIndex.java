@@ -0,0 +1,185 @@
+package com.app.library.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+import com.app.library.models.Book;
+import com.app.library.storage.StripedLocks;
+
+/**
+ * Search: BookSearchIndex
+ * Responsibility: secondary indexes over Book fields, maintained incrementally by the service
+ * on every add/update/delete of a book:
+ *  - hash indexes for author and genre (case-insensitive exact match)
+ *  - a sorted map on publicationYear for range queries
+ *  - a sorted map on the lower-cased title for prefix queries
+ * A query walks the smallest candidate source that applies (an exact-match set, or the title or
+ * year range with the fewest ids) and checks the remaining criteria on each candidate, so its
+ * cost depends on the candidates, not on the catalog size. Keys whose last book is removed are
+ * dropped, so ranges only span values that are still in the catalog.
+ */
+public class BookSearchIndex {
+
+    private final ConcurrentMap<String, Set<Long>> byAuthor = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Long>> byGenre = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Set<Long>> byYear = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> byTitle = new ConcurrentSkipListMap<>();
+
+    // Serializes writers of the same key, so a set emptied by one remove is never dropped while
+    // another writer adds to it; readers take no lock
+    private final StripedLocks keyLocks = new StripedLocks(64);
+
+    public void add(Book book) {
+        long id = book.getId();
+        addTo(byAuthor, normalize(book.getAuthor()), id);
+        addTo(byGenre, normalize(book.getGenre()), id);
+        addTo(byYear, book.getPublicationYear(), id);
+        addTo(byTitle, normalize(book.getTitle()), id);
+    }
+
+    public void remove(Book book) {
+        long id = book.getId();
+        removeFrom(byAuthor, normalize(book.getAuthor()), id);
+        removeFrom(byGenre, normalize(book.getGenre()), id);
+        removeFrom(byYear, book.getPublicationYear(), id);
+        removeFrom(byTitle, normalize(book.getTitle()), id);
+    }
+
+    /**
+     * Up to `limit` books matching every criterion of the query. Results come in the order of the
+     * index that drives the query, which depends on the data.
+     */
+    public List<Book> search(BookQuery query, int limit, LongFunction<Book> lookup) {
+        List<Book> result = new ArrayList<>(Math.min(limit, 256));
+        for (Set<Long> ids : candidates(query)) {
+            for (Long id : ids) {
+                if (result.size() >= limit) {
+                    return result;
+                }
+                Book book = lookup.apply(id);
+                if (book != null && matches(book, query)) {
+                    result.add(book);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Number of distinct author, genre, year and title keys indexed
+    public int keyCount() {
+        return byAuthor.size() + byGenre.size() + byYear.size() + byTitle.size();
+    }
+
+    // The candidate source with the fewest ids among those the query constrains; no criteria walks all years
+    private Collection<Set<Long>> candidates(BookQuery q) {
+        int from = q.yearFrom() != null ? q.yearFrom() : Integer.MIN_VALUE;
+        int to = q.yearTo() != null ? q.yearTo() : Integer.MAX_VALUE;
+        if (from > to) {
+            return List.of();
+        }
+        Collection<Set<Long>> best = null;
+        long bestSize = Long.MAX_VALUE;
+        if (q.author() != null) {
+            Set<Long> author = byAuthor.getOrDefault(normalize(q.author()), Set.of());
+            best = List.of(author);
+            bestSize = author.size();
+        }
+        if (q.genre() != null) {
+            Set<Long> genre = byGenre.getOrDefault(normalize(q.genre()), Set.of());
+            if (genre.size() < bestSize) {
+                best = List.of(genre);
+                bestSize = genre.size();
+            }
+        }
+        if (q.titlePrefix() != null) {
+            String prefix = normalize(q.titlePrefix());
+            Collection<Set<Long>> titles = byTitle.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+            long size = sizeBelow(titles, bestSize);
+            if (size < bestSize) {
+                best = titles;
+                bestSize = size;
+            }
+        }
+        if (q.yearFrom() != null || q.yearTo() != null || best == null) {
+            Collection<Set<Long>> years = byYear.subMap(from, true, to, true).values();
+            if (best == null || sizeBelow(years, bestSize) < bestSize) {
+                best = years;
+            }
+        }
+        return best;
+    }
+
+    // Total size of the sets, counting only until it reaches `bound`. Every key holds at least one
+    // id, so a range is never walked further than `bound` keys.
+    private static long sizeBelow(Collection<Set<Long>> sets, long bound) {
+        long size = 0;
+        for (Set<Long> ids : sets) {
+            size += ids.size();
+            if (size >= bound) {
+                break;
+            }
+        }
+        return size;
+    }
+
+    private static boolean matches(Book book, BookQuery q) {
+        if (q.author() != null && !normalize(q.author()).equals(normalize(book.getAuthor()))) {
+            return false;
+        }
+        if (q.genre() != null && !normalize(q.genre()).equals(normalize(book.getGenre()))) {
+            return false;
+        }
+        if (q.titlePrefix() != null) {
+            String title = normalize(book.getTitle());
+            if (title == null || !title.startsWith(normalize(q.titlePrefix()))) {
+                return false;
+            }
+        }
+        if (q.yearFrom() != null && book.getPublicationYear() < q.yearFrom()) {
+            return false;
+        }
+        return q.yearTo() == null || book.getPublicationYear() <= q.yearTo();
+    }
+
+    private <K> void addTo(ConcurrentMap<K, Set<Long>> index, K key, long id) {
+        if (key == null) {
+            return;
+        }
+        ReentrantLock lock = keyLocks.forId(key.hashCode());
+        lock.lock();
+        try {
+            index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drops the key with its last id
+    private <K> void removeFrom(ConcurrentMap<K, Set<Long>> index, K key, long id) {
+        if (key == null) {
+            return;
+        }
+        ReentrantLock lock = keyLocks.forId(key.hashCode());
+        lock.lock();
+        try {
+            Set<Long> ids = index.get(key);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                index.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String normalize(String s) {
+        return s == null ? null : s.trim().toLowerCase(Locale.ROOT);
+    }
+}
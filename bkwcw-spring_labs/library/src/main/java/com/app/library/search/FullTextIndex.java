@@ -0,0 +1,401 @@
+package com.app.library.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+import com.app.library.models.Book;
+
+/**
+ * Search: FullTextIndex
+ * Responsibility: in-memory inverted index over Book title and author words, ranked with BM25.
+ * Text is split on anything that is not a letter or digit and lower-cased. Each term keeps a
+ * posting list of primitive arrays (book ids sorted ascending, term frequency, document length),
+ * so an indexed occurrence costs 16 bytes and no object. A query takes a snapshot of the lists of
+ * its terms (the live arrays, shared copy-on-write, so nothing is copied per query) and scores them
+ * outside the locks, merging them by id into a bounded heap of primitives, so a common term neither
+ * boxes every posting nor holds up indexing. The service updates the index on every
+ * add/update/delete of a book.
+ */
+public class FullTextIndex {
+
+    // Standard BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ConcurrentHashMap<String, PostingList> postings = new ConcurrentHashMap<>();
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder totalLength = new LongAdder();
+
+    public void add(Book book) {
+        List<String> tokens = tokenize(book);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        long id = book.getId();
+        int length = tokens.size();
+        for (Map.Entry<String, Integer> tf : termFrequencies(tokens).entrySet()) {
+            postings.computeIfAbsent(tf.getKey(), k -> new PostingList()).add(id, tf.getValue(), length);
+        }
+        documents.increment();
+        totalLength.add(length);
+    }
+
+    // `book` must carry the title/author it was indexed with
+    public void remove(Book book) {
+        List<String> tokens = tokenize(book);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        long id = book.getId();
+        for (String term : termFrequencies(tokens).keySet()) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                list.remove(id);
+            }
+        }
+        documents.decrement();
+        totalLength.add(-tokens.size());
+    }
+
+    // A matching book and its BM25 score
+    public record Hit(Book book, double score) {
+    }
+
+    /**
+     * Up to `limit` books containing at least one query word, best BM25 score first.
+     */
+    public List<Book> search(String query, int limit, LongFunction<Book> lookup) {
+        List<Hit> hits = searchScored(query, limit, lookup);
+        List<Book> result = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            result.add(hit.book());
+        }
+        return result;
+    }
+
+    // search with the scores, for callers that merge the results of several indexes
+    public List<Hit> searchScored(String query, int limit, LongFunction<Book> lookup) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        long n = Math.max(1, documents.sum());
+        double avgLength = Math.max(1.0, (double) totalLength.sum() / n);
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        // snapshot the posting lists under their locks, then score without holding any
+        List<Postings> matched = new ArrayList<>(terms.size());
+        int total = 0;
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            Postings snapshot = list == null ? null : list.snapshot();
+            if (snapshot != null && snapshot.size > 0) {
+                matched.add(snapshot);
+                total += snapshot.size;
+            }
+        }
+        if (matched.isEmpty()) {
+            return List.of();
+        }
+
+        TopHits top = new TopHits(Math.min(limit, total));
+        if (matched.size() == 1) {
+            // one term scores every book once: straight into the heap
+            Postings only = matched.get(0);
+            double idf = only.idf(n);
+            for (int i = 0; i < only.size; i++) {
+                top.offer(only.ids[i], only.score(i, idf, avgLength));
+            }
+        } else {
+            // the snapshots are sorted by id: merge them, summing the scores of each id as it comes up
+            int k = matched.size();
+            int[] cursor = new int[k];
+            double[] idf = new double[k];
+            for (int t = 0; t < k; t++) {
+                idf[t] = matched.get(t).idf(n);
+            }
+            while (true) {
+                long id = Long.MAX_VALUE;
+                boolean any = false;
+                for (int t = 0; t < k; t++) {
+                    Postings list = matched.get(t);
+                    if (cursor[t] < list.size && (!any || list.ids[cursor[t]] < id)) {
+                        id = list.ids[cursor[t]];
+                        any = true;
+                    }
+                }
+                if (!any) {
+                    break;
+                }
+                double score = 0;
+                for (int t = 0; t < k; t++) {
+                    Postings list = matched.get(t);
+                    if (cursor[t] < list.size && list.ids[cursor[t]] == id) {
+                        score += list.score(cursor[t]++, idf[t], avgLength);
+                    }
+                }
+                top.offer(id, score);
+            }
+        }
+        return top.drainBestFirst(lookup);
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    static List<String> tokenize(Book book) {
+        List<String> tokens = tokenize(book.getTitle());
+        tokens.addAll(tokenize(book.getAuthor()));
+        return tokens;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static Map<String, Integer> termFrequencies(List<String> tokens) {
+        Map<String, Integer> tf = new HashMap<>();
+        for (String t : tokens) {
+            tf.merge(t, 1, Integer::sum);
+        }
+        return tf;
+    }
+
+    /**
+     * Posting list for one term: parallel primitive arrays kept sorted by book id.
+     * Ids usually arrive in increasing order, so adds are amortized appends.
+     * Snapshots share the arrays: the first `shared` entries are never written in place again, a
+     * write below that copies the arrays first. Appends land past every snapshot, so only an
+     * out-of-order add, a re-index or a remove after a query pays for a copy.
+     */
+    static final class PostingList {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private long[] ids = new long[4];
+        private int[] frequencies = new int[4];
+        private int[] lengths = new int[4];
+        private int size;
+        // Entries a published snapshot may read
+        private int shared;
+
+        void add(long id, int frequency, int length) {
+            lock.lock();
+            try {
+                int pos = size > 0 && ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0 && pos < size) {
+                    // re-indexed without a remove: overwrite in place
+                    beforeWrite(pos);
+                    frequencies[pos] = frequency;
+                    lengths[pos] = length;
+                    return;
+                }
+                int insert = pos >= 0 ? pos : -pos - 1;
+                if (size == ids.length) {
+                    grow(size + (size >> 1) + 1);
+                } else {
+                    beforeWrite(insert);
+                }
+                int tail = size - insert;
+                if (tail > 0) {
+                    System.arraycopy(ids, insert, ids, insert + 1, tail);
+                    System.arraycopy(frequencies, insert, frequencies, insert + 1, tail);
+                    System.arraycopy(lengths, insert, lengths, insert + 1, tail);
+                }
+                ids[insert] = id;
+                frequencies[insert] = frequency;
+                lengths[insert] = length;
+                size++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(long id) {
+            lock.lock();
+            try {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos < 0) {
+                    return;
+                }
+                int tail = size - pos - 1;
+                if (tail > 0) {
+                    beforeWrite(pos);
+                    System.arraycopy(ids, pos + 1, ids, pos, tail);
+                    System.arraycopy(frequencies, pos + 1, frequencies, pos, tail);
+                    System.arraycopy(lengths, pos + 1, lengths, pos, tail);
+                }
+                size--;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // A consistent view of the list, valid after the lock is released; copies nothing
+        Postings snapshot() {
+            lock.lock();
+            try {
+                shared = Math.max(shared, size);
+                return new Postings(ids, frequencies, lengths, size);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Called with the lock held before entries from `index` on are overwritten
+        private void beforeWrite(int index) {
+            if (index < shared) {
+                grow(ids.length);
+            }
+        }
+
+        // Fresh arrays of `capacity`, which no snapshot shares
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            frequencies = Arrays.copyOf(frequencies, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            shared = 0;
+        }
+    }
+
+    /**
+     * A posting list snapshot, scored outside the lock. The arrays may be longer than `size`; the
+     * entries past it belong to later writes.
+     */
+    private static final class Postings {
+
+        final long[] ids;
+        final int[] frequencies;
+        final int[] lengths;
+        final int size;
+
+        Postings(long[] ids, int[] frequencies, int[] lengths, int size) {
+            this.ids = ids;
+            this.frequencies = frequencies;
+            this.lengths = lengths;
+            this.size = size;
+        }
+
+        double idf(long documentCount) {
+            return Math.log(1 + (documentCount - size + 0.5) / (size + 0.5));
+        }
+
+        // BM25 contribution of this term to the i-th document
+        double score(int i, double idf, double avgLength) {
+            double tf = frequencies[i];
+            return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * lengths[i] / avgLength));
+        }
+    }
+
+    /**
+     * The `capacity` best (score, id) pairs seen so far: a min-heap on primitive arrays whose root
+     * is the worst kept hit. Equal scores prefer the lower id, so results are deterministic.
+     */
+    private static final class TopHits {
+
+        private final long[] ids;
+        private final double[] scores;
+        private int size;
+
+        TopHits(int capacity) {
+            this.ids = new long[capacity];
+            this.scores = new double[capacity];
+        }
+
+        void offer(long id, double score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (worse(ids[0], scores[0], id, score)) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        // Empties the heap; books the lookup no longer finds are skipped
+        List<Hit> drainBestFirst(LongFunction<Book> lookup) {
+            List<Hit> result = new ArrayList<>(size);
+            while (size > 0) {
+                long id = ids[0];
+                double score = scores[0];
+                size--;
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+                Book book = lookup.apply(id);
+                if (book != null) {
+                    result.add(new Hit(book, score));
+                }
+            }
+            Collections.reverse(result);
+            return result;
+        }
+
+        private static boolean worse(long id, double score, long otherId, double otherScore) {
+            return score < otherScore || (score == otherScore && id > otherId);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(ids[i], scores[i], ids[parent], scores[parent])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && worse(ids[child + 1], scores[child + 1], ids[child], scores[child])) {
+                    child++;
+                }
+                if (!worse(ids[child], scores[child], ids[i], scores[i])) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.app.library.services;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Responsibility: today's date and the due date of a loan made today, for the borrow/return path.
+ * Both are computed once per calendar day (in the clock's zone) and cached, so asking for them costs
+ * a clock read instead of a LocalDate.now() allocation, and every record of a day shares the same
+ * LocalDate instances.
+ */
+public final class DayClock {
+
+    // One calendar day: [startMillis, endMillis) in the clock's zone
+    public record Day(LocalDate date, LocalDate dueDate, long startMillis, long endMillis) {
+
+        // The dates as epoch days, as the loan ledger stores them
+        public int day() {
+            return (int) date.toEpochDay();
+        }
+
+        public int dueDay() {
+            return (int) dueDate.toEpochDay();
+        }
+    }
+
+    private final Clock clock;
+    private final int loanDays;
+    private volatile Day day;
+
+    public DayClock(Clock clock, int loanDays) {
+        this.clock = clock;
+        this.loanDays = loanDays;
+    }
+
+    public Day today() {
+        Day current = day;
+        long now = clock.millis();
+        if (current == null || now >= current.endMillis() || now < current.startMillis()) {
+            current = compute(now);
+            day = current;
+        }
+        return current;
+    }
+
+    private Day compute(long now) {
+        ZoneId zone = clock.getZone();
+        LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(now), zone);
+        return new Day(date, date.plusDays(loanDays), date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+    }
+}
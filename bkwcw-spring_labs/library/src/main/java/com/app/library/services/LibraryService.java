@@ -5,195 +5,1011 @@ package com.app.library.services;
 import com.app.library.models.Book;
 import com.app.library.models.Member;
 import com.app.library.models.BorrowingRecord;
+import com.app.library.persistence.Mutation;
+import com.app.library.persistence.MutationLog;
+import com.app.library.search.BookQuery;
+import com.app.library.search.BookSearchIndex;
+import com.app.library.search.FullTextIndex;
+import com.app.library.stats.CatalogStats;
+import com.app.library.stats.LibraryStats;
+import com.app.library.stats.TopKSketch;
+import com.app.library.storage.DueDateIndex;
+import com.app.library.storage.EntityStore;
+import com.app.library.storage.GroupIndex;
+import com.app.library.storage.IdGenerator;
+import com.app.library.storage.IdIndex;
+import com.app.library.storage.StripedLocks;
+import com.app.library.storage.VersionIndex;
+import com.app.library.storage.columnar.LoanLedger;
+import com.app.library.storage.columnar.OffHeapBookStore;
 
+import java.time.Clock;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.annotation.Timed;
+
 /**
- * Responsibility: manage in-memory lists for Books, Members and BorrowingRecords
+ * Responsibility: manage in-memory id indexes for Books, Members and BorrowingRecords
  * and contain all business logic (borrowing/returning, id generation).
+ *
+ * An instance can also be one shard of a {@link ShardedLibraryService}: it then owns the ids of
+ * its lane (id % shards == shard) and reaches the books, members and records it does not own
+ * through its sibling shards (see home), so a borrow or return works on whichever shard runs it.
  */
 @Service
+@ConditionalOnExpression("${library.shards:1} <= 1")
 public class LibraryService {
 
-    private final List<Book> books = new ArrayList<>();
-    private final List<Member> members = new ArrayList<>();
-    private final List<BorrowingRecord> borrowingRecords = new ArrayList<>();
+    // Latency of the public operations, tagged with the method name (see metrics/MetricsConfiguration).
+    // Not on id lookups and single borrow/return: the aspect would cost more than the operation there.
+    static final String TIMER = "library.service";
+
+    // Loan period applied by borrowBook/borrowBooks
+    private static final int LOAN_DAYS = 14;
+
+    // Primary-key indexes: every lookup/update/delete by id is O(1). Books live in the configured
+    // storage engine (library.storage.books, see StorageConfiguration)
+    private final EntityStore<Book> books;
+    private final IdIndex<Member> members = new IdIndex<>();
+
+    // Borrowing records as compact primitive rows (the row is the record id); BorrowingRecord
+    // objects are only built for the records an operation returns (see toRecord)
+    private final LoanLedger ledger;
+
+    // Per-book locks: every change to a book's inventory or to the book entry itself
+    // happens under its stripe, so borrow/return on different books never contend
+    private final StripedLocks bookLocks = new StripedLocks(256);
+    private final StripedLocks memberLocks = new StripedLocks(256);
+
+    // Secondary and full-text indexes over book fields, kept in step with the primary index under the book's stripe
+    private final BookSearchIndex bookSearchIndex = new BookSearchIndex();
+    private final FullTextIndex fullTextIndex = new FullTextIndex();
+
+    // Borrowing history per member and per book, plus each member's loans not yet returned
+    private final GroupIndex recordsByMember = new GroupIndex();
+    private final GroupIndex recordsByBook = new GroupIndex();
+    private final GroupIndex openLoansByMember = new GroupIndex();
+
+    // Open loans ordered by due date, for overdue queries and the overdue sweeper
+    private final DueDateIndex openLoansByDueDate = new DueDateIndex();
+
+    // Version of each book and member, bumped on every change that alters its JSON (for ETags)
+    private final VersionIndex bookVersions = new VersionIndex();
+    private final VersionIndex memberVersions = new VersionIndex();
+
+    // Counters maintained on every mutation so statistics never scan the data
+    private final CatalogStats stats = new CatalogStats();
+
+    // Borrow/return lock contention: acquisitions that found the stripe taken, and the time they waited
+    private final LongAdder bookLockContended = new LongAdder();
+    private final LongAdder bookLockWaitNanos = new LongAdder();
+
+    // Lock-free id allocation; client-supplied ids advance the generators past them
+    private final IdGenerator bookIds;
+    private final IdGenerator memberIds;
+    private final IdGenerator recordIds;
+
+    // Sharded mode: this shard's index and all the shards, itself included; null when not sharded
+    private final int shard;
+    private final LibraryService[] shards;
+
+    // Dates for borrow/return, cached per calendar day
+    private final DayClock dayClock = new DayClock(Clock.systemDefaultZone(), LOAN_DAYS);
+
+    // Every change is appended here under the entity's lock; NONE unless persistence or replication is enabled
+    private volatile MutationLog mutationLog = MutationLog.NONE;
+
+    // Loans due before this day have been reported overdue: epoch day + 1, 0 before the first sweep
+    private final AtomicLong overdueReportedUntil = new AtomicLong();
+
+    // Books kept as heap objects
+    public LibraryService() {
+        this(new IdIndex<>());
+    }
+
+    @Autowired
+    public LibraryService(EntityStore<Book> bookStore) {
+        this(bookStore, 0, null);
+    }
+
+    // Shard `shard` of `shards`; the array is filled in by ShardedLibraryService before first use
+    LibraryService(EntityStore<Book> bookStore, int shard, LibraryService[] shards) {
+        int lanes = shards == null ? 1 : shards.length;
+        this.books = bookStore;
+        this.shard = shard;
+        this.shards = shards;
+        this.ledger = new LoanLedger(shard, lanes);
+        this.bookIds = new IdGenerator(shard, lanes);
+        this.memberIds = new IdGenerator(shard, lanes);
+        this.recordIds = new IdGenerator(shard, lanes);
+    }
+
+    public void setMutationLog(MutationLog mutationLog) {
+        this.mutationLog = mutationLog;
+    }
 
-    private long nextBookId = 1L;
-    private long nextMemberId = 1L;
-    private long nextRecordId = 1L;
+    public MutationLog getMutationLog() {
+        return mutationLog;
+    }
 
     // ==================== Book Methods ====================
 
     public List<Book> getAllBooks() {
-        return books;
+        return books.values();
+    }
+
+    // Keyset pagination: up to `limit` books with id > `after` (from the start when null), in id order
+    @Timed(TIMER)
+    public List<Book> getBooksPage(Long after, int limit) {
+        return books.page(after == null ? Long.MIN_VALUE : after, limit);
+    }
+
+    // Stream every book in id order without materializing the whole catalog
+    public void forEachBook(Consumer<? super Book> action) {
+        books.forEach(action);
     }
 
     public Optional<Book> getBookById(Long id) {
-        for (Book b : books) {
-            if (b.getId() != null && b.getId().equals(id)) {
-                return Optional.of(b);
-            }
+        if (id == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        return Optional.ofNullable(books.get(id));
     }
 
+    @Timed(TIMER)
     public Book addBook(Book book) {
-        // Assign id if not provided
+        // Assign id if not provided, otherwise keep generated ids clear of the client's id
         if (book.getId() == null) {
-            book.setId(nextBookId++);
+            book.setId(bookIds.next());
+        } else {
+            bookIds.advancePast(book.getId());
         }
-        books.add(book);
+        long seq;
+        ReentrantLock lock = bookLocks.forId(book.getId());
+        lock.lock();
+        try {
+            Book previous = books.put(book.getId(), book);
+            reindexBook(previous, book);
+            seq = mutationLog.append(Mutation.bookPut(book));
+        } finally {
+            lock.unlock();
+        }
+        mutationLog.awaitDurable(seq);
         return book;
     }
 
+    /**
+     * Add many books at once (bulk import). Ids for books without one come from a single block
+     * reservation, and each stripe lock is taken once for all the books of the batch it covers.
+     */
+    @Timed(TIMER)
+    public List<Book> addBooks(List<Book> batch) {
+        assignIds(batch, bookIds, Book::getId, Book::setId);
+        long seq = applyByStripe(batch, bookLocks, Book::getId, book -> {
+            reindexBook(books.put(book.getId(), book), book);
+            return mutationLog.append(Mutation.bookPut(book));
+        });
+        mutationLog.awaitDurable(seq);
+        return batch;
+    }
+
+    @Timed(TIMER)
     public Optional<Book> updateBook(Book updatedBook) {
         if (updatedBook.getId() == null) {
             return Optional.empty();
         }
-        for (int i = 0; i < books.size(); i++) {
-            if (books.get(i).getId().equals(updatedBook.getId())) {
-                books.set(i, updatedBook);
-                return Optional.of(updatedBook);
+        long seq;
+        ReentrantLock lock = bookLocks.forId(updatedBook.getId());
+        lock.lock();
+        try {
+            Book previous = books.replace(updatedBook.getId(), updatedBook);
+            if (previous == null) {
+                return Optional.empty();
             }
+            reindexBook(previous, updatedBook);
+            seq = mutationLog.append(Mutation.bookPut(updatedBook));
+        } finally {
+            lock.unlock();
         }
-        return Optional.empty();
+        mutationLog.awaitDurable(seq);
+        return Optional.of(updatedBook);
     }
 
+    @Timed(TIMER)
     public boolean deleteBook(Long id) {
-        for (int i = 0; i < books.size(); i++) {
-            if (books.get(i).getId().equals(id)) {
-                books.remove(i);
-                return true;
+        if (id == null) {
+            return false;
+        }
+        long seq;
+        ReentrantLock lock = bookLocks.forId(id);
+        lock.lock();
+        try {
+            Book removed = books.remove(id);
+            if (removed == null) {
+                return false;
             }
+            reindexBook(removed, null);
+            seq = mutationLog.append(Mutation.bookDelete(id));
+        } finally {
+            lock.unlock();
+        }
+        mutationLog.awaitDurable(seq);
+        return true;
+    }
+
+    // Current version of a book, changed by every update, borrow and return of it; 0 if there is no such book
+    public long getBookVersion(long id) {
+        return bookVersions.get(id);
+    }
+
+    // Field search backed by the secondary indexes; see BookSearchIndex for matching rules
+    @Timed(TIMER)
+    public List<Book> searchBooks(BookQuery query, int limit) {
+        return bookSearchIndex.search(query, limit, books::get);
+    }
+
+    // Word search over titles and authors, best BM25 match first
+    @Timed(TIMER)
+    public List<Book> fullTextSearch(String query, int limit) {
+        return fullTextIndex.search(query, limit, books::get);
+    }
+
+    // fullTextSearch with the scores, for ShardedLibraryService to merge the shards' results
+    List<FullTextIndex.Hit> fullTextHits(String query, int limit) {
+        return fullTextIndex.searchScored(query, limit, books::get);
+    }
+
+    // Replace `previous` by `current` in the secondary indexes and statistics and bump the book's version;
+    // either may be null. Caller holds the book's stripe.
+    private void reindexBook(Book previous, Book current) {
+        stats.bookReplaced(previous, current);
+        if (previous != null) {
+            bookSearchIndex.remove(previous);
+            fullTextIndex.remove(previous);
+        }
+        if (current != null) {
+            bookSearchIndex.add(current);
+            fullTextIndex.add(current);
+            bookVersions.bump(current.getId());
+        } else if (previous != null) {
+            bookVersions.remove(previous.getId());
         }
-        return false;
     }
 
     // ==================== Member Methods ====================
 
     public List<Member> getAllMembers() {
-        return members;
+        return members.values();
+    }
+
+    @Timed(TIMER)
+    public List<Member> getMembersPage(Long after, int limit) {
+        return members.page(after == null ? Long.MIN_VALUE : after, limit);
+    }
+
+    public void forEachMember(Consumer<? super Member> action) {
+        members.forEach(action);
     }
 
     public Optional<Member> getMemberById(Long id) {
-        for (Member m : members) {
-            if (m.getId() != null && m.getId().equals(id)) {
-                return Optional.of(m);
-            }
+        if (id == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        return Optional.ofNullable(members.get(id));
     }
 
+    @Timed(TIMER)
     public Member addMember(Member member) {
         if (member.getId() == null) {
-            member.setId(nextMemberId++);
+            member.setId(memberIds.next());
+        } else {
+            memberIds.advancePast(member.getId());
+        }
+        long seq;
+        ReentrantLock lock = memberLocks.forId(member.getId());
+        lock.lock();
+        try {
+            members.put(member.getId(), member);
+            memberVersions.bump(member.getId());
+            seq = mutationLog.append(Mutation.memberPut(member));
+        } finally {
+            lock.unlock();
         }
-        members.add(member);
+        mutationLog.awaitDurable(seq);
         return member;
     }
 
+    // Current version of a member; 0 if there is no such member
+    public long getMemberVersion(long id) {
+        return memberVersions.get(id);
+    }
+
+    // Bulk counterpart of addMember; see addBooks
+    @Timed(TIMER)
+    public List<Member> addMembers(List<Member> batch) {
+        assignIds(batch, memberIds, Member::getId, Member::setId);
+        long seq = applyByStripe(batch, memberLocks, Member::getId, member -> {
+            members.put(member.getId(), member);
+            memberVersions.bump(member.getId());
+            return mutationLog.append(Mutation.memberPut(member));
+        });
+        mutationLog.awaitDurable(seq);
+        return batch;
+    }
+
+    @Timed(TIMER)
     public Optional<Member> updateMember(Member updatedMember) {
         if (updatedMember.getId() == null) {
             return Optional.empty();
         }
-        for (int i = 0; i < members.size(); i++) {
-            if (members.get(i).getId().equals(updatedMember.getId())) {
-                members.set(i, updatedMember);
-                return Optional.of(updatedMember);
+        long seq;
+        ReentrantLock lock = memberLocks.forId(updatedMember.getId());
+        lock.lock();
+        try {
+            if (members.replace(updatedMember.getId(), updatedMember) == null) {
+                return Optional.empty();
             }
+            memberVersions.bump(updatedMember.getId());
+            seq = mutationLog.append(Mutation.memberPut(updatedMember));
+        } finally {
+            lock.unlock();
         }
-        return Optional.empty();
+        mutationLog.awaitDurable(seq);
+        return Optional.of(updatedMember);
     }
 
+    @Timed(TIMER)
     public boolean deleteMember(Long id) {
-        for (int i = 0; i < members.size(); i++) {
-            if (members.get(i).getId().equals(id)) {
-                members.remove(i);
-                return true;
+        if (id == null) {
+            return false;
+        }
+        long seq;
+        ReentrantLock lock = memberLocks.forId(id);
+        lock.lock();
+        try {
+            if (members.remove(id) == null) {
+                return false;
             }
+            memberVersions.remove(id);
+            seq = mutationLog.append(Mutation.memberDelete(id));
+        } finally {
+            lock.unlock();
         }
-        return false;
+        mutationLog.awaitDurable(seq);
+        return true;
     }
 
     // ==================== BorrowingRecord Methods (business logic here) ====================
 
     public List<BorrowingRecord> getAllBorrowingRecords() {
-        return borrowingRecords;
+        List<BorrowingRecord> result = new ArrayList<>(ledger.size());
+        ledger.forEach(id -> result.add(toRecord(id)));
+        return result;
+    }
+
+    @Timed(TIMER)
+    public List<BorrowingRecord> getBorrowingRecordsPage(Long after, int limit) {
+        long[] ids = ledger.page(after == null ? 0 : after, limit);
+        List<BorrowingRecord> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(toRecord(id));
+        }
+        return result;
+    }
+
+    // Each record is built only for the call, so streaming every record never holds them all
+    public void forEachBorrowingRecord(Consumer<? super BorrowingRecord> action) {
+        ledger.forEach(id -> action.accept(toRecord(id)));
     }
 
     public Optional<BorrowingRecord> getBorrowingRecordById(Long id) {
-        for (BorrowingRecord r : borrowingRecords) {
-            if (r.getId() != null && r.getId().equals(id)) {
-                return Optional.of(r);
+        LibraryService owner = id != null ? home(id) : null;
+        if (owner == null || !owner.ledger.contains(id)) {
+            return Optional.empty();
+        }
+        return Optional.of(owner.toRecord(id));
+    }
+
+    // A member's records with id > `after`, oldest first; `openOnly` restricts to loans not yet returned
+    @Timed(TIMER)
+    public List<BorrowingRecord> getMemberRecords(long memberId, Long after, int limit, boolean openOnly) {
+        GroupIndex index = openOnly ? openLoansByMember : recordsByMember;
+        return resolveRecords(index.page(memberId, after == null ? Long.MIN_VALUE : after, limit));
+    }
+
+    // Everyone who borrowed a book: its records with id > `after`, oldest first
+    @Timed(TIMER)
+    public List<BorrowingRecord> getBookRecords(long bookId, Long after, int limit) {
+        return resolveRecords(recordsByBook.page(bookId, after == null ? Long.MIN_VALUE : after, limit));
+    }
+
+    // Loans not returned whose due date is before `today`, earliest due date first
+    @Timed(TIMER)
+    public List<BorrowingRecord> getOverdueRecords(LocalDate today, int limit) {
+        return resolveRecords(openLoansByDueDate.dueBefore(today.toEpochDay(), limit));
+    }
+
+    // Visit every open loan due in [from, to); returned loans are not in the index and are never visited
+    public void forEachOpenLoanDueBetween(LocalDate from, LocalDate to, Consumer<? super BorrowingRecord> action) {
+        openLoansByDueDate.forEachDueBetween(from.toEpochDay(), to.toEpochDay(), id -> {
+            if (ledger.contains(id) && !ledger.isReturned(id)) {
+                action.accept(toRecord(id));
+            }
+        });
+    }
+
+    // Loans due before this day have been reported overdue; null before the first sweep
+    public LocalDate getOverdueReportedUntil() {
+        long day = overdueReportedUntil.get();
+        return day != 0 ? LocalDate.ofEpochDay(day - 1) : null;
+    }
+
+    // Record that loans due before `day` have been reported; logged so that it survives a restart
+    public void setOverdueReportedUntil(LocalDate day) {
+        overdueReportedUntil.accumulateAndGet(day.toEpochDay() + 1, Math::max);
+        long seq = mutationLog.append(Mutation.overdueSwept(day));
+        mutationLog.awaitDurable(seq);
+    }
+
+    private List<BorrowingRecord> resolveRecords(List<Long> recordIds) {
+        List<BorrowingRecord> result = new ArrayList<>(recordIds.size());
+        for (Long id : recordIds) {
+            LibraryService owner = home(id);
+            if (owner.ledger.contains(id)) {
+                result.add(owner.toRecord(id));
             }
         }
-        return Optional.empty();
+        return result;
+    }
+
+    // A snapshot of a record stored in this shard, linked to its book and member while they exist
+    private BorrowingRecord toRecord(long id) {
+        BorrowingRecord record = new BorrowingRecord();
+        record.setId(id);
+        long bookId = ledger.bookId(id);
+        Book book = bookId != BorrowingRecord.NO_ID ? home(bookId).books.get(bookId) : null;
+        if (book != null) {
+            record.setBook(book);
+        } else {
+            record.setBookId(bookId);
+        }
+        long memberId = ledger.memberId(id);
+        Member member = memberId != BorrowingRecord.NO_ID ? home(memberId).members.get(memberId) : null;
+        if (member != null) {
+            record.setMember(member);
+        } else {
+            record.setMemberId(memberId);
+        }
+        record.setBorrowDate(LoanLedger.date(ledger.borrowDay(id)));
+        record.setDueDate(LoanLedger.date(ledger.dueDay(id)));
+        record.setReturnDate(LoanLedger.date(ledger.returnDay(id)));
+        return record;
     }
 
     /**
      * Borrow a book: resolves provided book/member (by id inside the passed objects),
      * checks availability, sets borrowDate/dueDate, decreases availableCopies,
-     * assigns record id and stores it.
+     * assigns record id and stores it. The availability check and the decrement run
+     * atomically under the book's stripe lock, so copies can never be oversold.
      */
     public Optional<BorrowingRecord> borrowBook(BorrowingRecord record) {
-        if (record == null || record.getBook() == null || record.getMember() == null) {
+        if (record == null || record.bookId() == BorrowingRecord.NO_ID || record.memberId() == BorrowingRecord.NO_ID) {
             return Optional.empty();
         }
+        return Optional.ofNullable(lend(record, record.bookId(), record.memberId()));
+    }
+
+    /**
+     * Borrow by ids, as borrowBook does; the new record, or null when the book or member does not
+     * exist or no copy is available. The hot path of POST /api/borrow: it allocates only the record.
+     */
+    public BorrowingRecord borrow(long bookId, long memberId) {
+        return lend(new BorrowingRecord(), bookId, memberId);
+    }
+
+    // Fill in and store `record` as a loan of the book to the member; null if refused.
+    // The record is stored in this shard, which the sharded service picks to be the book's.
+    private BorrowingRecord lend(BorrowingRecord record, long bookId, long memberId) {
+        Member member = home(memberId).members.get(memberId);
+        if (member == null) {
+            return null;
+        }
 
-        Long bookId = record.getBook().getId();
-        Long memberId = record.getMember().getId();
-        if (bookId == null || memberId == null) {
-            return Optional.empty();
+        LibraryService bookShard = home(bookId);
+        long seq;
+        ReentrantLock lock = bookShard.bookLocks.forId(bookId);
+        lockBook(lock);
+        try {
+            Book book = bookShard.books.get(bookId);
+            if (book == null || book.getAvailableCopies() <= 0) {
+                return null;
+            }
+
+            // Business rules: set dates and decrease availableCopies
+            DayClock.Day today = dayClock.today();
+            record.setId(recordIds.next());
+            record.setBorrowDate(today.date());
+            record.setDueDate(today.dueDate());
+            record.setBook(book);
+            record.setMember(member);
+
+            int copies = book.getAvailableCopies() - 1;
+            book.setAvailableCopies(copies);
+            bookShard.stats.copiesChanged(-1);
+            bookShard.bookVersions.bump(bookId);
+            storeRecord(record.getId(), bookId, memberId, today.day(), today.dueDay(), LoanLedger.NO_DAY);
+            seq = mutationLog.append(Mutation.borrow(record, copies));
+        } finally {
+            lock.unlock();
         }
+        mutationLog.awaitDurable(seq);
+        return record;
+    }
+
+    /**
+     * Return a book: find record, set returnDate, increase availableCopies.
+     * Runs under the book's stripe lock so a record can only be returned once and the
+     * copy is credited to the book currently stored under that id.
+     */
+    public Optional<BorrowingRecord> returnBook(Long recordId) {
+        return recordId == null ? Optional.empty() : Optional.ofNullable(returnLoan(recordId));
+    }
 
-        Optional<Book> bookOpt = getBookById(bookId);
-        Optional<Member> memberOpt = getMemberById(memberId);
+    // returnBook by primitive id: the record (also when already returned), or null when there is no such record
+    public BorrowingRecord returnLoan(long recordId) {
+        LibraryService owner = home(recordId);
+        LoanLedger records = owner.ledger;
+        if (!records.contains(recordId)) {
+            return null;
+        }
+        long bookId = records.bookId(recordId);
+        if (bookId == BorrowingRecord.NO_ID) {
+            return owner.toRecord(recordId);
+        }
+        LibraryService bookShard = home(bookId);
+        BorrowingRecord rec;
+        long seq;
+        ReentrantLock lock = bookShard.bookLocks.forId(bookId);
+        lockBook(lock);
+        try {
+            DayClock.Day today = dayClock.today();
+            if (!records.markReturned(recordId, today.day())) {
+                // already returned
+                return owner.toRecord(recordId);
+            }
+            closeRecord(recordId, records.memberId(recordId), records.dueDay(recordId));
+            rec = owner.toRecord(recordId);
+            Book book = bookShard.books.get(bookId);
+            Integer copies = null;
+            if (book != null) {
+                copies = book.getAvailableCopies() + 1;
+                book.setAvailableCopies(copies);
+                bookShard.stats.copiesChanged(1);
+                bookShard.bookVersions.bump(bookId);
+            }
+            seq = mutationLog.append(Mutation.returned(rec, copies));
+        } finally {
+            lock.unlock();
+        }
+        mutationLog.awaitDurable(seq);
+        return rec;
+    }
 
-        if (!bookOpt.isPresent() || !memberOpt.isPresent()) {
+    /**
+     * Borrow several books for one member atomically: either every book is lent or none is.
+     * The member is resolved once; the stripes of all the books are then locked in ascending
+     * order (so concurrent batches cannot deadlock), availability is checked for the whole
+     * batch (a book listed twice needs two copies) and only then are the records created.
+     * Each record is stored in the shard of its book.
+     */
+    @Timed(TIMER)
+    public Optional<List<BorrowingRecord>> borrowBooks(Long memberId, List<Long> bookIdList) {
+        if (memberId == null || bookIdList == null || bookIdList.isEmpty()
+                || bookIdList.stream().anyMatch(Objects::isNull)) {
+            return Optional.empty();
+        }
+        Member member = home(memberId).members.get(memberId);
+        if (member == null) {
             return Optional.empty();
         }
+        List<BorrowingRecord> created = new ArrayList<>(bookIdList.size());
+        long seq = 0;
+        ReentrantLock[] locks = lockBooks(bookIdList);
+        try {
+            Map<Long, Integer> wanted = new HashMap<>();
+            for (Long bookId : bookIdList) {
+                wanted.merge(bookId, 1, Integer::sum);
+            }
+            for (Map.Entry<Long, Integer> e : wanted.entrySet()) {
+                Book book = home(e.getKey()).books.get(e.getKey());
+                if (book == null || book.getAvailableCopies() < e.getValue()) {
+                    return Optional.empty();
+                }
+            }
+
+            DayClock.Day today = dayClock.today();
+            for (Long bookId : bookIdList) {
+                LibraryService bookShard = home(bookId);
+                Book book = bookShard.books.get(bookId);
+                BorrowingRecord record = new BorrowingRecord(book, member, today.date(), today.dueDate());
+                record.setId(bookShard.recordIds.next());
+                book.setAvailableCopies(book.getAvailableCopies() - 1);
+                bookShard.stats.copiesChanged(-1);
+                bookShard.bookVersions.bump(bookId);
+                storeRecord(record.getId(), bookId, memberId, today.day(), today.dueDay(), LoanLedger.NO_DAY);
+                seq = mutationLog.append(Mutation.borrow(record, book.getAvailableCopies()));
+                created.add(record);
+            }
+        } finally {
+            unlockAll(locks);
+        }
+        mutationLog.awaitDurable(seq);
+        return Optional.of(created);
+    }
 
-        Book book = bookOpt.get();
-        if (book.getAvailableCopies() <= 0) {
+    /**
+     * Return several records atomically. Empty if any record is unknown, in which case nothing is
+     * returned; records already returned are left as they are (like returnBook). Locks the stripes
+     * of all the records' books in ascending order, as borrowBooks does.
+     */
+    @Timed(TIMER)
+    public Optional<List<BorrowingRecord>> returnBooks(List<Long> recordIdList) {
+        if (recordIdList == null || recordIdList.isEmpty() || recordIdList.stream().anyMatch(Objects::isNull)) {
             return Optional.empty();
         }
+        List<Long> bookIdList = new ArrayList<>(recordIdList.size());
+        for (Long recordId : recordIdList) {
+            LoanLedger records = home(recordId).ledger;
+            if (!records.contains(recordId)) {
+                return Optional.empty();
+            }
+            long bookId = records.bookId(recordId);
+            if (bookId != BorrowingRecord.NO_ID) {
+                bookIdList.add(bookId);
+            }
+        }
+        List<BorrowingRecord> records = new ArrayList<>(recordIdList.size());
+        long seq = 0;
+        ReentrantLock[] locks = lockBooks(bookIdList);
+        try {
+            int today = dayClock.today().day();
+            for (Long recordId : recordIdList) {
+                LibraryService owner = home(recordId);
+                long bookId = owner.ledger.bookId(recordId);
+                if (bookId == BorrowingRecord.NO_ID || !owner.ledger.markReturned(recordId, today)) {
+                    records.add(owner.toRecord(recordId));
+                    continue;
+                }
+                closeRecord(recordId, owner.ledger.memberId(recordId), owner.ledger.dueDay(recordId));
+                BorrowingRecord record = owner.toRecord(recordId);
+                records.add(record);
+                LibraryService bookShard = home(bookId);
+                Book book = bookShard.books.get(bookId);
+                if (book != null) {
+                    book.setAvailableCopies(book.getAvailableCopies() + 1);
+                    bookShard.stats.copiesChanged(1);
+                    bookShard.bookVersions.bump(bookId);
+                }
+                seq = mutationLog.append(Mutation.returned(record, book != null ? book.getAvailableCopies() : null));
+            }
+        } finally {
+            unlockAll(locks);
+        }
+        mutationLog.awaitDurable(seq);
+        return Optional.of(records);
+    }
+
+    // The shard owning an id: this service unless it is one shard of a ShardedLibraryService
+    private LibraryService home(long id) {
+        return shards == null ? this : shards[Math.floorMod(id, shards.length)];
+    }
+
+    // Lock the stripes of the books in their home shards, ordered by (shard, stripe) so that two batches
+    // can never each hold a stripe the other is waiting for; returns the locks for unlockAll
+    private ReentrantLock[] lockBooks(List<Long> bookIdList) {
+        long[] keys = bookIdList.stream()
+                .mapToLong(id -> {
+                    LibraryService bookShard = home(id);
+                    return (long) bookShard.shard << 32 | bookShard.bookLocks.indexFor(id);
+                })
+                .distinct().sorted().toArray();
+        ReentrantLock[] locks = new ReentrantLock[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            LibraryService bookShard = shards == null ? this : shards[(int) (keys[i] >>> 32)];
+            locks[i] = bookShard.bookLocks.at((int) keys[i]);
+            locks[i].lock();
+        }
+        return locks;
+    }
+
+    private static void unlockAll(ReentrantLock[] locks) {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    // Take a book stripe on the borrow/return path, counting the acquisitions that had to wait
+    private void lockBook(ReentrantLock lock) {
+        if (lock.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        bookLockContended.increment();
+        bookLockWaitNanos.add(System.nanoTime() - start);
+    }
+
+    // Store a record in the ledger and add it to the history indexes (and the open-loan ones while
+    // not returned). Days are epoch days or LoanLedger.NO_DAY. Caller holds the stripe of the record's book.
+    // When sharded, the ledger and due dates belong to the record's shard, the per-book history to the
+    // book's and the per-member history and open-loan counts to the member's.
+    private void storeRecord(long id, long bookId, long memberId, int borrowDay, int dueDay, int returnDay) {
+        LibraryService owner = home(id);
+        boolean added = !owner.ledger.contains(id);
+        owner.ledger.put(id, bookId, memberId, borrowDay, dueDay, returnDay);
+        boolean hasMember = memberId != BorrowingRecord.NO_ID;
+        LibraryService memberShard = hasMember ? home(memberId) : owner;
+        if (bookId != BorrowingRecord.NO_ID) {
+            LibraryService bookShard = home(bookId);
+            if (added) {
+                bookShard.stats.loanRecorded(bookId);
+            }
+            bookShard.recordsByBook.add(bookId, id);
+        }
+        if (hasMember) {
+            memberShard.recordsByMember.add(memberId, id);
+        }
+        if (returnDay == LoanLedger.NO_DAY) {
+            memberShard.stats.loanOpened(hasMember ? memberId : null);
+            if (hasMember) {
+                memberShard.openLoansByMember.add(memberId, id);
+            }
+            if (dueDay != LoanLedger.NO_DAY) {
+                owner.openLoansByDueDate.add(dueDay, id);
+            }
+        }
+    }
+
+    // Drop a returned record from the open-loan indexes. Caller holds the stripe of the record's book.
+    private void closeRecord(long id, long memberId, int dueDay) {
+        boolean hasMember = memberId != BorrowingRecord.NO_ID;
+        LibraryService memberShard = hasMember ? home(memberId) : home(id);
+        memberShard.stats.loanClosed(hasMember ? memberId : null);
+        if (hasMember) {
+            memberShard.openLoansByMember.remove(memberId, id);
+        }
+        if (dueDay != LoanLedger.NO_DAY) {
+            home(id).openLoansByDueDate.remove(dueDay, id);
+        }
+    }
+
+    // ==================== Statistics ====================
+
+    // Catalog and loan statistics from the incrementally maintained counters, with the `top` most borrowed books
+    @Timed(TIMER)
+    public LibraryStats getStatistics(int top) {
+        long memberCount = members.size();
+        long activeLoans = stats.getActiveLoans();
+        long totalLoans = stats.getTotalLoans();
+        long availableCopies = stats.getAvailableCopies();
+        List<LibraryStats.TopBook> mostBorrowed = new ArrayList<>(top);
+        for (TopKSketch.Item item : stats.getBorrowsPerBook().top(top)) {
+            Book book = books.get(item.id());
+            mostBorrowed.add(new LibraryStats.TopBook(item.id(), book != null ? book.getTitle() : null,
+                    item.count(), item.error()));
+        }
+        return new LibraryStats(books.size(), memberCount, availableCopies, availableCopies + activeLoans,
+                activeLoans, totalLoans, stats.getMembersWithActiveLoans(),
+                memberCount == 0 ? 0 : (double) totalLoans / memberCount, stats.getBooksPerGenre(), mostBorrowed);
+    }
+
+    // ==================== Metrics ====================
+
+    public int getBookCount() {
+        return books.size();
+    }
+
+    public int getMemberCount() {
+        return members.size();
+    }
+
+    public int getBorrowingRecordCount() {
+        return ledger.size();
+    }
+
+    public long getActiveLoanCount() {
+        return stats.getActiveLoans();
+    }
+
+    public long getBookLockContendedCount() {
+        return bookLockContended.sum();
+    }
+
+    public long getBookLockWaitNanos() {
+        return bookLockWaitNanos.sum();
+    }
+
+    // Off-heap bytes the book store holds for replaced titles and deleted books; 0 for heap storage
+    public long getBookStoreWastedBytes() {
+        return books instanceof OffHeapBookStore store ? store.wastedOffHeapBytes() : 0;
+    }
+
+    // ==================== Batch helpers ====================
+
+    // Give every item without an id one from a single block reservation; keep generators clear of the others
+    private static <T> void assignIds(List<T> items, IdGenerator ids, Function<T, Long> idOf, BiConsumer<T, Long> setId) {
+        int missing = 0;
+        for (T item : items) {
+            Long id = idOf.apply(item);
+            if (id == null) {
+                missing++;
+            } else {
+                ids.advancePast(id);
+            }
+        }
+        if (missing == 0) {
+            return;
+        }
+        long next = ids.nextBlock(missing);
+        for (T item : items) {
+            if (idOf.apply(item) == null) {
+                setId.accept(item, next);
+                next += ids.stride();
+            }
+        }
+    }
+
+    // Group items by lock stripe and run `apply` on each group under one acquisition of its lock.
+    // Items of the same stripe keep their order. Returns the highest log sequence number appended.
+    private static <T> long applyByStripe(List<T> items, StripedLocks locks, Function<T, Long> idOf,
+            ToLongFunction<T> apply) {
+        List<List<T>> byStripe = new ArrayList<>(Collections.nCopies(locks.size(), null));
+        for (T item : items) {
+            int stripe = locks.indexFor(idOf.apply(item));
+            List<T> group = byStripe.get(stripe);
+            if (group == null) {
+                group = new ArrayList<>();
+                byStripe.set(stripe, group);
+            }
+            group.add(item);
+        }
+        long seq = 0;
+        for (int stripe = 0; stripe < byStripe.size(); stripe++) {
+            List<T> group = byStripe.get(stripe);
+            if (group == null) {
+                continue;
+            }
+            ReentrantLock lock = locks.at(stripe);
+            lock.lock();
+            try {
+                for (T item : group) {
+                    seq = Math.max(seq, apply.applyAsLong(item));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return seq;
+    }
 
-        // Business rules: set dates and decrease availableCopies
-        record.setId(nextRecordId++);
-        record.setBorrowDate(LocalDate.now());
-        record.setDueDate(LocalDate.now().plusDays(14));
-        record.setBook(book);
-        record.setMember(memberOpt.get());
+    // ==================== Recovery (used by persistence) ====================
+
+    // Next id each generator would hand out; saved with snapshots so ids of deleted entities are never reused
+    public long getNextBookId() {
+        return bookIds.peek();
+    }
+
+    public long getNextMemberId() {
+        return memberIds.peek();
+    }
+
+    public long getNextRecordId() {
+        return recordIds.peek();
+    }
 
-        book.setAvailableCopies(book.getAvailableCopies() - 1);
-        borrowingRecords.add(record);
-        return Optional.of(record);
+    public void reserveIdsBelow(long nextBookId, long nextMemberId, long nextRecordId) {
+        bookIds.advancePast(nextBookId - 1);
+        memberIds.advancePast(nextMemberId - 1);
+        recordIds.advancePast(nextRecordId - 1);
     }
 
     /**
-     * Return a book: find record, set returnDate, increase availableCopies.
+     * Apply a logged mutation during recovery. The entry carries the resulting state, so applying it
+     * is idempotent and never runs business rules (dates, availability) again. Not logged itself.
      */
-    public Optional<BorrowingRecord> returnBook(Long recordId) {
-        Optional<BorrowingRecord> recOpt = getBorrowingRecordById(recordId);
-        if (!recOpt.isPresent()) {
-            return Optional.empty();
+    public void applyMutation(Mutation m) {
+        switch (m.type()) {
+            case BOOK_PUT -> {
+                Book book = m.book();
+                bookIds.advancePast(book.getId());
+                withLock(bookLocks, book.getId(), () -> reindexBook(books.put(book.getId(), book), book));
+            }
+            case BOOK_DELETE -> withLock(bookLocks, m.id(), () -> {
+                Book removed = books.remove(m.id());
+                if (removed != null) {
+                    reindexBook(removed, null);
+                }
+            });
+            case MEMBER_PUT -> {
+                Member member = m.member();
+                memberIds.advancePast(member.getId());
+                withLock(memberLocks, member.getId(), () -> {
+                    members.put(member.getId(), member);
+                    memberVersions.bump(member.getId());
+                });
+            }
+            case MEMBER_DELETE -> withLock(memberLocks, m.id(), () -> {
+                members.remove(m.id());
+                memberVersions.remove(m.id());
+            });
+            case BORROW, RECORD_PUT -> {
+                long bookId = m.bookId() != null ? m.bookId() : BorrowingRecord.NO_ID;
+                home(m.id()).recordIds.advancePast(m.id());
+                withLock(home(bookId).bookLocks, bookId, () -> {
+                    long id = m.id();
+                    LoanLedger records = home(id).ledger;
+                    if (records.contains(id) && !records.isReturned(id)) {
+                        closeRecord(id, records.memberId(id), records.dueDay(id));
+                    }
+                    long memberId = m.memberId() != null ? m.memberId() : BorrowingRecord.NO_ID;
+                    storeRecord(id, bookId, memberId, LoanLedger.day(m.borrowDate()), LoanLedger.day(m.dueDate()),
+                            LoanLedger.day(m.returnDate()));
+                    applyCopies(m);
+                });
+            }
+            case RETURN -> {
+                long bookId = m.bookId() != null ? m.bookId() : BorrowingRecord.NO_ID;
+                withLock(home(bookId).bookLocks, bookId, () -> {
+                    long id = m.id();
+                    LoanLedger records = home(id).ledger;
+                    if (records.contains(id) && records.markReturned(id, LoanLedger.day(m.returnDate()))) {
+                        closeRecord(id, records.memberId(id), records.dueDay(id));
+                    }
+                    applyCopies(m);
+                });
+            }
+            case OVERDUE_SWEPT -> overdueReportedUntil.accumulateAndGet(m.dueDate().toEpochDay() + 1, Math::max);
         }
-        BorrowingRecord rec = recOpt.get();
-        if (rec.getReturnDate() != null) {
-            // already returned
-            return Optional.of(rec);
+    }
+
+    private void applyCopies(Mutation m) {
+        if (m.bookId() == null) {
+            return;
         }
-        rec.setReturnDate(LocalDate.now());
-        Book book = rec.getBook();
-        if (book != null) {
-            book.setAvailableCopies(book.getAvailableCopies() + 1);
+        LibraryService bookShard = home(m.bookId());
+        Book book = bookShard.books.get(m.bookId());
+        if (book != null && m.copies() != null) {
+            bookShard.stats.copiesChanged(m.copies() - book.getAvailableCopies());
+            book.setAvailableCopies(m.copies());
+            bookShard.bookVersions.bump(book.getId());
+        }
+    }
+
+    private static void withLock(StripedLocks locks, long id, Runnable action) {
+        ReentrantLock lock = locks.forId(id);
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
         }
-        return Optional.of(rec);
     }
 }
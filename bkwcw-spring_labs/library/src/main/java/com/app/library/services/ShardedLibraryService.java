@@ -0,0 +1,533 @@
+package com.app.library.services;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.app.library.persistence.Mutation;
+import com.app.library.persistence.MutationLog;
+import com.app.library.search.BookQuery;
+import com.app.library.search.FullTextIndex;
+import com.app.library.stats.LibraryStats;
+import com.app.library.storage.EntityStore;
+import com.app.library.storage.IdIndex;
+import com.app.library.storage.StorageConfiguration;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Responsibility: the library partitioned into `library.shards` independent LibraryService shards,
+ * used in place of a single LibraryService when there is more than one shard.
+ *
+ * Books, members and records belong to the shard id % shards. Each shard has its own primary and
+ * secondary indexes, stripe locks, id generators, counters and loan ledger, so writes to different
+ * shards share nothing. Ids are generated by the shard that stores the entity (lane `shard` of
+ * `shards`, see IdGenerator), so every id routes without a lookup; new entities without an id go to
+ * a random shard.
+ *
+ * A borrow runs on the book's shard: the member is read (without locking) from its shard, and the
+ * record is created in the book's shard under the book's stripe, so a borrow takes one lock however
+ * the book and member are placed; the member's history and open-loan counts are updated in the
+ * member's shard. Batches lock the stripes of all their books, across shards, in one global order.
+ * Lookups by id go to one shard; listings, searches and statistics ask every shard and merge.
+ */
+@Service
+@ConditionalOnExpression("${library.shards:1} > 1")
+public class ShardedLibraryService extends LibraryService {
+
+    // Entities fetched per shard at a time when streaming all of them in id order
+    private static final int MERGE_PAGE = 1024;
+
+    private final LibraryService[] shards;
+
+    @Autowired
+    public ShardedLibraryService(@Value("${library.shards}") int shards,
+            @Value("${library.storage.books:heap}") String engine) {
+        this(shards, () -> StorageConfiguration.newBookStore(engine));
+    }
+
+    // Shards with heap book stores
+    public ShardedLibraryService(int shards) {
+        this(shards, IdIndex::new);
+    }
+
+    public ShardedLibraryService(int shards, Supplier<EntityStore<Book>> bookStores) {
+        // the inherited state is never used: every operation goes to the shards
+        super(new IdIndex<>());
+        if (shards < 1) {
+            throw new IllegalArgumentException("library.shards must be at least 1: " + shards);
+        }
+        this.shards = new LibraryService[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new LibraryService(bookStores.get(), i, this.shards);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public void setMutationLog(MutationLog mutationLog) {
+        for (LibraryService shard : shards) {
+            shard.setMutationLog(mutationLog);
+        }
+    }
+
+    // All shards share one log
+    @Override
+    public MutationLog getMutationLog() {
+        return shards[0].getMutationLog();
+    }
+
+    // ==================== Books ====================
+
+    @Override
+    public List<Book> getAllBooks() {
+        return concat(LibraryService::getAllBooks, Comparator.comparing(Book::getId), Integer.MAX_VALUE);
+    }
+
+    @Override
+    @Timed(TIMER)
+    public List<Book> getBooksPage(Long after, int limit) {
+        return concat(shard -> shard.getBooksPage(after, limit), Comparator.comparing(Book::getId), limit);
+    }
+
+    @Override
+    public void forEachBook(Consumer<? super Book> action) {
+        forEachInIdOrder(LibraryService::getBooksPage, Book::getId, action);
+    }
+
+    @Override
+    public Optional<Book> getBookById(Long id) {
+        return id == null ? Optional.empty() : shardFor(id).getBookById(id);
+    }
+
+    @Override
+    @Timed(TIMER)
+    public Book addBook(Book book) {
+        return shardForNew(book.getId()).addBook(book);
+    }
+
+    @Override
+    @Timed(TIMER)
+    public List<Book> addBooks(List<Book> batch) {
+        splitByShard(batch, Book::getId).forEach((shard, books) -> shards[shard].addBooks(books));
+        return batch;
+    }
+
+    @Override
+    @Timed(TIMER)
+    public Optional<Book> updateBook(Book updatedBook) {
+        return updatedBook.getId() == null ? Optional.empty() : shardFor(updatedBook.getId()).updateBook(updatedBook);
+    }
+
+    @Override
+    @Timed(TIMER)
+    public boolean deleteBook(Long id) {
+        return id != null && shardFor(id).deleteBook(id);
+    }
+
+    @Override
+    public long getBookVersion(long id) {
+        return shardFor(id).getBookVersion(id);
+    }
+
+    // Each shard returns its first `limit` matches; which index a shard walks depends on its data, so merge by id
+    @Override
+    @Timed(TIMER)
+    public List<Book> searchBooks(BookQuery query, int limit) {
+        return concat(shard -> shard.searchBooks(query, limit), Comparator.comparing(Book::getId), limit);
+    }
+
+    // Scores use each shard's own term statistics; with ids spread evenly these are close to global ones
+    @Override
+    @Timed(TIMER)
+    public List<Book> fullTextSearch(String query, int limit) {
+        List<FullTextIndex.Hit> hits = concat(shard -> shard.fullTextHits(query, limit),
+                Comparator.comparingDouble(FullTextIndex.Hit::score).reversed(), limit);
+        List<Book> result = new ArrayList<>(hits.size());
+        for (FullTextIndex.Hit hit : hits) {
+            result.add(hit.book());
+        }
+        return result;
+    }
+
+    // ==================== Members ====================
+
+    @Override
+    public List<Member> getAllMembers() {
+        return concat(LibraryService::getAllMembers, Comparator.comparing(Member::getId), Integer.MAX_VALUE);
+    }
+
+    @Override
+    @Timed(TIMER)
+    public List<Member> getMembersPage(Long after, int limit) {
+        return concat(shard -> shard.getMembersPage(after, limit), Comparator.comparing(Member::getId), limit);
+    }
+
+    @Override
+    public void forEachMember(Consumer<? super Member> action) {
+        forEachInIdOrder(LibraryService::getMembersPage, Member::getId, action);
+    }
+
+    @Override
+    public Optional<Member> getMemberById(Long id) {
+        return id == null ? Optional.empty() : shardFor(id).getMemberById(id);
+    }
+
+    @Override
+    @Timed(TIMER)
+    public Member addMember(Member member) {
+        return shardForNew(member.getId()).addMember(member);
+    }
+
+    @Override
+    public long getMemberVersion(long id) {
+        return shardFor(id).getMemberVersion(id);
+    }
+
+    @Override
+    @Timed(TIMER)
+    public List<Member> addMembers(List<Member> batch) {
+        splitByShard(batch, Member::getId).forEach((shard, members) -> shards[shard].addMembers(members));
+        return batch;
+    }
+
+    @Override
+    @Timed(TIMER)
+    public Optional<Member> updateMember(Member updatedMember) {
+        return updatedMember.getId() == null ? Optional.empty()
+                : shardFor(updatedMember.getId()).updateMember(updatedMember);
+    }
+
+    @Override
+    @Timed(TIMER)
+    public boolean deleteMember(Long id) {
+        return id != null && shardFor(id).deleteMember(id);
+    }
+
+    // ==================== Borrowing records ====================
+
+    @Override
+    public List<BorrowingRecord> getAllBorrowingRecords() {
+        return concat(LibraryService::getAllBorrowingRecords, Comparator.comparing(BorrowingRecord::getId),
+                Integer.MAX_VALUE);
+    }
+
+    @Override
+    @Timed(TIMER)
+    public List<BorrowingRecord> getBorrowingRecordsPage(Long after, int limit) {
+        return concat(shard -> shard.getBorrowingRecordsPage(after, limit),
+                Comparator.comparing(BorrowingRecord::getId), limit);
+    }
+
+    @Override
+    public void forEachBorrowingRecord(Consumer<? super BorrowingRecord> action) {
+        forEachInIdOrder(LibraryService::getBorrowingRecordsPage, BorrowingRecord::getId, action);
+    }
+
+    @Override
+    public Optional<BorrowingRecord> getBorrowingRecordById(Long id) {
+        return id == null ? Optional.empty() : shardFor(id).getBorrowingRecordById(id);
+    }
+
+    // The member's shard indexes its history, wherever the records are stored
+    @Override
+    @Timed(TIMER)
+    public List<BorrowingRecord> getMemberRecords(long memberId, Long after, int limit, boolean openOnly) {
+        return shardFor(memberId).getMemberRecords(memberId, after, limit, openOnly);
+    }
+
+    @Override
+    @Timed(TIMER)
+    public List<BorrowingRecord> getBookRecords(long bookId, Long after, int limit) {
+        return shardFor(bookId).getBookRecords(bookId, after, limit);
+    }
+
+    @Override
+    @Timed(TIMER)
+    public List<BorrowingRecord> getOverdueRecords(LocalDate today, int limit) {
+        return concat(shard -> shard.getOverdueRecords(today, limit),
+                Comparator.comparing(BorrowingRecord::getDueDate), limit);
+    }
+
+    // Shard by shard: loans come earliest due date first within each shard
+    @Override
+    public void forEachOpenLoanDueBetween(LocalDate from, LocalDate to, Consumer<? super BorrowingRecord> action) {
+        for (LibraryService shard : shards) {
+            shard.forEachOpenLoanDueBetween(from, to, action);
+        }
+    }
+
+    // The overdue watermark is global and kept by shard 0
+    @Override
+    public LocalDate getOverdueReportedUntil() {
+        return shards[0].getOverdueReportedUntil();
+    }
+
+    @Override
+    public void setOverdueReportedUntil(LocalDate day) {
+        shards[0].setOverdueReportedUntil(day);
+    }
+
+    @Override
+    public Optional<BorrowingRecord> borrowBook(BorrowingRecord record) {
+        if (record == null || record.bookId() == BorrowingRecord.NO_ID) {
+            return Optional.empty();
+        }
+        return shardFor(record.bookId()).borrowBook(record);
+    }
+
+    @Override
+    public BorrowingRecord borrow(long bookId, long memberId) {
+        return shardFor(bookId).borrow(bookId, memberId);
+    }
+
+    @Override
+    public Optional<BorrowingRecord> returnBook(Long recordId) {
+        return recordId == null ? Optional.empty() : shardFor(recordId).returnBook(recordId);
+    }
+
+    @Override
+    public BorrowingRecord returnLoan(long recordId) {
+        return shardFor(recordId).returnLoan(recordId);
+    }
+
+    // Batches may span shards; the member's shard runs it and locks the books wherever they are
+    @Override
+    @Timed(TIMER)
+    public Optional<List<BorrowingRecord>> borrowBooks(Long memberId, List<Long> bookIdList) {
+        return (memberId != null ? shardFor(memberId) : shards[0]).borrowBooks(memberId, bookIdList);
+    }
+
+    @Override
+    @Timed(TIMER)
+    public Optional<List<BorrowingRecord>> returnBooks(List<Long> recordIdList) {
+        Long first = recordIdList == null || recordIdList.isEmpty() ? null : recordIdList.get(0);
+        return (first != null ? shardFor(first) : shards[0]).returnBooks(recordIdList);
+    }
+
+    // ==================== Statistics and metrics ====================
+
+    // The shards' statistics added up. Each book's borrows are counted in its own shard, so the
+    // most borrowed books of the shards merge into the overall ones
+    @Override
+    @Timed(TIMER)
+    public LibraryStats getStatistics(int top) {
+        long books = 0, members = 0, available = 0, total = 0, active = 0, loans = 0, borrowers = 0;
+        Map<String, Long> perGenre = new TreeMap<>();
+        List<LibraryStats.TopBook> mostBorrowed = new ArrayList<>();
+        for (LibraryService shard : shards) {
+            LibraryStats s = shard.getStatistics(top);
+            books += s.books();
+            members += s.members();
+            available += s.availableCopies();
+            total += s.totalCopies();
+            active += s.activeLoans();
+            loans += s.totalLoans();
+            borrowers += s.membersWithActiveLoans();
+            s.booksPerGenre().forEach((genre, count) -> perGenre.merge(genre, count, Long::sum));
+            mostBorrowed.addAll(s.mostBorrowed());
+        }
+        mostBorrowed.sort(Comparator.comparingLong(LibraryStats.TopBook::borrows).reversed());
+        return new LibraryStats(books, members, available, total, active, loans, borrowers,
+                members == 0 ? 0 : (double) loans / members, perGenre,
+                new ArrayList<>(mostBorrowed.subList(0, Math.min(top, mostBorrowed.size()))));
+    }
+
+    @Override
+    public int getBookCount() {
+        return (int) sum(LibraryService::getBookCount);
+    }
+
+    @Override
+    public int getMemberCount() {
+        return (int) sum(LibraryService::getMemberCount);
+    }
+
+    @Override
+    public int getBorrowingRecordCount() {
+        return (int) sum(LibraryService::getBorrowingRecordCount);
+    }
+
+    @Override
+    public long getActiveLoanCount() {
+        return sum(LibraryService::getActiveLoanCount);
+    }
+
+    @Override
+    public long getBookLockContendedCount() {
+        return sum(LibraryService::getBookLockContendedCount);
+    }
+
+    @Override
+    public long getBookLockWaitNanos() {
+        return sum(LibraryService::getBookLockWaitNanos);
+    }
+
+    @Override
+    public long getBookStoreWastedBytes() {
+        return sum(LibraryService::getBookStoreWastedBytes);
+    }
+
+    // ==================== Recovery ====================
+
+    // The highest next id of any shard: every id below it is taken or skipped in every lane
+    @Override
+    public long getNextBookId() {
+        return max(LibraryService::getNextBookId);
+    }
+
+    @Override
+    public long getNextMemberId() {
+        return max(LibraryService::getNextMemberId);
+    }
+
+    @Override
+    public long getNextRecordId() {
+        return max(LibraryService::getNextRecordId);
+    }
+
+    @Override
+    public void reserveIdsBelow(long nextBookId, long nextMemberId, long nextRecordId) {
+        for (LibraryService shard : shards) {
+            shard.reserveIdsBelow(nextBookId, nextMemberId, nextRecordId);
+        }
+    }
+
+    // Entries go to the shard of the entity they change (the record for loans)
+    @Override
+    public void applyMutation(Mutation m) {
+        if (m.type() == Mutation.Type.OVERDUE_SWEPT) {
+            shards[0].applyMutation(m);
+            return;
+        }
+        long id = switch (m.type()) {
+            case BOOK_PUT -> m.book().getId();
+            case MEMBER_PUT -> m.member().getId();
+            default -> m.id();
+        };
+        shardFor(id).applyMutation(m);
+    }
+
+    // ==================== Routing ====================
+
+    // The shard owning an id
+    private LibraryService shardFor(long id) {
+        return shards[Math.floorMod(id, shards.length)];
+    }
+
+    // The shard for a new entity: its owner, or a random shard when it has no id yet
+    private LibraryService shardForNew(Long id) {
+        return id != null ? shardFor(id) : shards[ThreadLocalRandom.current().nextInt(shards.length)];
+    }
+
+    // Items with an id grouped by their shard; items without one are dealt out round-robin
+    private <T> Map<Integer, List<T>> splitByShard(List<T> items, Function<T, Long> idOf) {
+        Map<Integer, List<T>> byShard = new TreeMap<>();
+        int next = ThreadLocalRandom.current().nextInt(shards.length);
+        for (T item : items) {
+            Long id = idOf.apply(item);
+            int shard = id != null ? Math.floorMod(id, shards.length) : next++ % shards.length;
+            byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(item);
+        }
+        return byShard;
+    }
+
+    // Every shard's results, sorted (stably) by `order` and cut to `limit`
+    private <T> List<T> concat(Function<LibraryService, List<T>> query, Comparator<? super T> order, int limit) {
+        List<T> result = new ArrayList<>();
+        for (LibraryService shard : shards) {
+            result.addAll(query.apply(shard));
+        }
+        result.sort(order);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private long sum(ToLongFunction<LibraryService> counter) {
+        long sum = 0;
+        for (LibraryService shard : shards) {
+            sum += counter.applyAsLong(shard);
+        }
+        return sum;
+    }
+
+    private long max(ToLongFunction<LibraryService> value) {
+        long max = Long.MIN_VALUE;
+        for (LibraryService shard : shards) {
+            max = Math.max(max, value.applyAsLong(shard));
+        }
+        return max;
+    }
+
+    // Reads one keyset page of a shard
+    private interface PageReader<T> {
+        List<T> page(LibraryService shard, Long after, int limit);
+    }
+
+    // Visit the entities of all shards in id order: a k-way merge over keyset pages of each shard,
+    // so only one page per shard is held at a time
+    private <T> void forEachInIdOrder(PageReader<T> reader, ToLongFunction<T> idOf, Consumer<? super T> action) {
+        final class Cursor {
+            final LibraryService shard;
+            List<T> page;
+            int next;
+
+            Cursor(LibraryService shard) {
+                this.shard = shard;
+                this.page = reader.page(shard, null, MERGE_PAGE);
+            }
+
+            T current() {
+                return page.get(next);
+            }
+
+            // Move to the next entity; false when the shard has no more
+            boolean advance() {
+                if (++next < page.size()) {
+                    return true;
+                }
+                if (page.size() < MERGE_PAGE) {
+                    return false;
+                }
+                page = reader.page(shard, idOf.applyAsLong(page.get(page.size() - 1)), MERGE_PAGE);
+                next = 0;
+                return !page.isEmpty();
+            }
+        }
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(
+                Comparator.comparingLong((Cursor c) -> idOf.applyAsLong(c.current())));
+        for (LibraryService shard : shards) {
+            Cursor cursor = new Cursor(shard);
+            if (!cursor.page.isEmpty()) {
+                heads.add(cursor);
+            }
+        }
+        while (!heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            action.accept(cursor.current());
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.app.library.stats;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.app.library.models.Book;
+
+/**
+ * Stats: CatalogStats
+ * Responsibility: catalog and loan counters kept up to date by LibraryService on every mutation,
+ * so reading them never scans the data. Counters are LongAdders (striped internally), so hot
+ * borrow/return paths on different books do not contend on a shared counter.
+ * Callers hold the lock of the entity being changed; this class only needs to be additive.
+ */
+public class CatalogStats {
+
+    private static final String NO_GENRE = "(none)";
+
+    private final LongAdder availableCopies = new LongAdder();
+    private final LongAdder activeLoans = new LongAdder();
+    private final LongAdder totalLoans = new LongAdder();
+    private final LongAdder membersWithActiveLoans = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> booksPerGenre = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicInteger> openLoansPerMember = new ConcurrentHashMap<>();
+    private final TopKSketch borrowsPerBook = new TopKSketch(16, 64);
+
+    // A book stored, replaced or removed: `previous` and `current` may each be null
+    public void bookReplaced(Book previous, Book current) {
+        if (previous != null) {
+            availableCopies.add(-previous.getAvailableCopies());
+            booksPerGenre.computeIfAbsent(genre(previous), g -> new LongAdder()).decrement();
+        }
+        if (current != null) {
+            availableCopies.add(current.getAvailableCopies());
+            booksPerGenre.computeIfAbsent(genre(current), g -> new LongAdder()).increment();
+        }
+    }
+
+    // availableCopies of a stored book changed by `delta` (borrow, return, replay)
+    public void copiesChanged(int delta) {
+        availableCopies.add(delta);
+    }
+
+    // A new borrowing record was stored
+    public void loanRecorded(long bookId) {
+        totalLoans.increment();
+        borrowsPerBook.add(bookId);
+    }
+
+    public void loanOpened(Long memberId) {
+        activeLoans.increment();
+        if (memberId != null
+                && openLoansPerMember.computeIfAbsent(memberId, m -> new AtomicInteger()).getAndIncrement() == 0) {
+            membersWithActiveLoans.increment();
+        }
+    }
+
+    public void loanClosed(Long memberId) {
+        activeLoans.decrement();
+        if (memberId == null) {
+            return;
+        }
+        AtomicInteger open = openLoansPerMember.get(memberId);
+        if (open != null && open.decrementAndGet() == 0) {
+            membersWithActiveLoans.decrement();
+        }
+    }
+
+    public long getAvailableCopies() {
+        return availableCopies.sum();
+    }
+
+    public long getActiveLoans() {
+        return activeLoans.sum();
+    }
+
+    public long getTotalLoans() {
+        return totalLoans.sum();
+    }
+
+    public long getMembersWithActiveLoans() {
+        return membersWithActiveLoans.sum();
+    }
+
+    // Genres with at least one book, alphabetically; O(number of genres)
+    public Map<String, Long> getBooksPerGenre() {
+        Map<String, Long> result = new TreeMap<>();
+        booksPerGenre.forEach((genre, count) -> {
+            long n = count.sum();
+            if (n > 0) {
+                result.put(genre, n);
+            }
+        });
+        return result;
+    }
+
+    public TopKSketch getBorrowsPerBook() {
+        return borrowsPerBook;
+    }
+
+    private static String genre(Book book) {
+        return book.getGenre() != null ? book.getGenre() : NO_GENRE;
+    }
+}
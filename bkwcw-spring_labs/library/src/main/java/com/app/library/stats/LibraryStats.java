@@ -0,0 +1,16 @@
+package com.app.library.stats;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response of GET /api/stats. `totalCopies` is available copies plus copies out on loan.
+ * `mostBorrowed` counts come from a sketch: each is at most `maxOvercount` above the true count.
+ */
+public record LibraryStats(long books, long members, long availableCopies, long totalCopies, long activeLoans,
+        long totalLoans, long membersWithActiveLoans, double loansPerMember, Map<String, Long> booksPerGenre,
+        List<TopBook> mostBorrowed) {
+
+    public record TopBook(long bookId, String title, long borrows, long maxOvercount) {
+    }
+}
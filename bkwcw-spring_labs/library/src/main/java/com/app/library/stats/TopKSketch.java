@@ -0,0 +1,80 @@
+package com.app.library.stats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.app.library.storage.StripedLocks;
+
+/**
+ * Stats: TopKSketch
+ * Responsibility: approximate most-frequent ids in bounded memory (Space-Saving). Each stripe
+ * monitors at most `capacity` ids; when a new id arrives at a full stripe it replaces the id with
+ * the lowest count and inherits that count as its possible overestimate (`error`). Any id whose
+ * true count exceeds total / capacity in its stripe is guaranteed to be monitored.
+ * An id always maps to the same stripe, so stripes never hold the same id and merging is exact.
+ */
+public class TopKSketch {
+
+    public record Item(long id, long count, long error) {
+    }
+
+    private final StripedLocks locks;
+    private final List<Map<Long, long[]>> stripes;
+    private final int capacity;
+
+    public TopKSketch(int stripes, int capacityPerStripe) {
+        this.locks = new StripedLocks(stripes);
+        this.capacity = capacityPerStripe;
+        this.stripes = new ArrayList<>(locks.size());
+        for (int i = 0; i < locks.size(); i++) {
+            this.stripes.add(new HashMap<>());
+        }
+    }
+
+    public void add(long id) {
+        int index = locks.indexFor(id);
+        ReentrantLock lock = locks.at(index);
+        lock.lock();
+        try {
+            Map<Long, long[]> counters = stripes.get(index);
+            long[] counter = counters.get(id);
+            if (counter != null) {
+                counter[0]++;
+            } else if (counters.size() < capacity) {
+                counters.put(id, new long[] { 1, 0 });
+            } else {
+                // replace the minimum: O(capacity), fine for the small capacities used here
+                Map.Entry<Long, long[]> min = null;
+                for (Map.Entry<Long, long[]> e : counters.entrySet()) {
+                    if (min == null || e.getValue()[0] < min.getValue()[0]) {
+                        min = e;
+                    }
+                }
+                long floor = min.getValue()[0];
+                counters.remove(min.getKey());
+                counters.put(id, new long[] { floor + 1, floor });
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Up to `k` ids by estimated count, highest first; costs O(stripes x capacity), independent of the data size
+    public List<Item> top(int k) {
+        List<Item> all = new ArrayList<>();
+        for (int i = 0; i < stripes.size(); i++) {
+            ReentrantLock lock = locks.at(i);
+            lock.lock();
+            try {
+                stripes.get(i).forEach((id, c) -> all.add(new Item(id, c[0], c[1])));
+            } finally {
+                lock.unlock();
+            }
+        }
+        all.sort((a, b) -> Long.compare(b.count(), a.count()));
+        return all.size() > k ? new ArrayList<>(all.subList(0, k)) : all;
+    }
+}
@@ -0,0 +1,57 @@
+package com.app.library.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Storage: DueDateIndex
+ * Responsibility: calendar queue of open loans. Record ids are bucketed by due date (epoch day)
+ * in a sorted map, so "everything due before day X" only visits the buckets before X and the
+ * loans in them, never returned or not-yet-due loans.
+ */
+public class DueDateIndex {
+
+    private final ConcurrentSkipListMap<Long, Set<Long>> byDueDay = new ConcurrentSkipListMap<>();
+
+    public void add(long dueEpochDay, long recordId) {
+        byDueDay.computeIfAbsent(dueEpochDay, d -> ConcurrentHashMap.newKeySet()).add(recordId);
+    }
+
+    // Emptied day buckets are kept so concurrent adds are never lost; there is at most one per calendar day
+    public void remove(long dueEpochDay, long recordId) {
+        Set<Long> ids = byDueDay.get(dueEpochDay);
+        if (ids != null) {
+            ids.remove(recordId);
+        }
+    }
+
+    // Up to `limit` record ids due strictly before `epochDay`, earliest due date first
+    public List<Long> dueBefore(long epochDay, int limit) {
+        List<Long> result = new ArrayList<>(Math.min(limit, 256));
+        for (Set<Long> ids : byDueDay.headMap(epochDay, false).values()) {
+            for (Long id : ids) {
+                if (result.size() >= limit) {
+                    return result;
+                }
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    // Visit every record id due in [fromEpochDay, toEpochDay), earliest due date first
+    public void forEachDueBetween(long fromEpochDay, long toEpochDay, LongConsumer action) {
+        if (fromEpochDay >= toEpochDay) {
+            return;
+        }
+        for (Set<Long> ids : byDueDay.subMap(fromEpochDay, true, toEpochDay, false).values()) {
+            for (Long id : ids) {
+                action.accept(id);
+            }
+        }
+    }
+}
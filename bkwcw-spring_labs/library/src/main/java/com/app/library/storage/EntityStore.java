@@ -0,0 +1,37 @@
+package com.app.library.storage;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage: EntityStore
+ * Responsibility: primary storage of one entity type by id, as used by LibraryService.
+ * {@link IdIndex} keeps entities as heap objects; {@link com.app.library.storage.columnar.OffHeapBookStore}
+ * keeps books in off-heap columns. Reads are thread-safe; the service serializes writes to the same id
+ * (under the entity's stripe).
+ */
+public interface EntityStore<T> {
+
+    T get(long id);
+
+    boolean contains(long id);
+
+    // Insert or overwrite the entity stored under `id`; returns the previous entity (or null)
+    T put(long id, T value);
+
+    // Overwrite only if `id` is already present; returns the previous entity or null when absent
+    T replace(long id, T value);
+
+    T remove(long id);
+
+    int size();
+
+    // Snapshot copy of the stored entities in id order
+    List<T> values();
+
+    // Up to `limit` entities with an id strictly greater than `afterId`, in id order
+    List<T> page(long afterId, int limit);
+
+    // Visit every entity in id order without copying the collection (weakly consistent)
+    void forEach(Consumer<? super T> action);
+}
@@ -0,0 +1,113 @@
+package com.app.library.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Storage: GroupIndex
+ * Responsibility: thread-safe one-to-many index from a group id (e.g. a member) to the ordered
+ * ids of its entries (e.g. that member's borrowing records). Reading a group costs in proportion
+ * to that group's entries only.
+ *
+ * Each group is a sorted primitive long[] (8 bytes per entry instead of a boxed skip-list node,
+ * which matters with hundreds of millions of records). Ids are generated in ascending order, so an
+ * add almost always appends; an out-of-order add (e.g. a parallel snapshot load) marks the group
+ * unsorted and it is sorted on the next read.
+ */
+public class GroupIndex {
+
+    private final ConcurrentHashMap<Long, Group> groups = new ConcurrentHashMap<>();
+
+    public void add(long group, long id) {
+        groups.computeIfAbsent(group, g -> new Group()).add(id);
+    }
+
+    // An emptied group keeps its (empty) array so concurrent adds are never lost
+    public void remove(long group, long id) {
+        Group ids = groups.get(group);
+        if (ids != null) {
+            ids.remove(id);
+        }
+    }
+
+    public boolean contains(long group, long id) {
+        Group ids = groups.get(group);
+        return ids != null && ids.contains(id);
+    }
+
+    // Up to `limit` ids of the group greater than `afterId`, in ascending order
+    public List<Long> page(long group, long afterId, int limit) {
+        Group ids = groups.get(group);
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.page(afterId, limit);
+    }
+
+    private static final class Group {
+
+        private long[] ids = new long[2];
+        private int size;
+        private boolean sorted = true;
+
+        synchronized void add(long id) {
+            if (size > 0 && id <= ids[size - 1]) {
+                if (id == ids[size - 1]) {
+                    return;
+                }
+                sorted = false;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        synchronized void remove(long id) {
+            int i = indexOf(id);
+            if (i >= 0) {
+                System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                size--;
+            }
+        }
+
+        synchronized boolean contains(long id) {
+            return indexOf(id) >= 0;
+        }
+
+        synchronized List<Long> page(long afterId, int limit) {
+            sort();
+            int i = Arrays.binarySearch(ids, 0, size, afterId);
+            int from = i >= 0 ? i + 1 : -i - 1;
+            int to = (int) Math.min(size, (long) from + limit);
+            List<Long> result = new ArrayList<>(Math.max(0, to - from));
+            for (int j = from; j < to; j++) {
+                result.add(ids[j]);
+            }
+            return result;
+        }
+
+        private int indexOf(long id) {
+            sort();
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+
+        // Restore order (and drop duplicates) after out-of-order adds
+        private void sort() {
+            if (sorted) {
+                return;
+            }
+            Arrays.sort(ids, 0, size);
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (n == 0 || ids[i] != ids[n - 1]) {
+                    ids[n++] = ids[i];
+                }
+            }
+            size = n;
+            sorted = true;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.app.library.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * Storage: IdIndex
+ * Responsibility: thread-safe primary-key index from an entity id to the entity.
+ * Lookup, insert, replace and delete are O(1) regardless of how many entities are stored;
+ * an ordered id set alongside supports keyset pagination and ordered iteration.
+ */
+public class IdIndex<T> implements EntityStore<T> {
+
+    private final ConcurrentHashMap<Long, T> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Long> orderedIds = new ConcurrentSkipListSet<>();
+
+    @Override
+    public T get(long id) {
+        return byId.get(id);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return byId.containsKey(id);
+    }
+
+    // Insert or overwrite the entity stored under `id`; returns the previous entity (or null)
+    @Override
+    public T put(long id, T value) {
+        // compute() locks the key's bin, so the ordered set stays in step with the map
+        Object[] previous = new Object[1];
+        byId.compute(id, (k, old) -> {
+            previous[0] = old;
+            orderedIds.add(k);
+            return value;
+        });
+        @SuppressWarnings("unchecked")
+        T old = (T) previous[0];
+        return old;
+    }
+
+    // Overwrite only if `id` is already present; returns the previous entity or null when absent
+    @Override
+    public T replace(long id, T value) {
+        return byId.replace(id, value);
+    }
+
+    @Override
+    public T remove(long id) {
+        Object[] previous = new Object[1];
+        byId.computeIfPresent(id, (k, old) -> {
+            previous[0] = old;
+            orderedIds.remove(k);
+            return null;
+        });
+        @SuppressWarnings("unchecked")
+        T old = (T) previous[0];
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return byId.size();
+    }
+
+    // Snapshot copy of the stored entities in id order; later mutations do not affect the returned list
+    @Override
+    public List<T> values() {
+        List<T> result = new ArrayList<>(byId.size());
+        forEach(result::add);
+        return result;
+    }
+
+    // Up to `limit` entities with an id strictly greater than `afterId`, in id order
+    @Override
+    public List<T> page(long afterId, int limit) {
+        List<T> result = new ArrayList<>(Math.min(limit, 1024));
+        for (Long id : orderedIds.tailSet(afterId, false)) {
+            if (result.size() >= limit) {
+                break;
+            }
+            T value = byId.get(id);
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    // Visit every entity in id order without copying the collection (weakly consistent)
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (Long id : orderedIds) {
+            T value = byId.get(id);
+            if (value != null) {
+                action.accept(value);
+            }
+        }
+    }
+}
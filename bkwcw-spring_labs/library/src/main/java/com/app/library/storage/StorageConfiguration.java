@@ -0,0 +1,31 @@
+package com.app.library.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.app.library.models.Book;
+import com.app.library.storage.columnar.OffHeapBookStore;
+
+/**
+ * Responsibility: choose the storage engine for the book catalog (`library.storage.books`):
+ * `heap` keeps Book objects in an {@link IdIndex}, `offheap` keeps the catalog in the columns of an
+ * {@link OffHeapBookStore}, outside the Java heap and invisible to the GC.
+ */
+@Configuration
+public class StorageConfiguration {
+
+    @Bean
+    public EntityStore<Book> bookStore(@Value("${library.storage.books:heap}") String engine) {
+        return newBookStore(engine);
+    }
+
+    // A new, empty book store of the given engine; each shard of a sharded service has its own
+    public static EntityStore<Book> newBookStore(String engine) {
+        return switch (engine) {
+            case "heap" -> new IdIndex<>();
+            case "offheap" -> new OffHeapBookStore();
+            default -> throw new IllegalArgumentException("Unknown library.storage.books engine: " + engine);
+        };
+    }
+}
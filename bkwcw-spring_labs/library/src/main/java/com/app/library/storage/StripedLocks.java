@@ -0,0 +1,42 @@
+package com.app.library.storage;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Storage: StripedLocks
+ * Responsibility: map an entity id onto one of a fixed number of locks, so operations on
+ * the same id are serialized while operations on unrelated ids almost never contend.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    // `stripes` is rounded up to the next power of two
+    public StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    // Stripe index for an id; ids are mixed first so sequential ids spread over all stripes
+    public int indexFor(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    public ReentrantLock forId(long id) {
+        return locks[indexFor(id)];
+    }
+
+    public ReentrantLock at(int index) {
+        return locks[index];
+    }
+
+    public int size() {
+        return locks.length;
+    }
+}
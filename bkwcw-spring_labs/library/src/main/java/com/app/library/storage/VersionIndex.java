@@ -0,0 +1,32 @@
+package com.app.library.storage;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Storage: VersionIndex
+ * Responsibility: current version of every stored entity of one type, bumped on each change.
+ * Versions come from one monotonic clock, so a version is never reused for the same id, even
+ * after the entity is deleted and re-created. 0 means "not stored".
+ */
+public class VersionIndex {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ConcurrentHashMap<Long, Long> versions = new ConcurrentHashMap<>();
+
+    // Call after the change is visible, so a reader seeing the new version also sees the new state
+    public long bump(long id) {
+        long version = clock.incrementAndGet();
+        versions.put(id, version);
+        return version;
+    }
+
+    public void remove(long id) {
+        versions.remove(id);
+    }
+
+    public long get(long id) {
+        Long version = versions.get(id);
+        return version != null ? version : 0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.app.library.storage.columnar;
+
+import com.app.library.models.Book;
+
+/**
+ * Storage: BookView
+ * Responsibility: flyweight {@link Book} over one row of an {@link OffHeapBookStore}. It holds only
+ * the row number; every getter reads the column and every setter writes it, so changing a stored
+ * book through its view (e.g. availableCopies on borrow) changes the store, as with heap books.
+ *
+ * A view stays readable after its book is deleted, since rows are never reused; only its title reads
+ * null once a compaction of the title arena has dropped it. Reads are per field: a view read while
+ * the same book is being updated may mix old and new fields.
+ */
+final class BookView extends Book {
+
+    private final OffHeapBookStore store;
+    private final int row;
+
+    BookView(OffHeapBookStore store, int row) {
+        this.store = store;
+        this.row = row;
+    }
+
+    @Override
+    public Long getId() {
+        return store.id(row);
+    }
+
+    @Override
+    public void setId(Long id) {
+        throw new UnsupportedOperationException("The id of a stored book cannot change");
+    }
+
+    @Override
+    public String getTitle() {
+        return store.title(row);
+    }
+
+    @Override
+    public void setTitle(String title) {
+        store.setTitle(row, title);
+    }
+
+    @Override
+    public String getAuthor() {
+        return store.author(row);
+    }
+
+    @Override
+    public void setAuthor(String author) {
+        store.setAuthor(row, author);
+    }
+
+    @Override
+    public int getPublicationYear() {
+        return store.publicationYear(row);
+    }
+
+    @Override
+    public void setPublicationYear(int publicationYear) {
+        store.setPublicationYear(row, publicationYear);
+    }
+
+    @Override
+    public String getGenre() {
+        return store.genre(row);
+    }
+
+    @Override
+    public void setGenre(String genre) {
+        store.setGenre(row, genre);
+    }
+
+    @Override
+    public int getAvailableCopies() {
+        return store.availableCopies(row);
+    }
+
+    @Override
+    public void setAvailableCopies(int availableCopies) {
+        store.setAvailableCopies(row, availableCopies);
+    }
+
+    @Override
+    public String toString() {
+        return "Book{" +
+                "id=" + getId() +
+                ", title='" + getTitle() + '\'' +
+                ", author='" + getAuthor() + '\'' +
+                ", publicationYear=" + getPublicationYear() +
+                ", genre='" + getGenre() + '\'' +
+                ", availableCopies=" + getAvailableCopies() +
+                '}';
+    }
+}
@@ -0,0 +1,82 @@
+package com.app.library.storage.columnar;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Storage: Column
+ * Responsibility: one fixed-width column (int or long values) of a columnar store, kept off-heap
+ * in direct buffers of {@link #CHUNK_ROWS} rows each, so growing the column never copies it.
+ *
+ * Values are written with release and read with acquire semantics: a reader that sees a value also
+ * sees everything the writer stored before it (e.g. the title bytes a title reference points to).
+ */
+final class Column {
+
+    static final int CHUNK_SHIFT = 14;
+    static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final int width;
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    // Chunks allocated at the start of `chunks`; written only while growing
+    private volatile int allocated;
+
+    // `width` is 4 for an int column, 8 for a long column
+    Column(int width) {
+        this.width = width;
+    }
+
+    int getInt(int row) {
+        return (int) INTS.getAcquire(chunks[row >>> CHUNK_SHIFT], (row & CHUNK_MASK) * width);
+    }
+
+    void setInt(int row, int value) {
+        INTS.setRelease(chunks[row >>> CHUNK_SHIFT], (row & CHUNK_MASK) * width, value);
+    }
+
+    long getLong(int row) {
+        return (long) LONGS.getAcquire(chunks[row >>> CHUNK_SHIFT], (row & CHUNK_MASK) * width);
+    }
+
+    void setLong(int row, long value) {
+        LONGS.setRelease(chunks[row >>> CHUNK_SHIFT], (row & CHUNK_MASK) * width, value);
+    }
+
+    boolean compareAndSetLong(int row, long expected, long value) {
+        return LONGS.compareAndSet(chunks[row >>> CHUNK_SHIFT], (row & CHUNK_MASK) * width, expected, value);
+    }
+
+    // Allocate chunks until `rows` rows fit; callers serialize growth (the appender or a grow lock)
+    void ensureCapacity(int rows) {
+        int needed = (int) (((long) rows + CHUNK_MASK) >>> CHUNK_SHIFT);
+        if (needed <= allocated) {
+            return;
+        }
+        // the chunk table doubles, but only the chunks needed are allocated
+        ByteBuffer[] table = chunks;
+        if (needed > table.length) {
+            table = Arrays.copyOf(table, Math.max(needed, table.length * 2));
+        }
+        for (int i = allocated; i < needed; i++) {
+            table[i] = ByteBuffer.allocateDirect(CHUNK_ROWS * width).order(ByteOrder.nativeOrder());
+        }
+        allocated = needed;
+        chunks = table;
+    }
+
+    // Rows that fit in the allocated chunks
+    int capacity() {
+        return (int) Math.min(Integer.MAX_VALUE, (long) allocated * CHUNK_ROWS);
+    }
+
+    long offHeapBytes() {
+        return (long) allocated * CHUNK_ROWS * width;
+    }
+}
@@ -0,0 +1,202 @@
+package com.app.library.storage.columnar;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * Storage: LoanLedger
+ * Responsibility: compact store of every borrowing record, the fastest-growing dataset.
+ *
+ * A record is one row of primitive off-heap columns: bookId and memberId as longs, borrow, due and
+ * return dates as epoch days — 28 bytes, with no object per record and no reference that would keep
+ * a deleted book or member alive. Record ids are dense (the service generates them), so the row of
+ * a record is its id and no id index is needed. BorrowingRecord objects are built from rows by the
+ * service, only for the records it returns.
+ *
+ * A shard of a sharded service only stores the ids of its lane (id % lanes == lane, see
+ * IdGenerator), so its rows are id / lanes and stay dense.
+ *
+ * Records are never removed. Concurrent puts of different ids are safe; writes to one id must be
+ * serialized by the caller (LibraryService holds the stripe of the record's book).
+ */
+public class LoanLedger {
+
+    // Day value of a date that is not set
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    private final Column bookIds = new Column(Long.BYTES);
+    private final Column memberIds = new Column(Long.BYTES);
+    private final Column dueDays = new Column(Integer.BYTES);
+    private final Column returnDays = new Column(Integer.BYTES);
+    // Written last when a record is stored: a row is present once its borrow day is set
+    private final Column borrowDays = new Column(Integer.BYTES);
+    private final Column[] columns = { bookIds, memberIds, dueDays, returnDays, borrowDays };
+
+    private final int lane;
+    private final int lanes;
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger highestRow = new AtomicInteger();
+    // Rows allocated in every column; grows under `this`
+    private volatile int capacity;
+
+    public LoanLedger() {
+        this(0, 1);
+    }
+
+    // Ledger for the record ids of lane `lane` of `lanes`
+    public LoanLedger(int lane, int lanes) {
+        this.lane = lane;
+        this.lanes = lanes;
+    }
+
+    public boolean contains(long id) {
+        if (id <= 0 || id % lanes != lane) {
+            return false;
+        }
+        long row = id / lanes;
+        return row < capacity && borrowDays.getInt((int) row) != 0;
+    }
+
+    /**
+     * Store a record, or overwrite it when the id is present (replay). Every record has a borrow day;
+     * the book and member of a stored record never change.
+     */
+    public void put(long id, long bookId, long memberId, int borrowDay, int dueDay, int returnDay) {
+        if (id <= 0 || id / lanes >= Integer.MAX_VALUE || id % lanes != lane) {
+            throw new IllegalArgumentException("Record id out of range: " + id);
+        }
+        if (borrowDay == NO_DAY) {
+            throw new IllegalArgumentException("Record " + id + " has no borrow date");
+        }
+        int row = row(id);
+        if (row >= capacity) {
+            grow(row);
+        }
+        boolean added = borrowDays.getInt(row) == 0;
+        bookIds.setLong(row, bookId);
+        memberIds.setLong(row, memberId);
+        dueDays.setInt(row, encode(dueDay));
+        returnDays.setInt(row, encode(returnDay));
+        borrowDays.setInt(row, encode(borrowDay));
+        if (added) {
+            size.incrementAndGet();
+            highestRow.accumulateAndGet(row, Math::max);
+        }
+    }
+
+    // Record the return of a present record; false if it was already returned
+    public boolean markReturned(long id, int returnDay) {
+        int row = row(id);
+        if (returnDays.getInt(row) != 0) {
+            return false;
+        }
+        returnDays.setInt(row, encode(returnDay));
+        return true;
+    }
+
+    // Accessors for a present record
+
+    public long bookId(long id) {
+        return bookIds.getLong(row(id));
+    }
+
+    public long memberId(long id) {
+        return memberIds.getLong(row(id));
+    }
+
+    public int borrowDay(long id) {
+        return decode(borrowDays.getInt(row(id)));
+    }
+
+    public int dueDay(long id) {
+        return decode(dueDays.getInt(row(id)));
+    }
+
+    public int returnDay(long id) {
+        return decode(returnDays.getInt(row(id)));
+    }
+
+    public boolean isReturned(long id) {
+        return returnDays.getInt(row(id)) != 0;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    // Up to `limit` ids of present records greater than `afterId`, ascending
+    public long[] page(long afterId, int limit) {
+        long[] result = new long[Math.min(limit, 1024)];
+        int n = 0;
+        int last = lastRow();
+        // first row whose id is above afterId
+        long first = afterId < 0 ? 0 : Math.floorDiv(afterId - lane, (long) lanes) + 1;
+        for (long row = first; row <= last && n < limit; row++) {
+            if (borrowDays.getInt((int) row) != 0) {
+                if (n == result.length) {
+                    result = Arrays.copyOf(result, Math.min(limit, n * 2));
+                }
+                result[n++] = row * lanes + lane;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    // Visit the id of every present record in ascending order (weakly consistent)
+    public void forEach(LongConsumer action) {
+        int last = lastRow();
+        for (int row = 0; row <= last; row++) {
+            if (borrowDays.getInt(row) != 0) {
+                action.accept((long) row * lanes + lane);
+            }
+        }
+    }
+
+    // Off-heap bytes reserved by the columns
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (Column column : columns) {
+            bytes += column.offHeapBytes();
+        }
+        return bytes;
+    }
+
+    public static int day(LocalDate date) {
+        return date != null ? (int) date.toEpochDay() : NO_DAY;
+    }
+
+    public static LocalDate date(int day) {
+        return day != NO_DAY ? LocalDate.ofEpochDay(day) : null;
+    }
+
+    // Highest row ever stored, -1 while the ledger is empty
+    private int lastRow() {
+        return size.get() == 0 ? -1 : highestRow.get();
+    }
+
+    private int row(long id) {
+        return (int) (id / lanes);
+    }
+
+    private synchronized void grow(int row) {
+        if (row < capacity) {
+            return;
+        }
+        for (Column column : columns) {
+            column.ensureCapacity(row + 1);
+        }
+        capacity = borrowDays.capacity();
+    }
+
+    // Columns are zero-filled, so 0 must mean "no date": days >= 0 are stored shifted by one
+    private static int encode(int day) {
+        return day == NO_DAY ? 0 : day >= 0 ? day + 1 : day;
+    }
+
+    private static int decode(int stored) {
+        return stored == 0 ? NO_DAY : stored > 0 ? stored - 1 : stored;
+    }
+}
@@ -0,0 +1,166 @@
+package com.app.library.storage.columnar;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Storage: LongIntIndex
+ * Responsibility: map from a long key (entity id) to an int (row) without boxing, for the columnar
+ * stores. Open addressing with linear probing over two primitive arrays, so millions of entries
+ * cost the GC two objects instead of millions of map nodes.
+ *
+ * Writers take the write lock; readers probe under an optimistic stamp and only fall back to the
+ * read lock when a write overlapped. Removed keys keep their slot (marked DELETED) until the next
+ * resize, which keeps probing simple.
+ */
+final class LongIntIndex {
+
+    // Value returned for keys that are not present
+    static final int ABSENT = -1;
+
+    private static final int FREE = -2;
+    private static final int DELETED = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] rows = newRows(INITIAL_CAPACITY);
+    // Slots holding a key (live or deleted), and live entries; guarded by the write lock
+    private int used;
+    private int size;
+
+    int get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        int row = find(keys, rows, key);
+        if (lock.validate(stamp)) {
+            return row;
+        }
+        stamp = lock.readLock();
+        try {
+            return find(keys, rows, key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    void put(long key, int row) {
+        long stamp = lock.writeLock();
+        try {
+            if ((used + 1) * 4L > keys.length * 3L) {
+                resize(size * 4L > keys.length ? keys.length * 2 : keys.length);
+            }
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (rows[slot] == FREE) {
+                    keys[slot] = key;
+                    rows[slot] = row;
+                    used++;
+                    size++;
+                    return;
+                }
+                if (keys[slot] == key) {
+                    if (rows[slot] == DELETED) {
+                        size++;
+                    }
+                    rows[slot] = row;
+                    return;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Returns the row that was mapped, or ABSENT
+    int remove(long key) {
+        long stamp = lock.writeLock();
+        try {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; rows[slot] != FREE; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    int row = rows[slot];
+                    if (row != DELETED) {
+                        rows[slot] = DELETED;
+                        size--;
+                    }
+                    return row;
+                }
+            }
+            return ABSENT;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Bytes held by the two arrays
+    long heapBytes() {
+        long stamp = lock.readLock();
+        try {
+            return keys.length * 12L;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // May read arrays that a writer is changing; the probe is bounded, and the caller validates the stamp
+    private static int find(long[] keys, int[] rows, long key) {
+        if (keys.length != rows.length) {
+            return ABSENT;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (int probes = 0; probes < keys.length; probes++, slot = (slot + 1) & mask) {
+            int row = rows[slot];
+            if (row == FREE) {
+                return ABSENT;
+            }
+            if (keys[slot] == key) {
+                return row == DELETED ? ABSENT : row;
+            }
+        }
+        return ABSENT;
+    }
+
+    // Rebuild into `capacity` slots, dropping deleted entries
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldRows = rows;
+        long[] newKeys = new long[capacity];
+        int[] newRows = newRows(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldRows[i] >= 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (newRows[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                newKeys[slot] = oldKeys[i];
+                newRows[slot] = oldRows[i];
+            }
+        }
+        keys = newKeys;
+        rows = newRows;
+        used = size;
+    }
+
+    private static int[] newRows(int capacity) {
+        int[] rows = new int[capacity];
+        Arrays.fill(rows, FREE);
+        return rows;
+    }
+
+    // Ids are mostly sequential; mix the bits so runs of them spread over the table
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
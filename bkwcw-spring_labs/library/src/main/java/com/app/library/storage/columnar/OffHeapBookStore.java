@@ -0,0 +1,440 @@
+package com.app.library.storage.columnar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import com.app.library.models.Book;
+import com.app.library.storage.EntityStore;
+
+/**
+ * Storage: OffHeapBookStore
+ * Responsibility: book storage engine that keeps the catalog out of the Java heap, selected with
+ * `library.storage.books=offheap`.
+ *
+ * Each book is one row across off-heap columns: id, publicationYear and availableCopies as
+ * primitives, author and genre as dictionary codes, and the title as a reference into an off-heap
+ * string arena. The id-to-row map is a primitive hash table, so a stored book costs the GC nothing.
+ * Reads return {@link BookView} flyweights over the row; the previous book returned by put, replace
+ * and remove is a detached heap copy.
+ *
+ * Rows are appended and never reused: updates overwrite the row in place, deletes only unmap it, so
+ * a deleted book keeps {@link #ROW_BYTES} bytes of columns until the store is discarded. Replaced and
+ * deleted titles are reclaimed: once they make up half of the title arena (and at least a chunk),
+ * the write that crossed the line copies the live titles into new chunks and retires the old ones,
+ * so the arena stays below about twice the live titles. {@link #wastedOffHeapBytes} reports both.
+ * Writes to one id must be serialized by the caller (LibraryService holds the book's stripe); new
+ * rows are appended under an internal lock.
+ */
+public class OffHeapBookStore implements EntityStore<Book> {
+
+    private static final int TAIL_LIMIT = 4096;
+
+    // Column bytes per row: id, title reference, publicationYear, availableCopies, author and genre codes
+    private static final int ROW_BYTES = 2 * Long.BYTES + 4 * Integer.BYTES;
+
+    private final LongIntIndex rowsById = new LongIntIndex();
+
+    private final Column ids = new Column(Long.BYTES);
+    private final Column publicationYears = new Column(Integer.BYTES);
+    private final Column availableCopies = new Column(Integer.BYTES);
+    private final Column authors = new Column(Integer.BYTES);
+    private final Column genres = new Column(Integer.BYTES);
+    private final Column titles = new Column(Long.BYTES);
+    private final Column[] columns = { ids, publicationYears, availableCopies, authors, genres, titles };
+
+    private final StringDictionary authorDictionary = new StringDictionary();
+    private final StringDictionary genreDictionary = new StringDictionary();
+    private final StringArena titleArena = new StringArena();
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger deadRows = new AtomicInteger();
+
+    // Title writers hold the read lock from appending the title to publishing its reference; a
+    // compaction takes the write lock to seal the arena, so no title lands in a sealed chunk later
+    private final ReentrantReadWriteLock titleWrites = new ReentrantReadWriteLock();
+    private final ReentrantLock compaction = new ReentrantLock();
+
+    // Appends are serialized so rows are published in order; rows below `rowCount` are fully written
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private volatile int rowCount;
+    // Guarded by appendLock
+    private long maxId = Long.MIN_VALUE;
+
+    // True while every row was appended with a larger id than all before it (always, with generated
+    // ids), so rows are in id order and pages are found by binary search over the id column.
+    // Otherwise pages walk the sorted ids below.
+    private volatile boolean rowsInIdOrder = true;
+    private volatile SortedIds sortedIds = new SortedIds(0, new long[0], new long[0]);
+
+    // Ids of the first `rowCount` rows in order: `merged` is compacted (no deleted ids, no duplicates),
+    // `tail` holds the ids appended since, as they were. The tail is merged in once it outgrows
+    // TAIL_LIMIT, so catching up after a write copies the tail and only every TAIL_LIMIT-th append
+    // rewrites the whole array.
+    private record SortedIds(int rowCount, long[] merged, long[] tail) {
+    }
+
+    @Override
+    public Book get(long id) {
+        int row = rowsById.get(id);
+        return row == LongIntIndex.ABSENT ? null : new BookView(this, row);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return rowsById.get(id) != LongIntIndex.ABSENT;
+    }
+
+    @Override
+    public Book put(long id, Book value) {
+        int row = rowsById.get(id);
+        if (row == LongIntIndex.ABSENT) {
+            append(id, value);
+            return null;
+        }
+        Book previous = copyOf(row);
+        write(row, value);
+        return previous;
+    }
+
+    @Override
+    public Book replace(long id, Book value) {
+        int row = rowsById.get(id);
+        if (row == LongIntIndex.ABSENT) {
+            return null;
+        }
+        Book previous = copyOf(row);
+        write(row, value);
+        return previous;
+    }
+
+    // Views of the removed book stay readable until its title is compacted away (then the title is null)
+    @Override
+    public Book remove(long id) {
+        int row = rowsById.get(id);
+        if (row == LongIntIndex.ABSENT) {
+            return null;
+        }
+        Book previous = copyOf(row);
+        rowsById.remove(id);
+        size.decrementAndGet();
+        deadRows.incrementAndGet();
+        titleArena.wasted(titles.getLong(row));
+        compactTitlesIfWasteful();
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public List<Book> values() {
+        List<Book> result = new ArrayList<>(size());
+        forEach(result::add);
+        return result;
+    }
+
+    @Override
+    public List<Book> page(long afterId, int limit) {
+        List<Book> result = new ArrayList<>(Math.min(limit, 1024));
+        if (rowsInIdOrder) {
+            int rows = rowCount;
+            for (int row = firstRowAfter(afterId, rows); row < rows && result.size() < limit; row++) {
+                if (isLive(row)) {
+                    result.add(new BookView(this, row));
+                }
+            }
+            return result;
+        }
+        forEachSorted(afterId, book -> {
+            result.add(book);
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Book> action) {
+        if (rowsInIdOrder) {
+            int rows = rowCount;
+            for (int row = 0; row < rows; row++) {
+                if (isLive(row)) {
+                    action.accept(new BookView(this, row));
+                }
+            }
+            return;
+        }
+        forEachSorted(Long.MIN_VALUE, book -> {
+            action.accept(book);
+            return true;
+        });
+    }
+
+    // Off-heap bytes held for nothing: titles no longer referenced and the columns of deleted rows
+    public long wastedOffHeapBytes() {
+        return titleArena.wastedBytes() + (long) deadRows.get() * ROW_BYTES;
+    }
+
+    // Off-heap bytes reserved by the columns and the title arena
+    public long offHeapBytes() {
+        long bytes = titleArena.offHeapBytes();
+        for (Column column : columns) {
+            bytes += column.offHeapBytes();
+        }
+        return bytes;
+    }
+
+    // ==================== Row access (used by BookView) ====================
+
+    long id(int row) {
+        return ids.getLong(row);
+    }
+
+    String title(int row) {
+        long ref = titles.getLong(row);
+        String title = titleArena.get(ref);
+        // compaction moves a live title before retiring its chunk: re-read the reference
+        while (title == null && titleArena.isRetired(ref)) {
+            long moved = titles.getLong(row);
+            if (moved == ref) {
+                // a deleted row, whose title was not moved
+                return null;
+            }
+            ref = moved;
+            title = titleArena.get(ref);
+        }
+        return title;
+    }
+
+    void setTitle(int row, String title) {
+        if (Objects.equals(title, title(row))) {
+            return;
+        }
+        long previous;
+        titleWrites.readLock().lock();
+        try {
+            long ref = titleArena.append(title);
+            // a concurrent compaction may move the current title; the caller serializes other writers
+            do {
+                previous = titles.getLong(row);
+            } while (!titles.compareAndSetLong(row, previous, ref));
+        } finally {
+            titleWrites.readLock().unlock();
+        }
+        if (previous != StringArena.NULL) {
+            titleArena.wasted(previous);
+            compactTitlesIfWasteful();
+        }
+    }
+
+    String author(int row) {
+        return authorDictionary.decode(authors.getInt(row));
+    }
+
+    void setAuthor(int row, String author) {
+        authors.setInt(row, authorDictionary.encode(author));
+    }
+
+    int publicationYear(int row) {
+        return publicationYears.getInt(row);
+    }
+
+    void setPublicationYear(int row, int publicationYear) {
+        publicationYears.setInt(row, publicationYear);
+    }
+
+    String genre(int row) {
+        return genreDictionary.decode(genres.getInt(row));
+    }
+
+    void setGenre(int row, String genre) {
+        genres.setInt(row, genreDictionary.encode(genre));
+    }
+
+    int availableCopies(int row) {
+        return availableCopies.getInt(row);
+    }
+
+    void setAvailableCopies(int row, int copies) {
+        availableCopies.setInt(row, copies);
+    }
+
+    // ==================== Internals ====================
+
+    private void append(long id, Book value) {
+        appendLock.lock();
+        try {
+            int row = rowCount;
+            if (row == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Book store is full");
+            }
+            for (Column column : columns) {
+                column.ensureCapacity(row + 1);
+            }
+            ids.setLong(row, id);
+            titles.setLong(row, StringArena.NULL);
+            write(row, value);
+            if (id <= maxId) {
+                rowsInIdOrder = false;
+            }
+            maxId = Math.max(maxId, id);
+            rowsById.put(id, row);
+            size.incrementAndGet();
+            rowCount = row + 1;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void write(int row, Book value) {
+        setTitle(row, value.getTitle());
+        setAuthor(row, value.getAuthor());
+        setPublicationYear(row, value.getPublicationYear());
+        setGenre(row, value.getGenre());
+        setAvailableCopies(row, value.getAvailableCopies());
+    }
+
+    private Book copyOf(int row) {
+        Book copy = new Book(title(row), author(row), publicationYear(row), genre(row), availableCopies(row));
+        copy.setId(id(row));
+        return copy;
+    }
+
+    // Copy the titles of live rows out of the sealed chunks, then retire those. Runs in the writer that
+    // crossed the threshold; other writers carry on, and one compaction at a time is enough.
+    private void compactTitlesIfWasteful() {
+        if (!titleArena.needsCompaction() || !compaction.tryLock()) {
+            return;
+        }
+        try {
+            int keep;
+            int rows;
+            appendLock.lock();
+            titleWrites.writeLock().lock();
+            try {
+                // no append or title write is half done: every title below `keep` is in a row below `rows`
+                keep = titleArena.startNewChunk();
+                rows = rowCount;
+            } finally {
+                titleWrites.writeLock().unlock();
+                appendLock.unlock();
+            }
+            long moved = 0;
+            for (int row = 0; row < rows; row++) {
+                long ref = titles.getLong(row);
+                if (ref == StringArena.NULL || StringArena.chunk(ref) >= keep || titleArena.isRetired(ref)
+                        || !isLive(row)) {
+                    continue;
+                }
+                long copy = titleArena.copy(ref);
+                if (titles.compareAndSetLong(row, ref, copy)) {
+                    moved += StringArena.length(ref);
+                } else {
+                    // the title was replaced meanwhile and its writer counted the old one
+                    titleArena.wasted(copy);
+                }
+            }
+            titleArena.retireBelow(keep, moved);
+        } finally {
+            compaction.unlock();
+        }
+    }
+
+    // A row is live while its id still maps to it (not deleted, not superseded by a re-insert)
+    private boolean isLive(int row) {
+        return rowsById.get(ids.getLong(row)) == row;
+    }
+
+    // First row with an id greater than `afterId`, among `rows` rows sorted by id
+    private int firstRowAfter(long afterId, int rows) {
+        int low = 0;
+        int high = rows;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids.getLong(mid) <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Visit stored books with an id greater than `afterId` in id order, while `action` returns true
+    private void forEachSorted(long afterId, Predicate<? super Book> action) {
+        SortedIds sorted = sortedIds();
+        long[] merged = sorted.merged();
+        long[] tail = sorted.tail();
+        int i = firstAfter(merged, afterId);
+        int j = firstAfter(tail, afterId);
+        long last = afterId;
+        while (i < merged.length || j < tail.length) {
+            long id = j >= tail.length || (i < merged.length && merged[i] <= tail[j]) ? merged[i++] : tail[j++];
+            // an id deleted and added again has a row (and an entry) per insert
+            if (id <= last) {
+                continue;
+            }
+            last = id;
+            Book book = get(id);
+            if (book != null && !action.test(book)) {
+                return;
+            }
+        }
+    }
+
+    // Brings the sorted ids up to the current rows. Concurrent callers may both catch up; either result is valid.
+    private SortedIds sortedIds() {
+        SortedIds cached = sortedIds;
+        int from = cached.rowCount();
+        int rows = rowCount;
+        if (from >= rows) {
+            return cached;
+        }
+        long[] added = new long[rows - from];
+        for (int row = from; row < rows; row++) {
+            added[row - from] = ids.getLong(row);
+        }
+        Arrays.sort(added);
+        long[] tail = merge(cached.tail(), added, false);
+        SortedIds next = tail.length <= TAIL_LIMIT
+                ? new SortedIds(rows, cached.merged(), tail)
+                : new SortedIds(rows, merge(cached.merged(), tail, true), new long[0]);
+        sortedIds = next;
+        return next;
+    }
+
+    // Merge two sorted id arrays; `compact` drops ids no longer stored and duplicates
+    private long[] merge(long[] a, long[] b, boolean compact) {
+        long[] result = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            long id = j >= b.length || (i < a.length && a[i] <= b[j]) ? a[i++] : b[j++];
+            if (!compact || (contains(id) && (n == 0 || result[n - 1] != id))) {
+                result[n++] = id;
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    // Index of the first id greater than `afterId` in a sorted array
+    private static int firstAfter(long[] sorted, long afterId) {
+        int i = Arrays.binarySearch(sorted, afterId);
+        if (i < 0) {
+            return -i - 1;
+        }
+        while (i < sorted.length && sorted[i] == afterId) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,172 @@
+package com.app.library.storage.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Storage: StringArena
+ * Responsibility: off-heap storage for variable-length strings (book titles), appended to
+ * direct-buffer chunks.
+ *
+ * A string is stored once as UTF-8 and addressed by a single long reference (chunk, offset, length)
+ * that fits in a {@link Column}. Stored bytes are never overwritten, so a reader holding a reference
+ * always reads the string it was given. The owner reports the bytes it stops referencing as
+ * {@link #wasted}; space comes back by compaction: the owner seals the chunks filled so far
+ * ({@link #startNewChunk}), copies the strings it still references into new chunks and then
+ * {@link #retireBelow retires} the sealed ones. A retired chunk is dropped from the table and its
+ * memory is released by the GC once no reader is copying from it any more.
+ */
+final class StringArena {
+
+    // Reference of a null string
+    static final long NULL = -1;
+
+    private static final int CHUNK_BYTES = 1 << 20;
+    private static final int OFFSET_BITS = 20;
+    private static final int LENGTH_BITS = 24;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+    // References stay non-negative, so they never collide with NULL. Chunk numbers are not reused,
+    // which bounds the bytes ever appended (compaction copies included) to MAX_CHUNKS chunks.
+    private static final int MAX_CHUNKS = 1 << (63 - OFFSET_BITS - LENGTH_BITS);
+
+    // Retired chunks are null
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    // Guarded by `this`: the chunk being filled, the next free byte in it, the bytes appended to
+    // each chunk, and the bytes in chunks not retired yet (used) and no longer referenced (wasted)
+    private int current = -1;
+    private int position;
+    private int[] filled = new int[0];
+    private long bytes;
+    private long wasted;
+
+    synchronized long append(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        return append(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Copy a stored string into the chunk being filled; used by compaction
+    synchronized long copy(long ref) {
+        if (ref == NULL) {
+            return NULL;
+        }
+        byte[] utf8 = new byte[length(ref)];
+        chunks[chunk(ref)].get(offset(ref), utf8);
+        return append(utf8);
+    }
+
+    // Null for NULL, and for a reference into a retired chunk (see isRetired)
+    String get(long ref) {
+        if (ref == NULL) {
+            return null;
+        }
+        ByteBuffer chunk = chunks[chunk(ref)];
+        if (chunk == null) {
+            return null;
+        }
+        byte[] utf8 = new byte[length(ref)];
+        chunk.get(offset(ref), utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    boolean isRetired(long ref) {
+        return ref != NULL && chunks[chunk(ref)] == null;
+    }
+
+    // The owner no longer references the string at `ref`
+    synchronized void wasted(long ref) {
+        wasted += length(ref);
+    }
+
+    // Whether unreferenced bytes make up half the arena, and at least one chunk
+    synchronized boolean needsCompaction() {
+        return wasted >= CHUNK_BYTES && wasted * 2 >= bytes;
+    }
+
+    /**
+     * Seal the chunk being filled, so later appends go to new chunks; returns the first chunk number
+     * not sealed. Once the owner references nothing below it, {@link #retireBelow} frees them.
+     */
+    synchronized int startNewChunk() {
+        if (current >= 0 && position > 0) {
+            addChunk(CHUNK_BYTES);
+        }
+        return Math.max(current, 0);
+    }
+
+    // Retire every chunk below `keep`; `moved` bytes of them were copied and are still referenced
+    synchronized void retireBelow(int keep, long moved) {
+        ByteBuffer[] table = chunks.clone();
+        long retired = 0;
+        for (int i = 0; i < keep; i++) {
+            if (table[i] != null) {
+                retired += filled[i];
+                table[i] = null;
+            }
+        }
+        chunks = table;
+        bytes -= retired;
+        wasted -= retired - moved;
+    }
+
+    synchronized long offHeapBytes() {
+        long total = 0;
+        for (int i = 0; i <= current; i++) {
+            if (chunks[i] != null) {
+                total += chunks[i].capacity();
+            }
+        }
+        return total;
+    }
+
+    synchronized long usedBytes() {
+        return bytes;
+    }
+
+    synchronized long wastedBytes() {
+        return wasted;
+    }
+
+    static int length(long ref) {
+        return ref == NULL ? 0 : (int) (ref & LENGTH_MASK);
+    }
+
+    static int chunk(long ref) {
+        return (int) (ref >>> (OFFSET_BITS + LENGTH_BITS));
+    }
+
+    private static int offset(long ref) {
+        return (int) ((ref >>> LENGTH_BITS) & OFFSET_MASK);
+    }
+
+    private long append(byte[] utf8) {
+        if (utf8.length > LENGTH_MASK) {
+            throw new IllegalArgumentException("String of " + utf8.length + " bytes is too long to store");
+        }
+        if (current < 0 || position + utf8.length > chunks[current].capacity()) {
+            // longer strings get a chunk of their own, so chunks stay small (and offsets fit OFFSET_BITS)
+            addChunk(Math.max(CHUNK_BYTES, utf8.length));
+        }
+        chunks[current].put(position, utf8);
+        long ref = ((long) current << (OFFSET_BITS + LENGTH_BITS)) | ((long) position << LENGTH_BITS) | utf8.length;
+        position += utf8.length;
+        filled[current] = position;
+        bytes += utf8.length;
+        return ref;
+    }
+
+    private void addChunk(int capacity) {
+        if (current + 1 >= MAX_CHUNKS) {
+            throw new IllegalStateException("String arena is full");
+        }
+        ByteBuffer[] grown = Arrays.copyOf(chunks, current + 2);
+        grown[current + 1] = ByteBuffer.allocateDirect(capacity);
+        filled = Arrays.copyOf(filled, current + 2);
+        chunks = grown;
+        current++;
+        position = 0;
+    }
+}
@@ -0,0 +1,53 @@
+package com.app.library.storage.columnar;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Storage: StringDictionary
+ * Responsibility: dictionary encoding of a low-cardinality string column (author, genre): each
+ * distinct value is kept once on the heap and rows store its int code. Codes are never reused or
+ * removed, so the dictionary holds every value seen since startup.
+ */
+final class StringDictionary {
+
+    // Code of a null value
+    static final int NULL = -1;
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    // Guarded by `this`
+    private int size;
+
+    int encode(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    // The value array is read after the code, which the writer published after storing the value
+    String decode(int code) {
+        return code == NULL ? null : values[code];
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        values = current;
+        codes.put(value, size);
+        return size++;
+    }
+}
@@ -0,0 +1,31 @@
+package com.app.library;
+
+import com.app.library.logging.AccessLogEntry;
+import com.app.library.logging.AccessLogWriter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessLogWriterTests {
+
+    @Test
+    public void record_dropsInsteadOfBlockingWhenBufferIsFull() {
+        // writer thread not started, so nothing drains the buffer
+        AccessLogWriter writer = new AccessLogWriter(2, 1.0, List.of());
+        assertTrue(writer.record(new AccessLogEntry("GET", "/api/books", 200, 1_000, 10)));
+        assertTrue(writer.record(new AccessLogEntry("GET", "/api/books", 200, 1_000, 10)));
+        assertFalse(writer.record(new AccessLogEntry("GET", "/api/books", 200, 1_000, 10)));
+        assertEquals(1, writer.getDroppedCount());
+    }
+
+    @Test
+    public void record_samplesHighVolumePathsButKeepsErrors() {
+        AccessLogWriter writer = new AccessLogWriter(16, 0.0, List.of("/api/books"));
+        assertFalse(writer.record(new AccessLogEntry("GET", "/api/books/7", 200, 1_000, -1)));
+        assertTrue(writer.record(new AccessLogEntry("GET", "/api/books/7", 404, 1_000, -1)));
+        assertTrue(writer.record(new AccessLogEntry("GET", "/api/members", 200, 1_000, 3)));
+        assertEquals(1, writer.getSampledOutCount());
+    }
+}
@@ -0,0 +1,167 @@
+package com.app.library;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.app.library.services.LibraryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Many threads hammering a few hot titles: copies must never be oversold or go negative,
+// and concurrent creates must never be handed the same id
+public class BorrowConcurrencyTests {
+
+    private static final int THREADS = 32;
+    private static final int HOT_BOOKS = 3;
+    private static final int COPIES = 200;
+
+    private LibraryService service;
+    private final List<Long> bookIds = new ArrayList<>();
+    private long memberId;
+
+    @BeforeEach
+    public void setup() {
+        service = new LibraryService();
+        bookIds.clear();
+        for (int i = 0; i < HOT_BOOKS; i++) {
+            bookIds.add(service.addBook(new Book("Hot " + i, "Author", 2020, "F", COPIES)).getId());
+        }
+        Member m = new Member();
+        m.setName("Stress");
+        memberId = service.addMember(m).getId();
+    }
+
+    @Test
+    public void concurrentBorrows_neverOversell() throws Exception {
+        AtomicInteger successes = new AtomicInteger();
+        runConcurrently(() -> {
+            for (int i = 0; i < 100; i++) {
+                long bookId = bookIds.get(ThreadLocalRandom.current().nextInt(HOT_BOOKS));
+                if (borrow(bookId).isPresent()) {
+                    successes.incrementAndGet();
+                }
+            }
+        });
+
+        // 32 threads x 100 attempts = 3200 > 3 x 200 copies, so every copy must be taken exactly once
+        assertEquals(HOT_BOOKS * COPIES, successes.get());
+        for (Long id : bookIds) {
+            assertEquals(0, service.getBookById(id).get().getAvailableCopies());
+        }
+        List<BorrowingRecord> records = service.getAllBorrowingRecords();
+        assertEquals(HOT_BOOKS * COPIES, records.size());
+        Set<Long> recordIds = new HashSet<>();
+        for (BorrowingRecord r : records) {
+            assertTrue(recordIds.add(r.getId()), "Duplicate record id " + r.getId());
+        }
+    }
+
+    @Test
+    public void concurrentBorrowReturnCycles_restoreInventory() throws Exception {
+        AtomicInteger negative = new AtomicInteger();
+        runConcurrently(() -> {
+            for (int i = 0; i < 500; i++) {
+                long bookId = bookIds.get(ThreadLocalRandom.current().nextInt(HOT_BOOKS));
+                Optional<BorrowingRecord> rec = borrow(bookId);
+                if (service.getBookById(bookId).get().getAvailableCopies() < 0) {
+                    negative.incrementAndGet();
+                }
+                if (rec.isPresent()) {
+                    service.returnBook(rec.get().getId());
+                    // a second return of the same record must not credit another copy
+                    service.returnBook(rec.get().getId());
+                }
+            }
+        });
+
+        assertEquals(0, negative.get());
+        for (Long id : bookIds) {
+            assertEquals(COPIES, service.getBookById(id).get().getAvailableCopies());
+        }
+    }
+
+    @Test
+    public void concurrentAdds_getDistinctIds() throws Exception {
+        runConcurrently(() -> {
+            for (int i = 0; i < 200; i++) {
+                service.addBook(new Book("Title", "Author", 2020, "F", 1));
+                Member m = new Member();
+                m.setName("Member");
+                service.addMember(m);
+            }
+        });
+
+        // every add must land under its own id, none may overwrite another
+        assertEquals(HOT_BOOKS + THREADS * 200, service.getAllBooks().size());
+        assertEquals(1 + THREADS * 200, service.getAllMembers().size());
+    }
+
+    @Test
+    public void concurrentBatches_inOpposingOrders_neitherDeadlockNorOversell() throws Exception {
+        AtomicInteger borrowed = new AtomicInteger();
+        List<Long> reversed = new ArrayList<>(bookIds);
+        Collections.reverse(reversed);
+        AtomicInteger turn = new AtomicInteger();
+        runConcurrently(() -> {
+            List<Long> cart = turn.getAndIncrement() % 2 == 0 ? bookIds : reversed;
+            for (int i = 0; i < 200; i++) {
+                Optional<List<BorrowingRecord>> batch = service.borrowBooks(memberId, cart);
+                if (batch.isPresent()) {
+                    borrowed.addAndGet(batch.get().size());
+                    if (i % 2 == 0) {
+                        service.returnBooks(batch.get().stream().map(BorrowingRecord::getId).toList());
+                        borrowed.addAndGet(-batch.get().size());
+                    }
+                }
+            }
+        });
+
+        // all-or-nothing: every book lost exactly as many copies as are still out, and never went below zero
+        int out = borrowed.get() / HOT_BOOKS;
+        assertEquals(0, borrowed.get() % HOT_BOOKS);
+        for (Long id : bookIds) {
+            assertEquals(COPIES - out, service.getBookById(id).get().getAvailableCopies());
+        }
+    }
+
+    private Optional<BorrowingRecord> borrow(long bookId) {
+        BorrowingRecord rec = new BorrowingRecord();
+        rec.setBookId(bookId);
+        rec.setMemberId(memberId);
+        return service.borrowBook(rec);
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+}
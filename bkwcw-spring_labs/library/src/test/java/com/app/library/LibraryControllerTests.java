@@ -0,0 +1,208 @@
+package com.app.library;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.app.library.search.BookQuery;
+import com.app.library.services.LibraryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class LibraryControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private LibraryService service;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        for (int i = 1; i <= 5; i++) {
+            service.addBook(new Book("Book " + i, "Author", 2000 + i, "F", 1));
+        }
+    }
+
+    @Test
+    public void listBooks_pagesWithCursor() throws Exception {
+        mvc.perform(get("/api/books").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(header().string("Link", containsString("after=2")));
+
+        mvc.perform(get("/api/books").param("after", "4").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(5))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    public void searchBooks_filtersAndRequiresCriteria() throws Exception {
+        mvc.perform(get("/api/books/search").param("yearFrom", "2004"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mvc.perform(get("/api/books/search"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void streamBooks_writesOneJsonDocumentPerLine() throws Exception {
+        MvcResult pending = mvc.perform(get("/api/books/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[4].startsWith("{\"id\":5,"));
+    }
+
+    @Test
+    public void bulkImport_appliesValidRowsAndReportsErrors() throws Exception {
+        String csv = "title,author,publicationYear,genre,availableCopies\n"
+                + "\"Dune, Part One\",Frank Herbert,1965,SF,2\n"
+                + ",No Title,2000,X,1\n"
+                + "Emma,Jane Austen,not-a-year,Classic,1\n"
+                + "Persuasion,Jane Austen,1817,Classic,1\n";
+        mvc.perform(post("/api/books/bulk").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("title is required"))
+                .andExpect(jsonPath("$.errors[1].row").value(3));
+        assertEquals(1, service.searchBooks(new BookQuery("Jane Austen", null, null, null, null), 10).size());
+        assertEquals("Dune, Part One", service.getBookById(6L).orElseThrow().getTitle());
+
+        String ndjson = "{\"name\":\"Alice\"}\n{\"email\":\"x@example.com\"}\n{broken\n";
+        mvc.perform(post("/api/members/bulk").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(2));
+    }
+
+    @Test
+    public void exportBorrowingRecords_writesCsv() throws Exception {
+        Member member = new Member();
+        member.setName("Alice");
+        service.addMember(member);
+        BorrowingRecord record = new BorrowingRecord();
+        record.setBookId(1L);
+        record.setMemberId(member.getId());
+        service.borrowBook(record);
+
+        MvcResult pending = mvc.perform(get("/api/borrowing-records/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = mvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals("id,bookId,memberId,borrowDate,dueDate,returnDate", lines[0]);
+        assertEquals("1,1," + member.getId() + "," + record.getBorrowDate() + "," + record.getDueDate() + ",", lines[1]);
+
+        mvc.perform(get("/api/borrowing-records/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void borrowBatch_tellsUnknownIdsFromMissingCopies() throws Exception {
+        Member member = new Member();
+        member.setName("Alice");
+        service.addMember(member);
+        String batch = "{\"memberId\":" + member.getId() + ",\"bookIds\":[1,2]}";
+
+        mvc.perform(post("/api/borrow/batch").contentType("application/json")
+                .content("{\"memberId\":" + member.getId() + ",\"bookIds\":[1,99]}"))
+                .andExpect(status().isNotFound());
+        mvc.perform(post("/api/borrow/batch").contentType("application/json").content(batch))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)));
+        // both books are out now: nothing is borrowed and the refusal is "no copies"
+        mvc.perform(post("/api/borrow/batch").contentType("application/json").content(batch))
+                .andExpect(status().isBadRequest());
+        assertEquals(0, service.getBookById(1L).orElseThrow().getAvailableCopies());
+    }
+
+    @Test
+    public void getBook_answers304UntilTheBookChanges() throws Exception {
+        String etag = mvc.perform(get("/api/books/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Book 1"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        mvc.perform(get("/api/books/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+
+        // borrowing changes availableCopies, so the old tag no longer matches
+        Member member = new Member();
+        member.setName("Alice");
+        service.addMember(member);
+        BorrowingRecord record = new BorrowingRecord();
+        record.setBookId(1L);
+        record.setMemberId(member.getId());
+        service.borrowBook(record);
+        mvc.perform(get("/api/books/1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableCopies").value(0))
+                .andExpect(header().string("ETag", not(etag)));
+
+        mvc.perform(get("/api/books/99")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void metrics_timeServiceCallsAndCountRejections() throws Exception {
+        mvc.perform(get("/api/books/1")).andExpect(status().isOk());
+        mvc.perform(get("/api/books/1/records")).andExpect(status().isOk());
+        mvc.perform(put("/api/return/999")).andExpect(status().isNotFound());
+
+        // id lookups and single returns are left to http.server.requests
+        for (String untimed : List.of("getBookVersion", "getBookById", "returnLoan")) {
+            Timer timer = meterRegistry.find("library.service").tag("method", untimed).timer();
+            assertNull(timer, untimed + " should not be timed");
+        }
+        assertTrue(meterRegistry.get("library.service").tag("method", "getBookRecords").timer().count() >= 1);
+        // frozen, so the untimed methods skip the interceptor chain
+        assertTrue(((Advised) service).isFrozen());
+        assertEquals(1, meterRegistry.get("library.rejections").tag("operation", "return")
+                .tag("reason", "not_found").counter().count());
+        assertEquals(5, meterRegistry.get("library.books").gauge().value());
+    }
+}
@@ -3,11 +3,26 @@ package com.app.library;
 import com.app.library.models.Book;
 import com.app.library.models.BorrowingRecord;
 import com.app.library.models.Member;
+import com.app.library.search.BookQuery;
+import com.app.library.search.BookSearchIndex;
+import com.app.library.services.DayClock;
 import com.app.library.services.LibraryService;
+import com.app.library.stats.LibraryStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -73,4 +88,257 @@ public class LibraryServiceTests {
         assertNotNull(returned.get().getReturnDate());
         assertEquals(1, service.getBookById(createdBook.getId()).get().getAvailableCopies());
     }
+
+    @Test
+    public void updateAndDeleteBook_byId() {
+        Book created = service.addBook(new Book("Old", "Author", 2000, "F", 1));
+        Book replacement = new Book("New", "Author", 2001, "F", 2);
+        replacement.setId(created.getId());
+        assertTrue(service.updateBook(replacement).isPresent());
+        assertEquals("New", service.getBookById(created.getId()).get().getTitle());
+
+        Book missing = new Book("Missing", "Author", 2001, "F", 2);
+        missing.setId(999L);
+        assertFalse(service.updateBook(missing).isPresent(), "Update of unknown id should not insert");
+
+        assertTrue(service.deleteBook(created.getId()));
+        assertFalse(service.getBookById(created.getId()).isPresent());
+        assertFalse(service.deleteBook(created.getId()));
+        assertFalse(service.getBookById(null).isPresent());
+    }
+
+    @Test
+    public void addBook_clientSuppliedIdAdvancesGenerator() {
+        Book explicit = new Book("Explicit", "Author", 2000, "F", 1);
+        explicit.setId(41L);
+        service.addBook(explicit);
+        Book generated = service.addBook(new Book("Generated", "Author", 2000, "F", 1));
+        assertEquals(42L, generated.getId(), "Generated ids must skip past client-supplied ones");
+        assertEquals("Explicit", service.getBookById(41L).get().getTitle());
+    }
+
+    @Test
+    public void searchBooks_usesSecondaryIndexesAndTracksUpdates() {
+        Book dune = service.addBook(new Book("Dune", "Frank Herbert", 1965, "SciFi", 1));
+        service.addBook(new Book("Dune Messiah", "Frank Herbert", 1969, "SciFi", 1));
+        service.addBook(new Book("Emma", "Jane Austen", 1815, "Romance", 1));
+
+        assertEquals(2, service.searchBooks(new BookQuery("frank herbert", null, null, null, null), 10).size());
+        assertEquals(2, service.searchBooks(new BookQuery(null, null, "dun", null, null), 10).size());
+        assertEquals(1, service.searchBooks(new BookQuery(null, "scifi", null, 1966, null), 10).size());
+        assertEquals(1, service.searchBooks(new BookQuery(null, null, null, 1800, 1900), 10).size());
+
+        Book renamed = new Book("Children of Dune", "Frank Herbert", 1976, "SciFi", 1);
+        renamed.setId(dune.getId());
+        service.updateBook(renamed);
+        assertEquals(1, service.searchBooks(new BookQuery(null, null, "dune", null, null), 10).size());
+        assertEquals(1, service.searchBooks(new BookQuery(null, null, "children", null, null), 10).size());
+
+        service.deleteBook(dune.getId());
+        assertEquals(1, service.searchBooks(new BookQuery("Frank Herbert", null, null, null, null), 10).size());
+    }
+
+    @Test
+    public void bookSearchIndex_walksSmallestSourceAndDropsEmptyKeys() {
+        BookSearchIndex index = new BookSearchIndex();
+        Map<Long, Book> books = new HashMap<>();
+        for (long id = 1; id <= 100; id++) {
+            Book book = new Book(id == 50 ? "Zebra" : "Book " + id, "Prolific", 1900 + (int) id, "Fiction", 1);
+            book.setId(id);
+            books.put(id, book);
+            index.add(book);
+        }
+        AtomicInteger lookups = new AtomicInteger();
+        LongFunction<Book> lookup = id -> {
+            lookups.incrementAndGet();
+            return books.get(id);
+        };
+
+        // the author and genre sets hold every book: the title prefix and the year range are smaller
+        BookQuery zebra = new BookQuery("prolific", "fiction", "zeb", null, null);
+        assertEquals(List.of(books.get(50L)), index.search(zebra, 10, lookup));
+        assertEquals(1, lookups.getAndSet(0));
+        assertEquals(2, index.search(new BookQuery("prolific", null, "book", 1910, 1911), 10, lookup).size());
+        assertEquals(2, lookups.getAndSet(0));
+
+        for (Book book : books.values()) {
+            index.remove(book);
+        }
+        assertEquals(0, index.keyCount());
+        assertTrue(index.search(new BookQuery(null, null, null, 1900, 2100), 10, lookup).isEmpty());
+    }
+
+    @Test
+    public void fullTextSearch_ranksMatchesAndFollowsUpdates() {
+        Book rust = service.addBook(new Book("Programming Rust", "Jim Blandy", 2017, "Programming", 1));
+        service.addBook(new Book("The Rust Programming Language", "Steve Klabnik", 2018, "Programming", 1));
+        service.addBook(new Book("Rust: The Rust Book of Rust", "Anon", 2020, "Programming", 1));
+        service.addBook(new Book("Gardening", "Jim Green", 2001, "Hobby", 1));
+
+        List<Book> hits = service.fullTextSearch("RUST", 10);
+        assertEquals(3, hits.size());
+        assertEquals("Rust: The Rust Book of Rust", hits.get(0).getTitle(), "Most frequent term should rank first");
+        assertEquals(2, service.fullTextSearch("jim", 10).size());
+        assertEquals(1, service.fullTextSearch("rust", 1).size());
+        // scores of several terms add up: the only book matching both ranks first
+        List<Book> both = service.fullTextSearch("jim rust", 10);
+        assertEquals(4, both.size());
+        assertEquals(rust.getId(), both.get(0).getId());
+        assertEquals(rust.getId(), service.fullTextSearch("jim rust", 1).get(0).getId());
+
+        Book renamed = new Book("Programming Go", "Jim Blandy", 2017, "Programming", 1);
+        renamed.setId(rust.getId());
+        service.updateBook(renamed);
+        assertEquals(2, service.fullTextSearch("rust", 10).size());
+        assertEquals(rust.getId(), service.fullTextSearch("go", 10).get(0).getId());
+
+        service.deleteBook(rust.getId());
+        assertTrue(service.fullTextSearch("go", 10).isEmpty());
+    }
+
+    @Test
+    public void historyIndexes_trackMemberAndBookLoans() {
+        Book first = service.addBook(new Book("First", "Author", 2000, "F", 2));
+        Book second = service.addBook(new Book("Second", "Author", 2000, "F", 2));
+        Member alice = new Member();
+        alice.setName("Alice");
+        Member bob = new Member();
+        bob.setName("Bob");
+        long aliceId = service.addMember(alice).getId();
+        long bobId = service.addMember(bob).getId();
+
+        BorrowingRecord r1 = borrow(first.getId(), aliceId);
+        borrow(second.getId(), aliceId);
+        borrow(first.getId(), bobId);
+        service.returnBook(r1.getId());
+
+        assertEquals(2, service.getMemberRecords(aliceId, null, 10, false).size());
+        List<BorrowingRecord> open = service.getMemberRecords(aliceId, null, 10, true);
+        assertEquals(1, open.size());
+        assertEquals(second.getId(), open.get(0).getBookId());
+        assertEquals(2, service.getBookRecords(first.getId(), null, 10).size());
+        assertEquals(1, service.getBookRecords(first.getId(), r1.getId(), 10).size());
+        assertTrue(service.getMemberRecords(999L, null, 10, false).isEmpty());
+    }
+
+    @Test
+    public void borrowBooks_isAllOrNothing() {
+        long dune = service.addBook(new Book("Dune", "Frank Herbert", 1965, "SF", 2)).getId();
+        long emma = service.addBook(new Book("Emma", "Jane Austen", 1815, "Classic", 1)).getId();
+        Member m = new Member();
+        m.setName("Kiosk");
+        long memberId = service.addMember(m).getId();
+
+        // Emma has a single copy, so asking for it twice fails and Dune is left untouched
+        assertTrue(service.borrowBooks(memberId, List.of(dune, emma, emma)).isEmpty());
+        assertEquals(2, service.getBookById(dune).get().getAvailableCopies());
+        assertTrue(service.getAllBorrowingRecords().isEmpty());
+
+        List<BorrowingRecord> cart = service.borrowBooks(memberId, List.of(dune, emma, dune)).orElseThrow();
+        assertEquals(3, cart.size());
+        assertEquals(0, service.getBookById(dune).get().getAvailableCopies());
+        assertEquals(3, service.getMemberRecords(memberId, null, 10, true).size());
+
+        List<Long> ids = cart.stream().map(BorrowingRecord::getId).toList();
+        assertTrue(service.returnBooks(List.of(ids.get(0), 999L)).isEmpty());
+        assertNull(cart.get(0).getReturnDate());
+        assertEquals(3, service.returnBooks(ids).orElseThrow().size());
+        assertEquals(2, service.getBookById(dune).get().getAvailableCopies());
+        assertEquals(1, service.getBookById(emma).get().getAvailableCopies());
+        assertTrue(service.getMemberRecords(memberId, null, 10, true).isEmpty());
+    }
+
+    @Test
+    public void statistics_followEveryMutation() {
+        long dune = service.addBook(new Book("Dune", "Frank Herbert", 1965, "SF", 3)).getId();
+        long emma = service.addBook(new Book("Emma", "Jane Austen", 1815, "Classic", 2)).getId();
+        long temp = service.addBook(new Book("Temp", "Nobody", 2000, "SF", 1)).getId();
+        Member a = new Member();
+        a.setName("A");
+        long memberA = service.addMember(a).getId();
+        Member b = new Member();
+        b.setName("B");
+        long memberB = service.addMember(b).getId();
+
+        borrow(dune, memberA);
+        borrow(dune, memberB);
+        BorrowingRecord returned = borrow(emma, memberA);
+        service.returnBook(returned.getId());
+        service.deleteBook(temp);
+        Book updated = new Book("Emma", "Jane Austen", 1815, "Romance", 5);
+        updated.setId(emma);
+        service.updateBook(updated);
+
+        LibraryStats stats = service.getStatistics(2);
+        assertEquals(2, stats.books());
+        assertEquals(2, stats.members());
+        assertEquals(1 + 5, stats.availableCopies());
+        assertEquals(2, stats.activeLoans());
+        assertEquals(8, stats.totalCopies());
+        assertEquals(3, stats.totalLoans());
+        assertEquals(2, stats.membersWithActiveLoans());
+        assertEquals(1.5, stats.loansPerMember());
+        assertEquals(Map.of("SF", 1L, "Romance", 1L), stats.booksPerGenre());
+        assertEquals(dune, stats.mostBorrowed().get(0).bookId());
+        assertEquals("Dune", stats.mostBorrowed().get(0).title());
+        assertEquals(2, stats.mostBorrowed().get(0).borrows());
+        assertEquals(2, stats.mostBorrowed().size());
+    }
+
+    @Test
+    public void borrowById_bindsPrimitiveIdsAndSharesTheDaysDates() throws Exception {
+        BorrowingRecord request = new ObjectMapper().readValue("{\"bookId\":3,\"memberId\":null}", BorrowingRecord.class);
+        assertEquals(3, request.bookId());
+        assertEquals(BorrowingRecord.NO_ID, request.memberId());
+        assertNull(request.getBook(), "an id-only request builds no Book");
+
+        long dune = service.addBook(new Book("Dune", "Frank Herbert", 1965, "SF", 2)).getId();
+        long member = service.addMember(new Member("Ann", null, null, null, null)).getId();
+        BorrowingRecord first = service.borrow(dune, member);
+        BorrowingRecord second = service.borrow(dune, member);
+        assertSame(first.getBorrowDate(), second.getBorrowDate());
+        assertEquals(first.getBorrowDate().plusDays(14), first.getDueDate());
+        assertNull(service.borrow(dune, member), "no copies left");
+        assertNull(service.borrow(dune, 999));
+        assertNull(service.returnLoan(999));
+        assertNotNull(service.returnLoan(first.getId()).getReturnDate());
+    }
+
+    @Test
+    public void dayClock_rollsOverAtMidnight() {
+        ZoneId zone = ZoneId.of("Europe/Stockholm");
+        Instant beforeMidnight = LocalDate.of(2024, 3, 30).atTime(23, 59).atZone(zone).toInstant();
+        DayClock.Day day = new DayClock(Clock.fixed(beforeMidnight, zone), 14).today();
+        assertEquals(LocalDate.of(2024, 3, 30), day.date());
+        assertEquals(LocalDate.of(2024, 4, 13), day.dueDate());
+
+        AtomicReference<Instant> now = new AtomicReference<>(beforeMidnight);
+        DayClock clock = new DayClock(new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return zone;
+            }
+
+            @Override
+            public Clock withZone(ZoneId z) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        }, 14);
+        DayClock.Day first = clock.today();
+        assertSame(first, clock.today());
+        now.set(beforeMidnight.plusSeconds(120));
+        assertEquals(LocalDate.of(2024, 3, 31), clock.today().date());
+    }
+
+    private BorrowingRecord borrow(long bookId, long memberId) {
+        BorrowingRecord rec = new BorrowingRecord();
+        rec.setBookId(bookId);
+        rec.setMemberId(memberId);
+        return service.borrowBook(rec).get();
+    }
 }
@@ -0,0 +1,59 @@
+package com.app.library;
+
+import com.app.library.storage.GroupIndex;
+import com.app.library.storage.columnar.LoanLedger;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoanLedgerTests {
+
+    @Test
+    public void rowsKeepEveryDateIncludingEpochAndNegativeDays() {
+        LoanLedger ledger = new LoanLedger();
+        int epoch = LoanLedger.day(LocalDate.of(1970, 1, 1));
+        int before = LoanLedger.day(LocalDate.of(1969, 12, 31));
+        ledger.put(1, 10, 20, epoch, before, LoanLedger.NO_DAY);
+        // well past the first chunk, so the columns grow
+        ledger.put(100_000, 11, 21, before, epoch, epoch);
+
+        assertTrue(ledger.contains(1));
+        assertFalse(ledger.contains(2));
+        assertFalse(ledger.contains(5_000_000));
+        assertEquals(10, ledger.bookId(1));
+        assertEquals(20, ledger.memberId(1));
+        assertEquals(LocalDate.of(1970, 1, 1), LoanLedger.date(ledger.borrowDay(1)));
+        assertEquals(LocalDate.of(1969, 12, 31), LoanLedger.date(ledger.dueDay(1)));
+        assertNull(LoanLedger.date(ledger.returnDay(1)));
+        assertFalse(ledger.isReturned(1));
+        assertTrue(ledger.isReturned(100_000));
+
+        assertTrue(ledger.markReturned(1, epoch));
+        assertFalse(ledger.markReturned(1, epoch + 1));
+        assertEquals(epoch, ledger.returnDay(1));
+
+        assertEquals(2, ledger.size());
+        assertArrayEquals(new long[] { 1, 100_000 }, ledger.page(0, 10));
+        assertArrayEquals(new long[] { 100_000 }, ledger.page(1, 10));
+    }
+
+    @Test
+    public void groupIndexSortsOutOfOrderAdds() {
+        GroupIndex index = new GroupIndex();
+        for (long id : new long[] { 5, 9, 2, 9, 7, 2 }) {
+            index.add(1, id);
+        }
+        assertEquals(List.of(2L, 5L, 7L, 9L), index.page(1, Long.MIN_VALUE, 10));
+        assertEquals(List.of(7L), index.page(1, 5, 1));
+
+        index.remove(1, 5);
+        index.add(1, 12);
+        assertFalse(index.contains(1, 5));
+        assertTrue(index.contains(1, 12));
+        assertEquals(List.of(2L, 7L, 9L, 12L), index.page(1, 0, 10));
+        assertEquals(List.of(), index.page(2, 0, 10));
+    }
+}
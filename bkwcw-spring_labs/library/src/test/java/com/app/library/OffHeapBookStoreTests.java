@@ -0,0 +1,169 @@
+package com.app.library;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.app.library.persistence.SnapshotStore;
+import com.app.library.search.BookQuery;
+import com.app.library.services.LibraryService;
+import com.app.library.storage.columnar.OffHeapBookStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapBookStoreTests {
+
+    private OffHeapBookStore store;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    public void setup() {
+        store = new OffHeapBookStore();
+    }
+
+    private static Book book(long id, String title) {
+        Book b = new Book(title, "Author " + id % 3, 2000 + (int) id, id % 2 == 0 ? "Even" : null, 2);
+        b.setId(id);
+        return b;
+    }
+
+    @Test
+    public void putGetReplaceRemove_roundTripThroughColumns() {
+        assertNull(store.put(1, book(1, "Första boken")));
+        Book stored = store.get(1);
+        assertEquals(1L, stored.getId());
+        assertEquals("Första boken", stored.getTitle());
+        assertEquals("Author 1", stored.getAuthor());
+        assertEquals(2001, stored.getPublicationYear());
+        assertNull(stored.getGenre());
+
+        Book previous = store.replace(1, book(1, "Renamed"));
+        assertEquals("Första boken", previous.getTitle(), "previous is a copy of the old row");
+        assertEquals("Renamed", stored.getTitle(), "views read the current row");
+        assertNull(store.replace(2, book(2, "Missing")));
+
+        Book removed = store.remove(1);
+        assertEquals("Renamed", removed.getTitle());
+        assertNull(store.get(1));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void page_followsIdOrderAlsoForClientIds() {
+        for (long id = 1; id <= 50; id++) {
+            store.put(id, book(id, "Book " + id));
+        }
+        store.remove(10);
+        assertEquals(List.of(9L, 11L, 12L), ids(store.page(8, 3)));
+
+        // an id below the highest one breaks the append order
+        store.put(10, book(10, "Back again"));
+        store.put(-5, book(-5, "Negative"));
+        assertEquals(List.of(-5L, 1L), ids(store.page(Long.MIN_VALUE, 2)));
+        assertEquals(List.of(9L, 10L, 11L), ids(store.page(8, 3)));
+        assertEquals(51, store.values().size());
+    }
+
+    @Test
+    public void page_staysInIdOrderThroughManyUnorderedWrites() {
+        SplittableRandom random = new SplittableRandom(7);
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(30_000);
+            if (random.nextInt(4) == 0) {
+                store.remove(id);
+                expected.remove(id);
+            } else {
+                store.put(id, book(id, "Book " + id));
+                expected.add(id);
+            }
+            if (i % 997 == 0) {
+                List<Long> next = expected.tailSet(id, false).stream().limit(5).toList();
+                assertEquals(next, ids(store.page(id, 5)));
+            }
+        }
+        List<Long> all = new ArrayList<>();
+        store.forEach(b -> all.add(b.getId()));
+        assertEquals(List.copyOf(expected), all);
+    }
+
+    @Test
+    public void snapshotLoadedIntoOffHeapStore_pagesInIdOrder() throws IOException {
+        LibraryService source = new LibraryService();
+        for (int i = 0; i < 5_000; i++) {
+            source.addBook(new Book("Book " + i, "Author " + i % 7, 1900 + i % 100, "Genre", 1));
+        }
+        SnapshotStore.write(dir, 1, source);
+        LibraryService loaded = new LibraryService(store);
+        SnapshotStore.load(dir, loaded);
+
+        List<Long> paged = new ArrayList<>();
+        List<Book> page = loaded.getBooksPage(null, 100);
+        while (!page.isEmpty()) {
+            page.forEach(b -> paged.add(b.getId()));
+            page = loaded.getBooksPage(page.get(page.size() - 1).getId(), 100);
+        }
+        assertEquals(source.getAllBooks().stream().map(Book::getId).toList(), paged);
+    }
+
+    @Test
+    public void replacedAndDeletedTitles_areCompactedAway() {
+        String padding = "x".repeat(200);
+        for (long id = 1; id <= 1_000; id++) {
+            store.put(id, book(id, "Book " + id + padding));
+        }
+        Book kept = store.get(7);
+        long initial = store.offHeapBytes();
+        for (int round = 1; round <= 40; round++) {
+            for (long id = 1; id <= 1_000; id++) {
+                store.replace(id, book(id, "Round " + round + " of " + id + padding));
+            }
+        }
+        Book removed = store.remove(1_000);
+        assertEquals("Round 40 of 1000" + padding, removed.getTitle());
+
+        // 8 MB of titles were replaced; compaction keeps the arena near twice the live titles
+        assertTrue(store.wastedOffHeapBytes() < 2 << 20, "wasted " + store.wastedOffHeapBytes());
+        assertTrue(store.offHeapBytes() < initial + (4 << 20), "reserved " + store.offHeapBytes());
+        assertEquals("Round 40 of 7" + padding, kept.getTitle(), "views follow their title when it moves");
+        for (long id = 1; id < 1_000; id++) {
+            assertEquals("Round 40 of " + id + padding, store.get(id).getTitle());
+        }
+    }
+
+    @Test
+    public void service_borrowAndSearchOnOffHeapCatalog() {
+        LibraryService service = new LibraryService(store);
+        Book created = service.addBook(new Book("Dune", "Frank Herbert", 1965, "SF", 1));
+        Member member = service.addMember(new Member("Ann", "ann@example.com", null, null, null));
+
+        BorrowingRecord request = new BorrowingRecord();
+        request.setBookId(created.getId());
+        request.setMemberId(member.getId());
+        Optional<BorrowingRecord> loan = service.borrowBook(request);
+        assertTrue(loan.isPresent());
+        assertEquals(0, service.getBookById(created.getId()).get().getAvailableCopies());
+        assertFalse(service.borrowBook(request).isPresent(), "no copies left");
+
+        service.returnBook(loan.get().getId());
+        assertEquals(1, store.get(created.getId()).getAvailableCopies());
+        assertEquals(1, service.searchBooks(new BookQuery("Frank Herbert", null, null, null, null), 10).size());
+        assertTrue(store.offHeapBytes() > 0);
+    }
+
+    private static List<Long> ids(List<Book> books) {
+        return books.stream().map(Book::getId).toList();
+    }
+}
@@ -0,0 +1,68 @@
+package com.app.library;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.app.library.overdue.OverdueLoansEvent;
+import com.app.library.overdue.OverdueSweeper;
+import com.app.library.services.LibraryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OverdueSweeperTests {
+
+    private LibraryService service;
+    private final List<OverdueLoansEvent> events = new ArrayList<>();
+    private long bookId;
+    private long memberId;
+
+    @BeforeEach
+    public void setup() {
+        service = new LibraryService();
+        events.clear();
+        bookId = service.addBook(new Book("Demo", "Author", 2020, "F", 10)).getId();
+        Member m = new Member();
+        m.setName("Late");
+        memberId = service.addMember(m).getId();
+    }
+
+    @Test
+    public void overdueQuery_onlyReturnsOpenLoansPastDueDate() {
+        BorrowingRecord kept = borrow();
+        BorrowingRecord returned = borrow();
+        service.returnBook(returned.getId());
+
+        LocalDate due = kept.getDueDate();
+        assertTrue(service.getOverdueRecords(due, 10).isEmpty(), "Not overdue on the due date itself");
+        List<BorrowingRecord> overdue = service.getOverdueRecords(due.plusDays(1), 10);
+        assertEquals(1, overdue.size());
+        assertEquals(kept.getId(), overdue.get(0).getId());
+    }
+
+    @Test
+    public void sweep_publishesEachOverdueLoanOnceInBatches() {
+        for (int i = 0; i < 5; i++) {
+            borrow();
+        }
+        OverdueSweeper sweeper = new OverdueSweeper(service, event -> events.add((OverdueLoansEvent) event), 2);
+        LocalDate afterDue = LocalDate.now().plusDays(15);
+
+        assertEquals(0, sweeper.sweep(LocalDate.now()));
+        assertEquals(5, sweeper.sweep(afterDue));
+        assertEquals(3, events.size(), "5 loans in batches of 2");
+        assertEquals(0, sweeper.sweep(afterDue.plusDays(1)), "Already reported loans are not reported again");
+    }
+
+    private BorrowingRecord borrow() {
+        BorrowingRecord rec = new BorrowingRecord();
+        rec.setBookId(bookId);
+        rec.setMemberId(memberId);
+        return service.borrowBook(rec).get();
+    }
+}
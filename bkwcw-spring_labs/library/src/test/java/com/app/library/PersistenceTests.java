@@ -0,0 +1,199 @@
+package com.app.library;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.app.library.overdue.OverdueSweeper;
+import com.app.library.persistence.FileMutationLog;
+import com.app.library.persistence.LibraryPersistence;
+import com.app.library.persistence.Mutation;
+import com.app.library.persistence.SnapshotStore;
+import com.app.library.services.LibraryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistenceTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void replayingTheLogRestoresState_andIgnoresTornTail() throws IOException {
+        LibraryService service = new LibraryService();
+        FileMutationLog log = new FileMutationLog(dir, 0, 16, 1, true);
+        service.setMutationLog(log);
+
+        Book kept = service.addBook(new Book("Dune", "Frank Herbert", 1965, "SF", 2));
+        Book deleted = service.addBook(new Book("Temp", "Nobody", 2000, "X", 1));
+        Member member = service.addMember(member("Alice"));
+        BorrowingRecord open = borrow(service, kept.getId(), member.getId());
+        BorrowingRecord closed = borrow(service, kept.getId(), member.getId());
+        service.returnBook(closed.getId());
+        service.deleteBook(deleted.getId());
+        log.close();
+
+        // a crash in the middle of a write leaves a partial last line
+        try (Stream<Path> segments = Files.list(dir)) {
+            Path segment = segments.findFirst().orElseThrow();
+            Files.writeString(segment, "99\t{\"type\":\"BOOK_PU", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        }
+
+        LibraryService recovered = new LibraryService();
+        long last = FileMutationLog.replay(dir, 0, recovered::applyMutation);
+        assertEquals(7, last);
+        assertEquals(1, recovered.getAllBooks().size());
+        assertEquals(1, recovered.getBookById(kept.getId()).orElseThrow().getAvailableCopies());
+        assertTrue(recovered.getBookById(deleted.getId()).isEmpty());
+        assertNotNull(recovered.getBorrowingRecordById(closed.getId()).orElseThrow().getReturnDate());
+        List<BorrowingRecord> openLoans = recovered.getMemberRecords(member.getId(), null, 10, true);
+        assertEquals(List.of(open.getId()), openLoans.stream().map(BorrowingRecord::getId).toList());
+        assertEquals(1, recovered.fullTextSearch("dune", 10).size());
+
+        // the log continues after the torn entry
+        FileMutationLog reopened = new FileMutationLog(dir, last, 16, 1, true);
+        recovered.setMutationLog(reopened);
+        recovered.addMember(member("Bob"));
+        reopened.close();
+        LibraryService again = new LibraryService();
+        assertEquals(8, FileMutationLog.replay(dir, 0, again::applyMutation));
+        assertEquals(2, again.getAllMembers().size());
+    }
+
+    @Test
+    public void snapshotCoversOldSegments_andRecoveryCombinesSnapshotWithLog() throws IOException {
+        LibraryService service = new LibraryService();
+        LibraryPersistence persistence = new LibraryPersistence(service, dir.toString(), 4, 1, true);
+        persistence.recover();
+
+        Book book = service.addBook(new Book("Dune", "Frank Herbert", 1965, "SF", 3));
+        Member member = service.addMember(member("Alice"));
+        BorrowingRecord first = borrow(service, book.getId(), member.getId());
+        Book removed = service.addBook(new Book("Temp", "Nobody", 2000, "X", 1));
+        service.deleteBook(removed.getId());
+
+        assertEquals(5, persistence.snapshot().seq());
+
+        service.returnBook(first.getId());
+        BorrowingRecord second = borrow(service, book.getId(), member.getId());
+        persistence.shutdown();
+
+        LibraryService restarted = new LibraryService();
+        new LibraryPersistence(restarted, dir.toString(), 4, 1, true).recover();
+        assertEquals(2, restarted.getBookById(book.getId()).orElseThrow().getAvailableCopies());
+        assertNotNull(restarted.getBorrowingRecordById(first.getId()).orElseThrow().getReturnDate());
+        assertNull(restarted.getBorrowingRecordById(second.getId()).orElseThrow().getReturnDate());
+        assertEquals(2, restarted.getBookRecords(book.getId(), null, 10).size());
+
+        // ids of deleted entities are not handed out again
+        Book next = restarted.addBook(new Book("New", "Someone", 2024, "X", 1));
+        assertTrue(next.getId() > removed.getId());
+    }
+
+    @Test
+    public void binarySnapshotRoundTripsEveryField() throws IOException {
+        LibraryService service = new LibraryService();
+        Book dune = service.addBook(new Book("Dune", "Frank Herbert", 1965, "SF", 2));
+        Book messiah = service.addBook(new Book("Dune Messiah", "Frank Herbert", 1969, null, 1));
+        Member alice = member("Alice");
+        alice.setEmail("alice@example.com");
+        alice.setStartDate(LocalDate.of(2024, 1, 15));
+        service.addMember(alice);
+        BorrowingRecord open = borrow(service, dune.getId(), alice.getId());
+        BorrowingRecord closed = service.returnBook(borrow(service, messiah.getId(), alice.getId()).getId())
+                .orElseThrow();
+        service.setOverdueReportedUntil(LocalDate.of(2024, 2, 1));
+
+        SnapshotStore.Header written = SnapshotStore.write(dir, 42, service);
+        LibraryService loaded = new LibraryService();
+        SnapshotStore.Header read = SnapshotStore.load(dir, loaded);
+
+        assertEquals(written, read);
+        assertEquals(new SnapshotStore.Header(42, 3, 2, 3, 2, 1, 2), read);
+        Book book = loaded.getBookById(messiah.getId()).orElseThrow();
+        assertEquals("Dune Messiah", book.getTitle());
+        assertEquals(1969, book.getPublicationYear());
+        assertNull(book.getGenre());
+        assertEquals(1, book.getAvailableCopies());
+        // repeated strings come back as one shared instance
+        assertSame(book.getAuthor(), loaded.getBookById(dune.getId()).orElseThrow().getAuthor());
+
+        Member member = loaded.getMemberById(alice.getId()).orElseThrow();
+        assertEquals("alice@example.com", member.getEmail());
+        assertEquals(LocalDate.of(2024, 1, 15), member.getStartDate());
+        assertNull(member.getEndDate());
+
+        BorrowingRecord record = loaded.getBorrowingRecordById(open.getId()).orElseThrow();
+        assertSame(member, record.getMember());
+        assertEquals(open.getDueDate(), record.getDueDate());
+        assertNull(record.getReturnDate());
+        assertEquals(closed.getReturnDate(), loaded.getBorrowingRecordById(closed.getId()).orElseThrow().getReturnDate());
+        assertEquals(1, loaded.getMemberRecords(alice.getId(), null, 10, true).size());
+        assertEquals(2, loaded.fullTextSearch("dune", 10).size());
+        assertEquals(LocalDate.of(2024, 2, 1), loaded.getOverdueReportedUntil());
+    }
+
+    @Test
+    public void snapshotKeepsUnsetRecordIdsUnset() throws IOException {
+        LibraryService service = new LibraryService();
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        service.applyMutation(new Mutation(Mutation.Type.RECORD_PUT, null, null, 5L, null, null,
+                day, day.plusDays(14), day.plusDays(3), null));
+
+        SnapshotStore.write(dir, 1, service);
+        LibraryService loaded = new LibraryService();
+        SnapshotStore.load(dir, loaded);
+
+        BorrowingRecord record = loaded.getBorrowingRecordById(5L).orElseThrow();
+        assertNull(record.getBookId());
+        assertNull(record.getMemberId());
+        assertEquals(day.plusDays(3), record.getReturnDate());
+    }
+
+    @Test
+    public void overdueSweepWatermarkSurvivesRestart_fromSnapshotAndLog() throws IOException {
+        LibraryService service = new LibraryService();
+        LibraryPersistence persistence = new LibraryPersistence(service, dir.toString(), 4, 1, true);
+        persistence.recover();
+        Book book = service.addBook(new Book("Dune", "Frank Herbert", 1965, "SF", 5));
+        Member member = service.addMember(member("Alice"));
+        borrow(service, book.getId(), member.getId());
+        borrow(service, book.getId(), member.getId());
+        LocalDate afterDue = LocalDate.now().plusDays(30);
+
+        assertEquals(2, new OverdueSweeper(service, event -> { }, 10).sweep(afterDue));
+        persistence.snapshot();
+        // this sweep only reaches the log
+        assertEquals(0, new OverdueSweeper(service, event -> { }, 10).sweep(afterDue.plusDays(1)));
+        persistence.shutdown();
+
+        LibraryService restarted = new LibraryService();
+        new LibraryPersistence(restarted, dir.toString(), 4, 1, true).recover();
+        assertEquals(afterDue.plusDays(1), restarted.getOverdueReportedUntil());
+        assertEquals(0, new OverdueSweeper(restarted, event -> { }, 10).sweep(afterDue.plusDays(2)),
+                "Loans reported before the restart are not reported again");
+    }
+
+    private static Member member(String name) {
+        Member m = new Member();
+        m.setName(name);
+        return m;
+    }
+
+    private static BorrowingRecord borrow(LibraryService service, long bookId, long memberId) {
+        BorrowingRecord r = new BorrowingRecord();
+        r.setBookId(bookId);
+        r.setMemberId(memberId);
+        return service.borrowBook(r).orElseThrow();
+    }
+}
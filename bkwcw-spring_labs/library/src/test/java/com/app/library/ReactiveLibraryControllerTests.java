@@ -0,0 +1,93 @@
+package com.app.library;
+
+import com.app.library.models.Book;
+import com.app.library.models.Member;
+import com.app.library.services.LibraryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ReactiveLibraryControllerTests {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private LibraryService service;
+
+    @BeforeEach
+    public void setup() {
+        for (int i = 1; i <= 5; i++) {
+            service.addBook(new Book("Book " + i, "Author", 2000 + i, "F", 1));
+        }
+    }
+
+    @Test
+    public void listBooks_pagesWithCursor() {
+        client.get().uri("/api/books?limit=2").exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.LINK, containsString("after=2"))
+                .expectBody().jsonPath("$.length()").isEqualTo(2).jsonPath("$[0].id").isEqualTo(1);
+    }
+
+    @Test
+    public void streamBooks_emitsWholeCatalogAsNdjson() {
+        List<Book> books = client.get().uri("/api/books/stream").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .returnResult(Book.class).getResponseBody().collectList().block();
+        assertEquals(5, books.size());
+        assertEquals(5L, books.get(4).getId());
+    }
+
+    @Test
+    public void getBook_revalidatesWithEtag() {
+        String etag = client.get().uri("/api/books/1").exchange()
+                .expectStatus().isOk()
+                .returnResult(byte[].class).getResponseHeaders().getETag();
+        client.get().uri("/api/books/1").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified();
+        client.get().uri("/api/books/99").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void borrowAndReturn_matchServletVariant() {
+        long memberId = client.post().uri("/api/members")
+                .bodyValue("{\"name\":\"Ann\",\"email\":\"ann@example.com\"}")
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).exchange()
+                .expectStatus().isCreated()
+                .returnResult(Member.class).getResponseBody().blockFirst().getId();
+        String borrow = "{\"book\":{\"id\":1},\"member\":{\"id\":" + memberId + "}}";
+        client.post().uri("/api/borrow").header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .bodyValue(borrow).exchange().expectStatus().isCreated();
+        // the only copy is out now
+        client.post().uri("/api/borrow").header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .bodyValue(borrow).exchange().expectStatus().isBadRequest();
+        client.put().uri("/api/return/999").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void bulkImportAndCsvExport() {
+        client.post().uri("/api/members/bulk").contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"name\":\"A\"}\n{\"name\":\"\"}\n{\"name\":\"B\"}\n").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.accepted").isEqualTo(2).jsonPath("$.rejected").isEqualTo(1);
+        client.get().uri("/api/borrowing-records/export?format=csv").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).value(containsString("id,bookId,memberId"));
+        client.get().uri("/api/borrowing-records/export?format=xml").exchange().expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,118 @@
+package com.app.library;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.app.library.persistence.Mutation;
+import com.app.library.persistence.MutationLog;
+import com.app.library.replication.ReplicationFollower;
+import com.app.library.replication.ReplicationLeader;
+import com.app.library.replication.ReplicationLog;
+import com.app.library.services.LibraryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "library.replication.role=leader")
+@DirtiesContext
+public class ReplicationTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LibraryService leader;
+
+    @Autowired
+    private ReplicationLeader replicationLeader;
+
+    @Test
+    public void logReadsInOrder_andRefusesOverwrittenPositions() throws Exception {
+        ReplicationLog log = new ReplicationLog(MutationLog.NONE, 0, 4);
+        for (long id = 1; id <= 3; id++) {
+            assertEquals(id, log.append(Mutation.bookDelete(id)));
+        }
+        List<ReplicationLog.Entry> entries = log.read(0, 10, 0).orElseThrow();
+        assertEquals(List.of(1L, 2L, 3L), entries.stream().map(ReplicationLog.Entry::seq).toList());
+        assertEquals(2L, (long) entries.get(1).mutation().id());
+
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        entries.get(2).writeTo(line);
+        ReplicationLog.Entry parsed = ReplicationLog.Entry.parse(line.toString(StandardCharsets.UTF_8).trim());
+        assertEquals(3L, parsed.seq());
+        assertEquals(entries.get(2).timestamp(), parsed.timestamp());
+
+        for (long id = 4; id <= 6; id++) {
+            log.append(Mutation.bookDelete(id));
+        }
+        // entry 1 was overwritten by entry 5: a reader at 0 has to start over from a snapshot
+        assertTrue(log.read(0, 10, 0).isEmpty());
+        assertEquals(List.of(3L, 4L), log.read(2, 2, 0).orElseThrow().stream().map(ReplicationLog.Entry::seq).toList());
+        assertTrue(log.read(6, 10, 20).orElseThrow().isEmpty());
+        assertTrue(log.read(7, 10, 0).isEmpty());
+    }
+
+    @Test
+    public void followerBootstrapsFromASnapshot_andFollowsTheLog() throws Exception {
+        Book dune = leader.addBook(new Book("Dune", "Frank Herbert", 1965, "SF", 2));
+        Book emma = leader.addBook(new Book("Emma", "Jane Austen", 1815, "Classic", 1));
+        Member alice = leader.addMember(member("Alice"));
+        BorrowingRecord open = leader.borrow(dune.getId(), alice.getId());
+
+        LibraryService replica = new LibraryService();
+        ReplicationFollower follower = new ReplicationFollower(replica, new SimpleMeterRegistry(),
+                "http://localhost:" + port, 2, 200, false);
+        follower.start();
+        try {
+            awaitCaughtUp(follower);
+            assertEquals(1, replica.getBookById(dune.getId()).orElseThrow().getAvailableCopies());
+            assertEquals(List.of(open.getId()), ids(replica.getMemberRecords(alice.getId(), null, 10, true)));
+
+            // changes after the snapshot arrive through the log, a few entries per batch
+            BorrowingRecord second = leader.borrow(emma.getId(), alice.getId());
+            leader.returnBook(open.getId());
+            leader.deleteBook(dune.getId());
+            Member bob = leader.addMember(member("Bob"));
+            awaitCaughtUp(follower);
+
+            assertTrue(replica.getBookById(dune.getId()).isEmpty());
+            assertEquals(0, replica.getBookById(emma.getId()).orElseThrow().getAvailableCopies());
+            assertEquals(List.of(second.getId()), ids(replica.getMemberRecords(alice.getId(), null, 10, true)));
+            assertNotNull(replica.getBorrowingRecordById(open.getId()).orElseThrow().getReturnDate());
+            assertEquals("Bob", replica.getMemberById(bob.getId()).orElseThrow().getName());
+            assertEquals(0, follower.getLagEntries());
+            assertEquals(ReplicationFollower.State.FOLLOWING, follower.getState());
+        } finally {
+            follower.stop();
+        }
+    }
+
+    private void awaitCaughtUp(ReplicationFollower follower) throws InterruptedException {
+        long target = replicationLeader.getLog().getLastSeq();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (follower.getAppliedSeq() < target && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(target, follower.getAppliedSeq());
+    }
+
+    private static Member member(String name) {
+        Member m = new Member();
+        m.setName(name);
+        return m;
+    }
+
+    private static List<Long> ids(List<BorrowingRecord> records) {
+        return records.stream().map(BorrowingRecord::getId).toList();
+    }
+}
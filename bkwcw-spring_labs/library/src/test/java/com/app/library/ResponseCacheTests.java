@@ -0,0 +1,68 @@
+package com.app.library;
+
+import com.app.library.cache.ResponseCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTests {
+
+    @Test
+    public void servesOnlyTheCurrentVersion() {
+        ResponseCache cache = new ResponseCache(1024, 1);
+        AtomicInteger serialized = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            cache.get(ResponseCache.Kind.BOOK, 1, 7, () -> body(10, serialized));
+        }
+        assertEquals(1, serialized.get());
+        cache.get(ResponseCache.Kind.BOOK, 1, 8, () -> body(10, serialized));
+        assertEquals(2, serialized.get());
+        // a member with the same id is a different entry
+        cache.get(ResponseCache.Kind.MEMBER, 1, 8, () -> body(10, serialized));
+        assertEquals(3, serialized.get());
+
+        ResponseCache.Stats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(2, stats.entries());
+        assertEquals(20, stats.bytes());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedToStayWithinBytes() {
+        ResponseCache cache = new ResponseCache(300, 1);
+        AtomicInteger serialized = new AtomicInteger();
+        cache.get(ResponseCache.Kind.BOOK, 1, 1, () -> body(100, serialized));
+        cache.get(ResponseCache.Kind.BOOK, 2, 1, () -> body(100, serialized));
+        cache.get(ResponseCache.Kind.BOOK, 3, 1, () -> body(100, serialized));
+        cache.get(ResponseCache.Kind.BOOK, 1, 1, () -> body(100, serialized)); // touch 1
+        cache.get(ResponseCache.Kind.BOOK, 4, 1, () -> body(100, serialized)); // evicts 2
+
+        assertEquals(4, serialized.get());
+        assertEquals(300, cache.stats().bytes());
+        assertEquals(1, cache.stats().evictions());
+        cache.get(ResponseCache.Kind.BOOK, 1, 1, () -> body(100, serialized));
+        assertEquals(4, serialized.get());
+        cache.get(ResponseCache.Kind.BOOK, 2, 1, () -> body(100, serialized));
+        assertEquals(5, serialized.get());
+    }
+
+    @Test
+    public void ifNoneMatchAcceptsListsWeakTagsAndWildcard() {
+        ResponseCache cache = new ResponseCache(1024, 1);
+        String etag = cache.etag(5);
+        assertTrue(cache.matches(etag, etag));
+        assertTrue(cache.matches("\"x\", W/" + etag, etag));
+        assertTrue(cache.matches("*", etag));
+        assertFalse(cache.matches(cache.etag(4), etag));
+        assertFalse(cache.matches(null, etag));
+    }
+
+    private static byte[] body(int size, AtomicInteger serialized) {
+        serialized.incrementAndGet();
+        return new byte[size];
+    }
+}
@@ -0,0 +1,142 @@
+package com.app.library;
+
+import com.app.library.models.Book;
+import com.app.library.models.BorrowingRecord;
+import com.app.library.models.Member;
+import com.app.library.persistence.SnapshotStore;
+import com.app.library.services.ShardedLibraryService;
+import com.app.library.stats.LibraryStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedLibraryServiceTests {
+
+    private static final int SHARDS = 4;
+
+    @TempDir
+    Path dir;
+
+    private ShardedLibraryService service;
+
+    @BeforeEach
+    public void setup() {
+        service = new ShardedLibraryService(SHARDS);
+    }
+
+    private Book book(long id, String title, int copies) {
+        Book b = new Book(title, "Author", 2000, "F", copies);
+        b.setId(id);
+        return service.addBook(b);
+    }
+
+    private Member member(long id, String name) {
+        Member m = new Member();
+        m.setId(id);
+        m.setName(name);
+        return service.addMember(m);
+    }
+
+    @Test
+    public void borrowAndReturn_acrossShards() {
+        // books in shards 1 and 2, the member in shard 3
+        Book dune = book(1, "Dune", 1);
+        Book emma = book(2, "Emma", 1);
+        Member alice = member(3, "Alice");
+
+        BorrowingRecord first = service.borrow(dune.getId(), alice.getId());
+        BorrowingRecord second = service.borrow(emma.getId(), alice.getId());
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(service.borrow(dune.getId(), alice.getId()));
+        // each record lives in its book's shard
+        assertEquals(1, Math.floorMod(first.getId(), SHARDS));
+        assertEquals(2, Math.floorMod(second.getId(), SHARDS));
+        assertSame(alice, service.getBorrowingRecordById(first.getId()).orElseThrow().getMember());
+
+        assertEquals(List.of(first.getId(), second.getId()),
+                ids(service.getMemberRecords(alice.getId(), null, 10, true)));
+        assertEquals(List.of(first.getId()), ids(service.getBookRecords(dune.getId(), null, 10)));
+        LibraryStats stats = service.getStatistics(5);
+        assertEquals(2, stats.activeLoans());
+        // one member with loans in two shards
+        assertEquals(1, stats.membersWithActiveLoans());
+        assertEquals(2, stats.mostBorrowed().size());
+
+        assertNotNull(service.returnLoan(first.getId()).getReturnDate());
+        assertEquals(1, service.getBookById(dune.getId()).orElseThrow().getAvailableCopies());
+        assertEquals(List.of(second.getId()), ids(service.getMemberRecords(alice.getId(), null, 10, true)));
+        assertEquals(1, service.getStatistics(5).activeLoans());
+    }
+
+    @Test
+    public void batchBorrow_spanningShards_isAllOrNothing() {
+        Book a = book(1, "A", 1);
+        Book b = book(2, "B", 1);
+        Book c = book(3, "C", 0);
+        Member bob = member(4, "Bob");
+
+        assertTrue(service.borrowBooks(bob.getId(), List.of(a.getId(), b.getId(), c.getId())).isEmpty());
+        assertEquals(1, service.getBookById(a.getId()).orElseThrow().getAvailableCopies());
+
+        List<BorrowingRecord> lent = service.borrowBooks(bob.getId(), List.of(a.getId(), b.getId())).orElseThrow();
+        assertEquals(2, lent.size());
+        assertEquals(0, service.getBookById(b.getId()).orElseThrow().getAvailableCopies());
+
+        List<BorrowingRecord> returned = service.returnBooks(ids(lent)).orElseThrow();
+        assertTrue(returned.stream().allMatch(r -> r.getReturnDate() != null));
+        assertEquals(2, service.getStatistics(5).availableCopies());
+    }
+
+    @Test
+    public void listingsMergeShardsInIdOrder() {
+        List<Long> added = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            added.add(service.addBook(new Book("Book " + i, "Author", 2000, "F", 1)).getId());
+        }
+        added.sort(null);
+        assertEquals(50, service.getBookCount());
+        assertEquals(added.subList(0, 10), ids(service.getBooksPage(null, 10), Book::getId));
+        assertEquals(added.subList(10, 20), ids(service.getBooksPage(added.get(9), 10), Book::getId));
+        List<Long> streamed = new ArrayList<>();
+        service.forEachBook(b -> streamed.add(b.getId()));
+        assertEquals(added, streamed);
+        assertEquals(10, service.fullTextSearch("book", 10).size());
+    }
+
+    @Test
+    public void snapshotLoadsIntoADifferentShardCount() throws IOException {
+        Book dune = book(1, "Dune", 2);
+        Member alice = member(2, "Alice");
+        BorrowingRecord open = service.borrow(dune.getId(), alice.getId());
+        BorrowingRecord closed = service.returnLoan(service.borrow(dune.getId(), alice.getId()).getId());
+
+        SnapshotStore.write(dir, 7, service);
+        ShardedLibraryService loaded = new ShardedLibraryService(3);
+        SnapshotStore.load(dir, loaded);
+
+        assertEquals(1, loaded.getBookById(dune.getId()).orElseThrow().getAvailableCopies());
+        assertEquals(List.of(open.getId()), ids(loaded.getMemberRecords(alice.getId(), null, 10, true)));
+        assertNotNull(loaded.getBorrowingRecordById(closed.getId()).orElseThrow().getReturnDate());
+        assertNotNull(loaded.returnLoan(open.getId()).getReturnDate());
+        assertEquals(2, loaded.getBookById(dune.getId()).orElseThrow().getAvailableCopies());
+        // new ids stay clear of the loaded ones
+        assertTrue(loaded.borrow(dune.getId(), alice.getId()).getId() > closed.getId());
+    }
+
+    private static List<Long> ids(List<BorrowingRecord> records) {
+        return ids(records, BorrowingRecord::getId);
+    }
+
+    private static <T> List<Long> ids(List<T> items, Function<T, Long> id) {
+        return items.stream().map(id).toList();
+    }
+}
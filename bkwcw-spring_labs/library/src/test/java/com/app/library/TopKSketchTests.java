@@ -0,0 +1,31 @@
+package com.app.library;
+
+import com.app.library.stats.TopKSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopKSketchTests {
+
+    @Test
+    public void heavyHittersSurviveALongTailOfRareIds() {
+        TopKSketch sketch = new TopKSketch(1, 8);
+        for (int round = 0; round < 1000; round++) {
+            sketch.add(1);
+            if (round % 2 == 0) {
+                sketch.add(2);
+            }
+            // a different rare id every time
+            sketch.add(1_000 + round);
+        }
+
+        List<TopKSketch.Item> top = sketch.top(2);
+        assertEquals(1, top.get(0).id());
+        assertEquals(2, top.get(1).id());
+        // estimates never undercount, and overcount by at most the reported error
+        assertTrue(top.get(0).count() >= 1000 && top.get(0).count() - top.get(0).error() <= 1000);
+        assertTrue(top.get(1).count() >= 500 && top.get(1).count() - top.get(1).error() <= 500);
+    }
+}